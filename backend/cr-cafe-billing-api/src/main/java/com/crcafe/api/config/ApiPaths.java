@@ -22,6 +22,10 @@ public final class ApiPaths {
     public static final String DASHBOARD_USERS_PERFORMANCE = "/users-performance";
     public static final String DASHBOARD_RECENT_TRANSACTIONS = "/recent-transactions";
 
+    // Bills
+    public static final String BILLS_ROOT = API_ROOT + "/bills";
+    public static final String BILLS_RECEIPT = "/{receiptId}/receipt";
+
     // Items
     public static final String ITEMS_ROOT = API_ROOT + "/items";
 
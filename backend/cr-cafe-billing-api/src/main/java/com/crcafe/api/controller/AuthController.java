@@ -3,123 +3,158 @@ package com.crcafe.api.controller;
 import com.crcafe.api.config.ApiPaths;
 import com.crcafe.api.dto.LoginRequest;
 import com.crcafe.api.dto.LoginResponse;
+import com.crcafe.api.security.AccessTokenVerifier;
 import com.crcafe.api.security.JwtUtil;
-import com.crcafe.core.model.User; // Import User model
-import com.crcafe.core.service.UserService; // Import UserService
+import com.crcafe.api.security.LoginRateLimiter;
+import com.crcafe.core.security.TooManyRequestsException;
+import com.crcafe.core.service.RefreshTokenService;
+import com.crcafe.core.service.UserCache;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
 
 @RestController
 @RequestMapping(ApiPaths.AUTH_ROOT)
 @RequiredArgsConstructor
 public class AuthController {
 
+    private static final String REFRESH_TOKEN_COOKIE = "refreshToken";
+
     private final AuthenticationManager authenticationManager;
     private final JwtUtil jwtUtil;
-    private final UserService userService; // <-- INJECT THE USER SERVICE
-
+    private final AccessTokenVerifier accessTokenVerifier;
+    private final RefreshTokenService refreshTokenService;
+    private final UserCache userCache;
+    private final LoginRateLimiter loginRateLimiter;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Logins are rate limited per username and per client address before any password is
+     * checked, and password checks run on the bounded hashing pool; either can answer 429.
+     * Latency is recorded as {@code auth.login}, tagged with the result.
+     */
     @PostMapping(ApiPaths.AUTH_LOGIN)
-    public ResponseEntity<LoginResponse> login(@RequestBody @Valid LoginRequest loginRequest, HttpServletResponse response) throws Exception {
-    	System.out.println("IN LOGIN");
-        Authentication authentication = authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(loginRequest.getUsername(), loginRequest.getPassword())
-        );
-
-        final UserDetails userDetails = (UserDetails) authentication.getPrincipal();
-
-        // --- START OF FIX ---
-        // After successful authentication, fetch the full user object to get the ID
-        final User user = userService.findByUsername(userDetails.getUsername())
-                .orElseThrow(() -> new Exception("User not found after authentication"));
-        // --- END OF FIX ---
-
-        // CHANGE 3: Generate BOTH an access token and a refresh token
-        final String accessToken = jwtUtil.generateToken(userDetails);
-        final String refreshToken = jwtUtil.generateRefreshToken(userDetails);
-// --- Persist the refresh token to the database ---
-        userService.saveUserRefreshToken(user.getUsername(), refreshToken);
-
-        // CHANGE 4: Create a secure, HttpOnly cookie for the refresh token
-        Cookie refreshTokenCookie = new Cookie("refreshToken", refreshToken);
-        refreshTokenCookie.setHttpOnly(true);
-        refreshTokenCookie.setSecure(true); // In production, ensure you're using HTTPS
-        refreshTokenCookie.setPath("/");    // Set path to root to be accessible site-wide
-        refreshTokenCookie.setMaxAge(7 * 24 * 60 * 60); // 7 days (must match token expiration)
-        response.addCookie(refreshTokenCookie);
-
-        String role = userDetails.getAuthorities().stream()
-                .findFirst()
-                .map(GrantedAuthority::getAuthority)
-                .orElse("");
-
-        // Pass the user's ID into the response
-        // REPLACE THE FINAL RETURN STATEMENT IN THE /login ENDPOINT WITH THIS
-        return ResponseEntity.ok(new LoginResponse(
-                accessToken,
-                user.getId(),
-                userDetails.getUsername(),
-                role,
-                user.getProfileImageUrl() // The new line
-        ));
+    public ResponseEntity<LoginResponse> login(@RequestBody @Valid LoginRequest loginRequest,
+                                               HttpServletRequest request, HttpServletResponse response) throws Exception {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String result = "error";
+        try {
+            // The client's address; behind the production proxy it comes from X-Forwarded-For
+            // (server.forward-headers-strategy), otherwise every client would share one budget.
+            loginRateLimiter.acquire(loginRequest.getUsername(), request.getRemoteAddr());
+
+            Authentication authentication = authenticationManager.authenticate(
+                    new UsernamePasswordAuthenticationToken(loginRequest.getUsername(), loginRequest.getPassword())
+            );
+
+            final UserDetails userDetails = (UserDetails) authentication.getPrincipal();
+
+            // After successful authentication, look up the user's id
+            final UserCache.Entry user = userCache.get(userDetails.getUsername());
+            if (user == null) {
+                throw new Exception("User not found after authentication");
+            }
+
+            // Every login is a new session (one per device) with its own refresh token
+            final String accessToken = jwtUtil.generateToken(user.toPrincipal());
+            RefreshTokenService.Issued refreshToken =
+                    refreshTokenService.startSession(user.id(), request.getHeader(HttpHeaders.USER_AGENT));
+            response.addCookie(refreshTokenCookie(refreshToken));
+
+            result = "success";
+            return ResponseEntity.ok(toLoginResponse(accessToken, user));
+        } catch (AuthenticationException e) {
+            result = "rejected";
+            throw e;
+        } catch (TooManyRequestsException e) {
+            result = "throttled";
+            throw e;
+        } finally {
+            sample.stop(Timer.builder("auth.login")
+                    .description("Login requests, from arrival to response")
+                    .tag("result", result)
+                    .publishPercentiles(0.5, 0.95, 0.99)
+                    .register(meterRegistry));
+        }
     }
 
     @PostMapping("/logout")
-    public ResponseEntity<?> logout() {
-        // In a stateless JWT system, logout is handled on the client by deleting the token.
-        // This endpoint exists for extensibility (e.g., token blacklist) and frontend symmetry.
+    public ResponseEntity<?> logout(@RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+                                    @CookieValue(value = REFRESH_TOKEN_COOKIE, required = false) String refreshToken,
+                                    HttpServletResponse response) {
+        // The client deletes its tokens; the access token is also revoked so a copy of it
+        // cannot be used for the rest of its lifetime, and the refresh session is ended.
+        if (authorization != null && authorization.startsWith("Bearer ")) {
+            try {
+                accessTokenVerifier.revoke(authorization.substring(7));
+            } catch (JwtException e) {
+                // Already expired, revoked or invalid: nothing left to revoke.
+            }
+        }
+        if (refreshToken != null && !refreshToken.isEmpty()) {
+            refreshTokenService.endSession(refreshToken);
+        }
+        response.addCookie(refreshTokenCookie(null));
         return ResponseEntity.ok().build();
     }
 
+    /**
+     * Exchanges the refresh token cookie for a new access token and rotates the cookie.
+     * A refresh token works once; presenting it again ends its session.
+     */
     @PostMapping(ApiPaths.AUTH_REFRESH)
-    public ResponseEntity<?> refreshToken(@RequestBody String refreshToken) {
+    public ResponseEntity<?> refreshToken(@CookieValue(value = REFRESH_TOKEN_COOKIE, required = false) String refreshToken,
+                                          HttpServletResponse response) {
         if (refreshToken == null || refreshToken.isEmpty()) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Refresh token is missing.");
         }
 
-        try {
-            String username = jwtUtil.extractUsername(refreshToken);
-            // Since User implements UserDetails, we can use it directly
-            User user = userService.findByUsername(username)
-                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.FORBIDDEN, "User not found for token."));
-
-            if (!refreshToken.equals(user.getRefreshToken()) || !jwtUtil.validateToken(refreshToken, user)) {
-                throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Invalid or expired refresh token.");
-            }
-
-            String newAccessToken = jwtUtil.generateToken(user);
-
-            // --- START OF FIX ---
-            // Get the role as a String from the user's authorities, just like in the /login method.
-            // This is possible because your User class now implements UserDetails.
-            String role = user.getAuthorities().stream()
-                    .findFirst()
-                    .map(GrantedAuthority::getAuthority)
-                    .orElse("");
-
-            // Pass the String 'role' to the LoginResponse constructor instead of the UserRole enum.
-            // REPLACE THE FINAL RETURN STATEMENT IN THE /login ENDPOINT WITH THIS
-            return ResponseEntity.ok(new LoginResponse(
-                    newAccessToken,
-                    user.getId(),
-                    user.getUsername(),
-                    role,
-                    user.getProfileImageUrl() // The new line
-            ));
-            // --- END OF FIX ---
-
-        } catch (Exception e) {
+        Optional<RefreshTokenService.Issued> next = refreshTokenService.rotate(refreshToken);
+        UserCache.Entry user = next.map(issued -> userCache.get(issued.userId())).orElse(null);
+        if (user == null) {
+            response.addCookie(refreshTokenCookie(null));
             return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Invalid refresh token.");
         }
+
+        response.addCookie(refreshTokenCookie(next.get()));
+        return ResponseEntity.ok(toLoginResponse(jwtUtil.generateToken(user.toPrincipal()), user));
+    }
+
+    private static LoginResponse toLoginResponse(String accessToken, UserCache.Entry user) {
+        // Same role format as the user's authority, e.g. ROLE_OWNER
+        return new LoginResponse(accessToken, user.id(), user.username(), "ROLE_" + user.role().name(),
+                user.profileImageUrl());
+    }
+
+    /**
+     * HttpOnly cookie carrying {@code refreshToken}, or clearing the cookie if it is null.
+     */
+    private static Cookie refreshTokenCookie(RefreshTokenService.Issued refreshToken) {
+        Cookie cookie = new Cookie(REFRESH_TOKEN_COOKIE, refreshToken != null ? refreshToken.token() : "");
+        cookie.setHttpOnly(true);
+        cookie.setSecure(true); // In production, ensure you're using HTTPS
+        cookie.setPath("/");    // Set path to root to be accessible site-wide
+        cookie.setMaxAge(refreshToken != null
+                ? (int) Math.max(0, Duration.between(LocalDateTime.now(), refreshToken.expiresAt()).getSeconds())
+                : 0);
+        return cookie;
     }
 }
@@ -0,0 +1,53 @@
+package com.crcafe.api.controller;
+
+import com.crcafe.api.config.ApiPaths;
+import com.crcafe.core.receipt.ReceiptFormat;
+import com.crcafe.core.receipt.ReceiptService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Controller for bill receipts.
+ */
+@RestController
+@RequestMapping(ApiPaths.BILLS_ROOT)
+@RequiredArgsConstructor
+public class BillController {
+
+    // A bill never changes, so a terminal may keep its receipt for a day.
+    private static final CacheControl IMMUTABLE = CacheControl.maxAge(1, TimeUnit.DAYS).cachePrivate();
+
+    private final ReceiptService receiptService;
+
+    /**
+     * The receipt of a bill, rendered on the server: {@code format=text} (default), {@code escpos}
+     * (raw bytes for a thermal printer) or {@code pdf}.
+     */
+    @GetMapping(ApiPaths.BILLS_RECEIPT)
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<byte[]> getReceipt(@PathVariable String receiptId,
+                                             @RequestParam(defaultValue = "text") String format) {
+        ReceiptFormat receiptFormat = ReceiptFormat.fromString(format);
+        byte[] body = receiptService.getReceipt(receiptId, receiptFormat);
+        ContentDisposition disposition = ContentDisposition.inline()
+                .filename(receiptId + "." + receiptFormat.getFileExtension())
+                .build();
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(receiptFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, disposition.toString())
+                .cacheControl(IMMUTABLE)
+                .body(body);
+    }
+}
@@ -1,62 +1,189 @@
 package com.crcafe.api.controller;
 
+import com.crcafe.api.stream.DashboardStreamPublisher;
 import com.crcafe.core.dto.DashboardSummaryDto;
+import com.crcafe.core.dto.RevenueBucket;
+import com.crcafe.core.dto.RevenueGranularity;
+import com.crcafe.core.dto.TransactionFilter;
+import com.crcafe.core.dto.TransactionRow;
+import com.crcafe.core.model.PaymentMode;
 import com.crcafe.core.repository.UserOrderCountProjection;
+import com.crcafe.core.service.DashboardCache;
+import com.crcafe.core.service.DashboardOverviewService;
 import com.crcafe.core.service.DashboardService;
+import com.crcafe.core.service.SalesRollupService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api/dashboard")
 public class DashboardController {
+    private static final int MAX_TOP_ITEMS = 100;
+    private static final int MAX_PAGE_SIZE = 100;
+    // Browsers may keep dashboard responses but must revalidate them with If-None-Match every time.
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
     private final DashboardService dashboardService;
+    private final SalesRollupService salesRollupService;
+    private final DashboardStreamPublisher dashboardStreamPublisher;
+    private final DashboardCache dashboardCache;
+    private final DashboardOverviewService dashboardOverviewService;
+    private final ZoneId zone;
 
-    public DashboardController(DashboardService dashboardService) {
+    public DashboardController(DashboardService dashboardService, SalesRollupService salesRollupService,
+                               DashboardStreamPublisher dashboardStreamPublisher, DashboardCache dashboardCache,
+                               DashboardOverviewService dashboardOverviewService,
+                               @Value("${dashboard.timezone:Asia/Kolkata}") String timezone) {
         this.dashboardService = dashboardService;
+        this.salesRollupService = salesRollupService;
+        this.dashboardStreamPublisher = dashboardStreamPublisher;
+        this.dashboardCache = dashboardCache;
+        this.dashboardOverviewService = dashboardOverviewService;
+        this.zone = ZoneId.of(timezone);
+    }
+
+    /**
+     * Server-Sent Events stream of live dashboard metrics. Sends a "snapshot" event on connect
+     * and a "bill" event (with refreshed totals) after every committed bill, so open dashboards
+     * no longer need to poll the summary endpoints.
+     */
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasRole('OWNER') or hasRole('MANAGER')")
+    public ResponseEntity<SseEmitter> stream() {
+        SseEmitter emitter = dashboardStreamPublisher.subscribe();
+        if (emitter == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        return ResponseEntity.ok(emitter);
+    }
+
+    /**
+     * Several widgets in one round trip, computed in parallel, e.g.
+     * {@code /overview?widgets=summary,revenue,top-items&range=week}. Without {@code widgets} every
+     * widget is returned. Widgets that time out or fail are listed under {@code errors}
+     * and the rest are still returned; such a partial response carries no ETag and is not stored.
+     */
+    @GetMapping("/overview")
+    @PreAuthorize("hasRole('OWNER') or hasRole('MANAGER')")
+    public ResponseEntity<Map<String, Object>> getOverview(
+            @RequestParam(required = false) List<String> widgets,
+            @RequestParam(defaultValue = "day") String range,
+            @RequestParam(defaultValue = "day") String performanceRange,
+            WebRequest request) {
+        List<String> requested = widgets == null || widgets.isEmpty()
+                ? DashboardOverviewService.WIDGETS
+                : widgets.stream().map(String::trim).filter(w -> !w.isEmpty()).distinct().toList();
+        return conditional(request, () -> dashboardOverviewService.getOverview(requested, range, performanceRange),
+                overview -> ((Map<?, ?>) overview.get("errors")).isEmpty());
     }
 
     @GetMapping("/summary")
     @PreAuthorize("hasRole('OWNER') or hasRole('MANAGER')")
-    public ResponseEntity<DashboardSummaryDto> getSummary() {
-        return ResponseEntity.ok(dashboardService.getSummary());
+    public ResponseEntity<DashboardSummaryDto> getSummary(WebRequest request) {
+        return conditional(request, dashboardService::getSummary);
     }
 
+    /**
+     * Best-selling items, optionally restricted to orders placed between {@code from} and {@code to}
+     * (both inclusive calendar days).
+     */
     @GetMapping("/top-items")
     @PreAuthorize("hasRole('OWNER') or hasRole('MANAGER')")
-    public ResponseEntity<List<Map<String, Object>>> getTopItems() {
-        return ResponseEntity.ok(dashboardService.getTopItems());
+    public ResponseEntity<List<Map<String, Object>>> getTopItems(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "10") int limit,
+            WebRequest request) {
+        LocalDateTime fromDateTime = from != null ? from.atStartOfDay() : null;
+        LocalDateTime toDateTime = to != null ? to.plusDays(1).atStartOfDay() : null;
+        int boundedLimit = Math.max(1, Math.min(limit, MAX_TOP_ITEMS));
+        return conditional(request, () -> dashboardService.getTopItems(fromDateTime, toDateTime, boundedLimit));
     }
 
+    /**
+     * Today's trending items from the in-memory counter. Does not touch the database,
+     * so it is open to every signed-in user for the POS screen.
+     */
+    @GetMapping("/trending-items")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<List<Map<String, Object>>> getTrendingItems(@RequestParam(defaultValue = "10") int limit) {
+        int boundedLimit = Math.max(1, Math.min(limit, MAX_TOP_ITEMS));
+        return ResponseEntity.ok(dashboardService.getTrendingItems(boundedLimit));
+    }
+
+    /**
+     * Revenue per hour, day, week or month between {@code from} and {@code to} (inclusive calendar days).
+     * Without an explicit range a recent window suited to the granularity is used.
+     */
     @GetMapping("/revenue")
     @PreAuthorize("hasRole('OWNER') or hasRole('MANAGER')")
-    public ResponseEntity<List<Map<String, Object>>> getRevenue(@RequestParam(defaultValue = "day") String range) {
-        return ResponseEntity.ok(dashboardService.getRevenue(range));
+    public ResponseEntity<List<RevenueBucket>> getRevenue(
+            @RequestParam(defaultValue = "day") String range,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            WebRequest request) {
+        RevenueGranularity granularity = RevenueGranularity.fromString(range);
+        LocalDate lastDay = to != null ? to : LocalDate.now();
+        LocalDate firstDay = from != null ? from : granularity.defaultFrom(lastDay);
+        return conditional(request, () -> dashboardService.getRevenue(
+                granularity, firstDay.atStartOfDay(), lastDay.plusDays(1).atStartOfDay()));
     }
 
     @GetMapping("/recent-transactions")
     @PreAuthorize("hasRole('OWNER') or hasRole('MANAGER')")
-    public ResponseEntity<List<Map<String, Object>>> getRecentTransactions() {
-        return ResponseEntity.ok(dashboardService.getRecentTransactions());
+    public ResponseEntity<List<TransactionRow>> getRecentTransactions(WebRequest request) {
+        return conditional(request, dashboardService::getRecentTransactions);
     }
+    /**
+     * Recent transactions, newest first. Pass the {@code nextCursor}/{@code prevCursor} from the
+     * previous response as {@code cursor} (with {@code direction=prev} for newer bills) to seek
+     * directly to the next page. The legacy {@code page} parameter still works when no cursor
+     * is given, but costs an OFFSET scan and a COUNT(*) per request.
+     */
     @GetMapping("/recent-transactions/paginated")
     @PreAuthorize("hasRole('OWNER') or hasRole('MANAGER')")
     public ResponseEntity<Map<String, Object>> getRecentTransactionsPaginated(
-            @RequestParam(defaultValue = "1") int page,
-            @RequestParam(defaultValue = "10") int size) {
-        return ResponseEntity.ok(dashboardService.getRecentTransactionsPaginated(page, size));
+            @RequestParam(required = false) Integer page,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "next") String direction,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        if (cursor == null && page != null) {
+            return ResponseEntity.ok(dashboardService.getRecentTransactionsWithFilters(
+                    Math.max(page, 1), pageSize, TransactionFilter.NONE));
+        }
+        return ResponseEntity.ok(dashboardService.getRecentTransactionsWithFiltersPage(
+                cursor, isNewerDirection(direction), pageSize, includeTotal, TransactionFilter.NONE));
     }
     @GetMapping("/recent-transactions/filtered")
     @PreAuthorize("hasRole('OWNER') or hasRole('MANAGER')")
     public ResponseEntity<Map<String, Object>> getRecentTransactionsWithFilters(
-            @RequestParam(defaultValue = "1") int page,
+            @RequestParam(required = false) Integer page,
             @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "next") String direction,
+            @RequestParam(defaultValue = "false") boolean includeTotal,
             @RequestParam(required = false) String cashier,
             @RequestParam(required = false) java.math.BigDecimal minValue,
             @RequestParam(required = false) java.math.BigDecimal maxValue,
@@ -73,21 +200,62 @@ public class DashboardController {
         if (endDate != null && !endDate.isEmpty()) {
             endDateTime = java.time.LocalDate.parse(endDate).atTime(23, 59, 59);
         }
-        
-        return ResponseEntity.ok(dashboardService.getRecentTransactionsWithFilters(
-            page, size, cashier, minValue, maxValue, startDateTime, endDateTime, paymentMode));
+
+        // Blank values from the filter form mean "no filter", so they never reach the query.
+        TransactionFilter filter = new TransactionFilter(
+            cashier != null && !cashier.isEmpty() ? cashier : null,
+            minValue,
+            maxValue,
+            startDateTime,
+            endDateTime,
+            paymentMode != null && !paymentMode.isEmpty() ? PaymentMode.valueOf(paymentMode.toUpperCase()) : null);
+
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        if (cursor == null && page != null) {
+            return ResponseEntity.ok(dashboardService.getRecentTransactionsWithFilters(Math.max(page, 1), pageSize, filter));
+        }
+        return ResponseEntity.ok(dashboardService.getRecentTransactionsWithFiltersPage(
+            cursor, isNewerDirection(direction), pageSize, includeTotal, filter));
     }
 
     @GetMapping("/cashiers")
     @PreAuthorize("hasRole('OWNER') or hasRole('MANAGER')")
-    public ResponseEntity<List<String>> getAllCashiers() {
-        return ResponseEntity.ok(dashboardService.getAllCashiers());
+    public ResponseEntity<List<String>> getAllCashiers(WebRequest request) {
+        return conditional(request, dashboardService::getAllCashiers);
     }
+    /**
+     * Orders, bills, revenue, discount and average ticket per cashier for the current
+     * {@code range} (day, week or month), or for {@code from}..{@code to} (inclusive calendar days)
+     * when either bound is given.
+     */
     @GetMapping("/users-performance")
     @PreAuthorize("hasRole('OWNER') or hasRole('MANAGER')")
     public ResponseEntity<List<Map<String,Object>>> getUserPerformance(
-            @RequestParam(defaultValue = "day") String range) {
-        return ResponseEntity.ok(dashboardService.getUsersPerformance(range));
+            @RequestParam(defaultValue = "day") String range,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            WebRequest request) {
+        if (from == null && to == null) {
+            return conditional(request, () -> dashboardService.getUsersPerformance(range));
+        }
+        LocalDate lastDay = to != null ? to : LocalDate.now();
+        LocalDate firstDay = from != null ? from : lastDay;
+        return conditional(request, () -> dashboardService.getUsersPerformance(
+                firstDay.atStartOfDay(), lastDay.plusDays(1).atStartOfDay()));
+    }
+
+    /**
+     * Open, billed and void order counts for {@code from}..{@code to} (inclusive calendar days, default today).
+     */
+    @GetMapping("/order-status")
+    @PreAuthorize("hasRole('OWNER') or hasRole('MANAGER')")
+    public ResponseEntity<Map<String, Long>> getOrderStatusCounts(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        LocalDate lastDay = to != null ? to : LocalDate.now();
+        LocalDate firstDay = from != null ? from : lastDay;
+        return ResponseEntity.ok(dashboardService.getOrderStatusCounts(
+                firstDay.atStartOfDay(), lastDay.plusDays(1).atStartOfDay()));
     }
 
     @GetMapping("/todays-revenue-by-payment-mode")
@@ -102,4 +270,50 @@ public class DashboardController {
         System.out.println("Result: " + result);
         return ResponseEntity.ok(result);
     }
-} 
\ No newline at end of file
+
+    @PostMapping("/rollups/rebuild")
+    @PreAuthorize("hasRole('OWNER')")
+    public ResponseEntity<Void> rebuildSalesRollups() {
+        salesRollupService.rebuild();
+        dashboardCache.invalidateAll();
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Answers 304 Not Modified, without computing the body, when the client's If-None-Match still
+     * matches the current dashboard data version, which all instances share. The business day is
+     * part of the ETag because "today" figures change at midnight without any new data. The ETag
+     * is read before the body is computed, so a concurrent change can only make the next poll
+     * refetch, never hide new data.
+     */
+    private <T> ResponseEntity<T> conditional(WebRequest request, Supplier<T> body) {
+        return conditional(request, body, value -> true);
+    }
+
+    /**
+     * As {@link #conditional(WebRequest, Supplier)}, but a body that fails {@code complete} (e.g. an
+     * overview with failed widgets) is sent without an ETag and must not be stored, so the next
+     * poll computes it again instead of being answered 304 until the data changes.
+     */
+    private <T> ResponseEntity<T> conditional(WebRequest request, Supplier<T> body, Predicate<T> complete) {
+        String etag = "\"" + dashboardCache.getVersion() + "-" + LocalDate.now(zone) + "\"";
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(REVALIDATE).build();
+        }
+        T value = body.get();
+        if (!complete.test(value)) {
+            return ResponseEntity.ok().cacheControl(CacheControl.noStore()).body(value);
+        }
+        return ResponseEntity.ok().eTag(etag).cacheControl(REVALIDATE).body(value);
+    }
+
+    private static boolean isNewerDirection(String direction) {
+        if ("prev".equalsIgnoreCase(direction)) {
+            return true;
+        }
+        if ("next".equalsIgnoreCase(direction)) {
+            return false;
+        }
+        throw new IllegalArgumentException("Invalid direction: " + direction);
+    }
+}
@@ -1,15 +1,23 @@
 package com.crcafe.api.controller;
 
 import com.crcafe.api.dto.CreateItemRequest;
+import com.crcafe.core.dto.MenuChanges;
 import com.crcafe.core.model.Item;
-import com.crcafe.core.repository.ItemRepository;
+import com.crcafe.core.service.ItemService;
+import com.crcafe.core.service.MenuCatalog;
 import com.crcafe.api.config.ApiPaths;
+import com.crcafe.api.stream.JsonArrayStream;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import jakarta.validation.Valid;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.math.BigDecimal;
 import java.util.List;
@@ -22,18 +30,54 @@ import java.util.List;
 @RequiredArgsConstructor
 public class ItemController {
 
-    private final ItemRepository itemRepository;
+    // Terminals may keep the menu but must revalidate it with If-None-Match on every load.
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
+    // Every mutation goes through the item service, which bumps the catalog version with it.
+    private final ItemService itemService;
+    private final MenuCatalog menuCatalog;
+    private final ObjectMapper objectMapper;
 
     /**
      * This endpoint gets ALL items (both available and unavailable).
      * This is required for the Owner's Cafe Menu management page, so they can see and manage all items.
      * The worker's Menu Page will filter this list on the frontend to only show available items.
      * Any authenticated user can access this list.
+     * The ETag is the catalog version, shared by all instances, so a terminal whose copy is
+     * current gets 304 with no body wherever its request lands.
      */
     @GetMapping
     @PreAuthorize("isAuthenticated()") // Securing the endpoint as you suggested
-    public List<Item> getAllItems() {
-        return itemRepository.findAll();
+    public ResponseEntity<StreamingResponseBody> getAllItems(WebRequest request) {
+        String etag = "\"" + menuCatalog.getVersion() + "\"";
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(REVALIDATE).build();
+        }
+        // Same JSON as the Item entity, written straight from the snapshot entries.
+        List<MenuCatalog.Entry> entries = menuCatalog.entries();
+        StreamingResponseBody body = JsonArrayStream.of(objectMapper.getFactory(), generator -> {
+            for (MenuCatalog.Entry entry : entries) {
+                generator.writeStartObject();
+                generator.writeNumberField("id", entry.id());
+                generator.writeStringField("name", entry.name());
+                generator.writeNumberField("price", entry.price());
+                generator.writeBooleanField("available", entry.available());
+                generator.writeStringField("imageUrl", entry.imageUrl());
+                generator.writeEndObject();
+            }
+        });
+        return ResponseEntity.ok().eTag(etag).cacheControl(REVALIDATE).contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    /**
+     * Items changed since catalog version {@code since} (the ETag of /api/items, or the
+     * {@code version} of a previous response). If that version is too old the full menu is
+     * returned with {@code full=true}.
+     */
+    @GetMapping("/changes")
+    @PreAuthorize("isAuthenticated()")
+    public MenuChanges getItemChanges(@RequestParam long since) {
+        return menuCatalog.changesSince(since);
     }
 
     // This is the updated endpoint for creating a new item with an image.
@@ -46,7 +90,7 @@ public class ItemController {
         newItem.setImageUrl(request.getImageUrl());
         newItem.setAvailable(true); // New items are available by default
 
-        Item savedItem = itemRepository.save(newItem);
+        Item savedItem = itemService.create(newItem);
         return new ResponseEntity<>(savedItem, HttpStatus.CREATED);
     }
 
@@ -54,13 +98,11 @@ public class ItemController {
     @DeleteMapping("/{id}")
     @PreAuthorize("hasRole('OWNER')")
     public ResponseEntity<Void> deleteItem(@PathVariable Long id) {
-        // First, check if the item exists.
-        if (!itemRepository.existsById(id)) {
+        // The database will prevent this if the item is part of any existing order,
+        // which protects your sales history.
+        if (!itemService.delete(id)) {
             return ResponseEntity.notFound().build();
         }
-        // Attempt to delete the item. The database will prevent this if the item
-        // is part of any existing order, which protects your sales history.
-        itemRepository.deleteById(id);
         return ResponseEntity.noContent().build(); // Success response for a deletion
     }
 
@@ -68,11 +110,8 @@ public class ItemController {
     @PutMapping("/{id}/availability")
     @PreAuthorize("hasAnyRole('OWNER', 'MANAGER')")
     public ResponseEntity<Item> setItemAvailability(@PathVariable Long id, @RequestBody boolean isAvailable) {
-        return itemRepository.findById(id)
-                .map(item -> {
-                    item.setAvailable(isAvailable);
-                    return ResponseEntity.ok(itemRepository.save(item));
-                })
+        return itemService.setAvailability(id, isAvailable)
+                .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
     @PatchMapping("/{id}/price")
@@ -82,12 +121,8 @@ public class ItemController {
             return ResponseEntity.badRequest().build();
         }
 
-        return itemRepository.findById(id)
-                .map(item -> {
-                    item.setPrice(newPrice);
-                    Item updatedItem = itemRepository.save(item);
-                    return ResponseEntity.ok(updatedItem);
-                })
+        return itemService.updatePrice(id, newPrice)
+                .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
 }
\ No newline at end of file
@@ -1,29 +1,46 @@
 package com.crcafe.api.controller;
 
 import com.crcafe.api.config.ApiPaths;
+import com.crcafe.api.dto.BulkOrderRequestDto;
+import com.crcafe.api.dto.CheckoutRequestDto;
+import com.crcafe.api.dto.OrderItemDto;
 import com.crcafe.api.dto.OrderRequestDto;
 import com.crcafe.api.dto.response.BillResponseDto;
 import com.crcafe.api.dto.response.OrderItemResponseDto;
 import com.crcafe.api.dto.response.OrderResponseDto;
-import com.crcafe.api.dto.response.UserResponseDto;
+import com.crcafe.api.dto.response.ReceiptDto;
+import com.crcafe.core.dto.BulkOrder;
+import com.crcafe.core.dto.BulkOrderResult;
 import com.crcafe.core.model.Bill;
 import com.crcafe.core.model.Item;
 import com.crcafe.core.model.Order;
 import com.crcafe.core.model.OrderItem;
 import com.crcafe.core.model.PaymentMode;
-import com.crcafe.core.model.User;
-import com.crcafe.core.repository.UserRepository;
+import com.crcafe.core.repository.OrderItemRepository;
+import com.crcafe.core.security.UserPrincipal;
+import com.crcafe.core.service.IdempotencyService;
 import com.crcafe.core.service.OrderService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 
 @RestController
 @RequestMapping(ApiPaths.ORDERS_ROOT)
@@ -31,22 +48,78 @@ import org.springframework.security.core.userdetails.UserDetails;
 public class OrderController {
 
     private final OrderService orderService;
-    private final UserRepository userRepository; // Inject UserRepository
+    private final OrderItemRepository orderItemRepository;
+    private final IdempotencyService idempotencyService;
+    private final ObjectMapper objectMapper;
+
+    private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    private static final int MAX_IDEMPOTENCY_KEY_LENGTH = 255;
 
     @PostMapping
     @PreAuthorize("hasAnyRole('OWNER', 'MANAGER', 'WORKER')")
-    public ResponseEntity<OrderResponseDto> createOrder(@RequestBody @Valid OrderRequestDto orderRequestDto) {
-        List<OrderItem> orderItems = orderRequestDto.getItems().stream().map(dto -> {
-            OrderItem orderItem = new OrderItem();
-            Item item = new Item();
-            item.setId(dto.getItemId());
-            orderItem.setItem(item);
-            orderItem.setQuantity(dto.getQuantity());
-            return orderItem;
-        }).collect(Collectors.toList());
+    public ResponseEntity<OrderResponseDto> createOrder(
+            @RequestBody @Valid OrderRequestDto orderRequestDto,
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        if (idempotencyKey != null) {
+            return idempotent(idempotencyKey, "POST /orders", toJson(orderRequestDto), OrderResponseDto.class,
+                    () -> createOrder(orderRequestDto, null).getBody());
+        }
+        List<OrderItem> orderItems = toOrderItems(orderRequestDto.getItems());
 
         Order createdOrder = orderService.createOrder(orderItems, orderRequestDto.getUserId());
-        return ResponseEntity.ok(toOrderResponseDto(createdOrder));
+        return ResponseEntity.ok(toOrderResponseDto(createdOrder, toOrderItemResponseDtos(createdOrder.getOrderItems())));
+    }
+
+    /**
+     * Creates the order and its bill in one request and one transaction, returning a compact receipt.
+     * Replaces the createOrder + generateBill pair for the normal checkout flow. The sale is recorded
+     * under the authenticated cashier.
+     */
+    @PostMapping("/checkout")
+    @PreAuthorize("hasAnyRole('OWNER', 'MANAGER', 'WORKER')")
+    public ResponseEntity<ReceiptDto> checkout(
+            @RequestBody @Valid CheckoutRequestDto checkoutRequestDto,
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+            @AuthenticationPrincipal UserPrincipal principal) {
+        if (idempotencyKey != null) {
+            return idempotent(idempotencyKey, "POST /orders/checkout", toJson(checkoutRequestDto), ReceiptDto.class,
+                    () -> checkout(checkoutRequestDto, null, principal).getBody());
+        }
+        PaymentMode paymentMode = checkoutRequestDto.getPaymentMode() != null
+                ? checkoutRequestDto.getPaymentMode() : PaymentMode.CASH;
+        Bill bill = orderService.checkout(toOrderItems(checkoutRequestDto.getItems()), principal.getUserId(),
+                checkoutRequestDto.getDiscountId(), paymentMode);
+        return ResponseEntity.ok(toReceiptDto(bill));
+    }
+
+    /**
+     * Creates many orders in one request, e.g. a terminal's offline backlog, all under the
+     * authenticated cashier. Every order succeeds or fails independently; {@code results} lists
+     * them in request order with their correlation IDs.
+     */
+    @PostMapping("/bulk")
+    @PreAuthorize("hasAnyRole('OWNER', 'MANAGER', 'WORKER')")
+    public ResponseEntity<Map<String, Object>> createOrders(@RequestBody @Valid BulkOrderRequestDto request,
+                                                            @AuthenticationPrincipal UserPrincipal principal) {
+        List<BulkOrder> orders = request.getOrders().stream()
+                .map(dto -> new BulkOrder(
+                        dto.getCorrelationId(),
+                        dto.getOrderDate(),
+                        dto.getItems().stream()
+                                .map(item -> new BulkOrder.Line(item.getItemId(), item.getQuantity()))
+                                .toList(),
+                        dto.getPaymentMode(),
+                        dto.getDiscountId()))
+                .toList();
+
+        List<BulkOrderResult> results = orderService.createOrders(principal.getUserId(), orders);
+        long created = results.stream().filter(BulkOrderResult::success).count();
+
+        Map<String, Object> body = new HashMap<>();
+        body.put("created", created);
+        body.put("failed", results.size() - created);
+        body.put("results", results);
+        return ResponseEntity.ok(body);
     }
 
     @PostMapping("/{orderId}/bill")
@@ -54,82 +127,132 @@ public class OrderController {
     public ResponseEntity<BillResponseDto> generateBill(
             @PathVariable Long orderId, 
             @RequestParam(required = false) Long discountId,
-            @RequestParam(defaultValue = "CASH") PaymentMode paymentMode) {
+            @RequestParam(defaultValue = "CASH") PaymentMode paymentMode,
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        if (idempotencyKey != null) {
+            return idempotent(idempotencyKey, "POST /orders/" + orderId + "/bill", discountId + "|" + paymentMode,
+                    BillResponseDto.class, () -> generateBill(orderId, discountId, paymentMode, null).getBody());
+        }
         Bill bill = orderService.generateBill(orderId, discountId, paymentMode);
         return ResponseEntity.ok(toBillResponseDto(bill));
     }
 
+    /**
+     * Cancels an order that has not been billed; 409 if it is already billed or void.
+     */
+    @PostMapping("/{orderId}/void")
+    @PreAuthorize("hasAnyRole('OWNER', 'MANAGER')")
+    public ResponseEntity<OrderResponseDto> voidOrder(@PathVariable Long orderId) {
+        Order order = orderService.voidOrder(orderId);
+        return ResponseEntity.ok(toOrderResponseDto(order, readOrderItemResponseDtos(order.getId())));
+    }
+
     @GetMapping(ApiPaths.ORDERS_TODAY_COUNT)
     @PreAuthorize("hasAnyRole('OWNER', 'MANAGER')")
-    public ResponseEntity<Long> getTodaysOrderCount() {
-        // Safely get the username from the security context
-        UserDetails userDetails = (UserDetails) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-        String username = userDetails.getUsername();
-
-        // Fetch the user entity from the repository
-        User currentUser = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("User not found: " + username));
-        
-        long count = orderService.getTodaysOrderCountForUser(currentUser.getId());
+    public ResponseEntity<Long> getTodaysOrderCount(@AuthenticationPrincipal UserPrincipal principal) {
+        long count = orderService.getTodaysOrderCountForUser(principal.getUserId());
         return ResponseEntity.ok(count);
     }
 
     @GetMapping(ApiPaths.ORDERS_MY_DAY_COUNT)
     @PreAuthorize("hasAnyRole('OWNER', 'MANAGER', 'WORKER')")
-    public ResponseEntity<Long> getMyTodaysOrderCount() {
-        // Safely get the username from the security context
-        UserDetails userDetails = (UserDetails) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-        String username = userDetails.getUsername();
-
-        // Fetch the user entity from the repository
-        User currentUser = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("User not found: " + username));
-        
-        long count = orderService.getTodaysOrderCountForUser(currentUser.getId());
+    public ResponseEntity<Long> getMyTodaysOrderCount(@AuthenticationPrincipal UserPrincipal principal) {
+        long count = orderService.getTodaysOrderCountForUser(principal.getUserId());
         return ResponseEntity.ok(count);
     }
 
+    /**
+     * Runs {@code action} once per Idempotency-Key (per user and endpoint) and answers retries with
+     * the original response, marked with an {@code Idempotent-Replayed: true} header.
+     */
+    private <T> ResponseEntity<T> idempotent(String idempotencyKey, String endpoint, String request,
+                                             Class<T> responseType, Supplier<T> action) {
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_IDEMPOTENCY_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency-Key must be 1 to " + MAX_IDEMPOTENCY_KEY_LENGTH + " characters.");
+        }
+        String username = SecurityContextHolder.getContext().getAuthentication().getName();
+        String key = sha256(username + "\n" + endpoint + "\n" + idempotencyKey);
+        IdempotencyService.Outcome outcome = idempotencyService.execute(key, sha256(request),
+                () -> IdempotencyService.StoredResponse.of(200, toJson(action.get())));
+        try {
+            T body = objectMapper.readValue(outcome.response().body(), responseType);
+            return ResponseEntity.status(outcome.response().statusCode())
+                    .header("Idempotent-Replayed", String.valueOf(outcome.replayed()))
+                    .body(body);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String sha256(String value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
     // --- Helper methods to convert entities to DTOs ---
 
+    private List<OrderItem> toOrderItems(List<OrderItemDto> items) {
+        return items.stream().map(dto -> {
+            OrderItem orderItem = new OrderItem();
+            Item item = new Item();
+            item.setId(dto.getItemId());
+            orderItem.setItem(item);
+            orderItem.setQuantity(dto.getQuantity());
+            return orderItem;
+        }).collect(Collectors.toList());
+    }
+
+    // Orders and bills created by this request are mapped from the entities in hand (their lines
+    // already carry the item names); anything read back from the database uses the line projection.
+
+    private ReceiptDto toReceiptDto(Bill bill) {
+        Order order = bill.getOrder();
+        return new ReceiptDto(order.getId(), bill.getId(), bill.getReceiptId(), bill.getBillDate(),
+                order.getUser().getUsername(), toOrderItemResponseDtos(order.getOrderItems()),
+                bill.getTotalAmount(), bill.getDiscount(), bill.getFinalAmount(), bill.getPaymentMode());
+    }
+
     private BillResponseDto toBillResponseDto(Bill bill) {
-        BillResponseDto dto = new BillResponseDto();
-        dto.setId(bill.getId());
-        dto.setOrder(toOrderResponseDto(bill.getOrder()));
-        dto.setBillDate(bill.getBillDate());
-        dto.setTotalAmount(bill.getTotalAmount());
-        dto.setDiscount(bill.getDiscount());
-        dto.setFinalAmount(bill.getFinalAmount());
-        dto.setReceiptId(bill.getReceiptId());
-        dto.setPaymentMode(bill.getPaymentMode());
-        return dto;
-    }
-
-    private OrderResponseDto toOrderResponseDto(Order order) {
-        OrderResponseDto dto = new OrderResponseDto();
-        dto.setId(order.getId());
-        dto.setUser(toUserResponseDto(order.getUser()));
-        dto.setOrderDate(order.getOrderDate());
-        dto.setTotalAmount(order.getTotalAmount());
-        dto.setOrderItems(order.getOrderItems().stream()
-                .map(this::toOrderItemResponseDto)
-                .collect(Collectors.toList()));
-        return dto;
-    }
-
-    private OrderItemResponseDto toOrderItemResponseDto(OrderItem orderItem) {
-        OrderItemResponseDto dto = new OrderItemResponseDto();
-        dto.setId(orderItem.getId());
-        dto.setItem(orderItem.getItem());
-        dto.setQuantity(orderItem.getQuantity());
-        dto.setPrice(orderItem.getPrice());
-        return dto;
-    }
-
-    private UserResponseDto toUserResponseDto(com.crcafe.core.model.User user) {
-        UserResponseDto dto = new UserResponseDto();
-        dto.setId(user.getId());
-        dto.setUsername(user.getUsername());
-        dto.setRole(user.getRole());
-        return dto;
+        Order order = bill.getOrder();
+        return new BillResponseDto(bill.getId(), order.getId(), bill.getReceiptId(), bill.getBillDate(),
+                order.getUser().getUsername(), bill.getTotalAmount(), bill.getDiscount(), bill.getFinalAmount(),
+                bill.getPaymentMode(), readOrderItemResponseDtos(order.getId()));
+    }
+
+    private OrderResponseDto toOrderResponseDto(Order order, List<OrderItemResponseDto> orderItems) {
+        return new OrderResponseDto(order.getId(), order.getUser().getId(), order.getUser().getUsername(),
+                order.getOrderDate(), order.getTotalAmount(), order.getStatus(), orderItems);
+    }
+
+    private List<OrderItemResponseDto> toOrderItemResponseDtos(List<OrderItem> orderItems) {
+        return orderItems.stream()
+                .map(oi -> toOrderItemResponseDto(oi.getId(), oi.getItem().getId(), oi.getItem().getName(),
+                        oi.getQuantity(), oi.getPrice()))
+                .toList();
+    }
+
+    private List<OrderItemResponseDto> readOrderItemResponseDtos(Long orderId) {
+        return orderItemRepository.findLinesByOrderId(orderId).stream()
+                .map(line -> toOrderItemResponseDto(line.getId(), line.getItemId(), line.getName(),
+                        line.getQuantity(), line.getPrice()))
+                .toList();
+    }
+
+    private static OrderItemResponseDto toOrderItemResponseDto(Long id, Long itemId, String name, int quantity,
+                                                               BigDecimal price) {
+        return new OrderItemResponseDto(id, itemId, name, quantity, price,
+                price.multiply(BigDecimal.valueOf(quantity)));
     }
 }
@@ -4,24 +4,30 @@ import com.crcafe.api.dto.CreateUserRequest;
 import com.crcafe.api.dto.UserDto;
 import com.crcafe.api.dto.response.UserResponseDto;
 import com.crcafe.core.model.User;
+import com.crcafe.api.stream.JsonArrayStream;
 import com.crcafe.core.service.UserService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.List;
-import java.util.stream.Collectors;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 
 @RestController
 @RequestMapping("/api/users")
 public class UserController {
 
     private final UserService userService;
+    private final ObjectMapper objectMapper;
 
-    public UserController(UserService userService) {
+    public UserController(UserService userService, ObjectMapper objectMapper) {
         this.userService = userService;
+        this.objectMapper = objectMapper;
     }
 
     @PostMapping
@@ -45,15 +51,22 @@ public class UserController {
 
     @GetMapping
     @PreAuthorize("hasRole('OWNER')")
-    public List<UserResponseDto> getAllUsers() {
-        return userService.findAllUsers().stream()
-                .map(user -> new UserResponseDto(
-                        user.getId(),
-                        user.getUsername(),
-                        user.getRole(), // Pass the UserRole enum directly
-                        user.getProfileImageUrl()
-                ))
-                .collect(Collectors.toList());
+    public ResponseEntity<StreamingResponseBody> getAllUsers() {
+        // Same JSON as UserResponseDto, written row by row as the users are read.
+        StreamingResponseBody body = JsonArrayStream.of(objectMapper.getFactory(), generator ->
+                userService.forEachUser(user -> {
+                    try {
+                        generator.writeStartObject();
+                        generator.writeNumberField("id", user.getId());
+                        generator.writeStringField("username", user.getUsername());
+                        generator.writeStringField("role", user.getRole().name());
+                        generator.writeStringField("profileImageUrl", user.getProfileImageUrl());
+                        generator.writeEndObject();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }));
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
     }
 
 
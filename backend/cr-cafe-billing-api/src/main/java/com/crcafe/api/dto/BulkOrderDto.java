@@ -0,0 +1,34 @@
+package com.crcafe.api.dto;
+
+import com.crcafe.core.model.PaymentMode;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.PastOrPresent;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * One order in a bulk upload. {@code correlationId} is chosen by the client and echoed back
+ * in the result; {@code orderDate} is when the order was taken offline (defaults to now, and
+ * at most {@code orders.bulk.max-age-days} old). Set {@code paymentMode} to bill the order in
+ * the same step. Orders are recorded under the authenticated cashier.
+ */
+@Data
+public class BulkOrderDto {
+    @NotBlank(message = "Correlation ID cannot be blank")
+    private String correlationId;
+
+    @PastOrPresent(message = "Order date cannot be in the future")
+    private LocalDateTime orderDate;
+
+    @NotEmpty(message = "Order must contain at least one item")
+    @Valid
+    private List<OrderItemDto> items;
+
+    private PaymentMode paymentMode;
+
+    private Long discountId;
+}
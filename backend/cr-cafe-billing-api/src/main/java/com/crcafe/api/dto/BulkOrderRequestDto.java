@@ -0,0 +1,14 @@
+package com.crcafe.api.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BulkOrderRequestDto {
+    @NotEmpty(message = "Upload must contain at least one order")
+    @Valid
+    private List<BulkOrderDto> orders;
+}
@@ -0,0 +1,18 @@
+package com.crcafe.api.dto;
+
+import com.crcafe.core.model.PaymentMode;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.Data;
+import java.util.List;
+
+@Data
+public class CheckoutRequestDto {
+    @NotEmpty(message = "Order must contain at least one item")
+    @Valid
+    private List<OrderItemDto> items;
+
+    private Long discountId;
+
+    private PaymentMode paymentMode = PaymentMode.CASH;
+}
@@ -1,18 +1,22 @@
 package com.crcafe.api.dto.response;
 
 import com.crcafe.core.model.PaymentMode;
-import lombok.Data;
+
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.List;
 
-@Data
-public class BillResponseDto {
-    private Long id;
-    private OrderResponseDto order; // Uses the safe Order DTO
-    private LocalDateTime billDate;
-    private BigDecimal totalAmount;
-    private BigDecimal discount;
-    private BigDecimal finalAmount;
-    private String receiptId;
-    private PaymentMode paymentMode;
-}
\ No newline at end of file
+/**
+ * A bill with its order lines, flat: the order is referenced by id and the cashier by name.
+ */
+public record BillResponseDto(Long id,
+                              Long orderId,
+                              String receiptId,
+                              LocalDateTime billDate,
+                              String cashier,
+                              BigDecimal totalAmount,
+                              BigDecimal discount,
+                              BigDecimal finalAmount,
+                              PaymentMode paymentMode,
+                              List<OrderItemResponseDto> orderItems) {
+}
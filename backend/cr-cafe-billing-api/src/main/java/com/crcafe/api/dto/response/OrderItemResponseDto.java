@@ -1,13 +1,14 @@
 package com.crcafe.api.dto.response;
 
-import com.crcafe.core.model.Item;
-import lombok.Data;
 import java.math.BigDecimal;
 
-@Data
-public class OrderItemResponseDto {
-    private Long id;
-    private Item item; // It's generally safe to expose the full Item object
-    private int quantity;
-    private BigDecimal price;
-}
\ No newline at end of file
+/**
+ * One order line with the item name and the price charged, instead of the whole menu item.
+ */
+public record OrderItemResponseDto(Long id,
+                                   Long itemId,
+                                   String name,
+                                   int quantity,
+                                   BigDecimal price,
+                                   BigDecimal lineTotal) {
+}
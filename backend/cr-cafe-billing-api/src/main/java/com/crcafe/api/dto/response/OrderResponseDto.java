@@ -1,15 +1,16 @@
 package com.crcafe.api.dto.response;
 
-import lombok.Data;
+import com.crcafe.core.model.OrderStatus;
+
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 
-@Data
-public class OrderResponseDto {
-    private Long id;
-    private UserResponseDto user; // Uses the safe User DTO
-    private LocalDateTime orderDate;
-    private BigDecimal totalAmount;
-    private List<OrderItemResponseDto> orderItems;
-}
\ No newline at end of file
+public record OrderResponseDto(Long id,
+                               Long userId,
+                               String cashier,
+                               LocalDateTime orderDate,
+                               BigDecimal totalAmount,
+                               OrderStatus status,
+                               List<OrderItemResponseDto> orderItems) {
+}
@@ -0,0 +1,22 @@
+package com.crcafe.api.dto.response;
+
+import com.crcafe.core.model.PaymentMode;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Just what the POS needs to print a receipt after checkout, without nested entities.
+ */
+public record ReceiptDto(Long orderId,
+                         Long billId,
+                         String receiptId,
+                         LocalDateTime billDate,
+                         String cashier,
+                         List<OrderItemResponseDto> lines,
+                         BigDecimal totalAmount,
+                         BigDecimal discount,
+                         BigDecimal finalAmount,
+                         PaymentMode paymentMode) {
+}
@@ -0,0 +1,12 @@
+package com.crcafe.api.security;
+
+import com.crcafe.core.model.UserRole;
+
+import java.time.Instant;
+
+/**
+ * The verified contents of an access token. All components are present: tokens lacking any of
+ * the claims are rejected by {@link AccessTokenVerifier}.
+ */
+public record AccessToken(String username, Long userId, UserRole role, String tokenId, Instant expiresAt) {
+}
@@ -0,0 +1,104 @@
+package com.crcafe.api.security;
+
+import com.crcafe.core.model.UserRole;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.UnsupportedJwtException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+
+/**
+ * Turns a bearer token into an {@link AccessToken}, verifying its signature at most once.
+ * <p>
+ * Verified tokens are cached under the SHA-256 digest of the token string until the token
+ * expires, so the many requests a client sends with the same token skip the HMAC check and
+ * claim parsing. Only the digest is kept, never the token itself. Revocation is checked on
+ * every call, cached or not.
+ * <p>
+ * Only tokens marked {@code typ=access} and carrying the user id, role and token id are accepted.
+ * JWT refresh tokens from before refresh tokens became opaque were signed with the same key but
+ * have none of these claims, so they cannot be replayed as access tokens.
+ */
+@Component
+public class AccessTokenVerifier {
+
+    private final JwtUtil jwtUtil;
+    private final TokenDenylist denylist;
+    private final Cache<ByteBuffer, AccessToken> verified;
+
+    public AccessTokenVerifier(JwtUtil jwtUtil, TokenDenylist denylist, MeterRegistry meterRegistry,
+                               @Value("${jwt.verified-cache.max-entries:10000}") long maxEntries) {
+        this.jwtUtil = jwtUtil;
+        this.denylist = denylist;
+        this.verified = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfter(new TokenExpiry<ByteBuffer, AccessToken>(AccessToken::expiresAt))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, verified, "jwt.verified");
+    }
+
+    /**
+     * @throws io.jsonwebtoken.JwtException if the token is invalid, expired, revoked or not an access token
+     */
+    public AccessToken verify(String token) {
+        ByteBuffer digest = digest(token);
+        AccessToken accessToken = verified.getIfPresent(digest);
+        if (accessToken == null) {
+            accessToken = toAccessToken(jwtUtil.parse(token));
+            verified.put(digest, accessToken);
+        } else if (!accessToken.expiresAt().isAfter(Instant.now())) {
+            // Expiry runs on Caffeine's clock; don't trust an entry that is due but not yet evicted.
+            verified.invalidate(digest);
+            accessToken = toAccessToken(jwtUtil.parse(token));
+        }
+        if (denylist.isRevoked(accessToken)) {
+            throw new RevokedTokenException("Access token has been revoked");
+        }
+        return accessToken;
+    }
+
+    /**
+     * Rejects {@code token} from now until it expires.
+     */
+    public void revoke(String token) {
+        AccessToken accessToken = verify(token);
+        denylist.revoke(accessToken);
+        verified.invalidate(digest(token));
+    }
+
+    private static AccessToken toAccessToken(Claims claims) {
+        String type = claims.get(JwtUtil.TOKEN_TYPE_CLAIM, String.class);
+        Number userId = claims.get(JwtUtil.USER_ID_CLAIM, Number.class);
+        String role = claims.get(JwtUtil.ROLE_CLAIM, String.class);
+        if (!JwtUtil.ACCESS_TOKEN_TYPE.equals(type) || userId == null || role == null
+                || claims.getSubject() == null || claims.getId() == null) {
+            throw new UnsupportedJwtException("Not an access token");
+        }
+        return new AccessToken(
+                claims.getSubject(),
+                userId.longValue(),
+                UserRole.valueOf(role),
+                claims.getId(),
+                claims.getExpiration().toInstant());
+    }
+
+    private static ByteBuffer digest(String token) {
+        try {
+            // MessageDigest instances are not thread-safe, and creating one is cheap next to a signature check.
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return ByteBuffer.wrap(sha256.digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
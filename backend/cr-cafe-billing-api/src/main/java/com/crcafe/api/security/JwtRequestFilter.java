@@ -1,5 +1,7 @@
 package com.crcafe.api.security;
 
+import com.crcafe.core.security.UserPrincipal;
+import com.crcafe.core.service.UserCache;
 import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.security.SignatureException;
 import jakarta.servlet.FilterChain;
@@ -9,24 +11,26 @@ import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
 
-
+/**
+ * Authenticates requests carrying a bearer access token. The principal is a {@link UserPrincipal}
+ * resolved from the verified token through the {@link UserCache}, so a request normally needs
+ * no database query to know who its caller is.
+ */
 @Component
 public class JwtRequestFilter extends OncePerRequestFilter {
 
-    private final JwtUtil jwtUtil;
-    private final UserDetailsService userDetailsService;
+    private final AccessTokenVerifier accessTokenVerifier;
+    private final UserCache userCache;
 
-    public JwtRequestFilter(JwtUtil jwtUtil, UserDetailsService userDetailsService) {
-        this.jwtUtil = jwtUtil;
-        this.userDetailsService = userDetailsService;
+    public JwtRequestFilter(AccessTokenVerifier accessTokenVerifier, UserCache userCache) {
+        this.accessTokenVerifier = accessTokenVerifier;
+        this.userCache = userCache;
     }
 
     @Override
@@ -35,17 +39,17 @@ public class JwtRequestFilter extends OncePerRequestFilter {
 
         final String authorizationHeader = request.getHeader("Authorization");
 
-        String username = null;
-        String jwt = null;
+        AccessToken accessToken = null;
 
         if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
-            jwt = authorizationHeader.substring(7);
             try {
-                username = jwtUtil.extractUsername(jwt);
+                accessToken = accessTokenVerifier.verify(authorizationHeader.substring(7));
             } catch (ExpiredJwtException e) {
                 // Token has expired, log it and continue without authentication.
                 // The SecurityContext will remain null, and the request will be unauthorized.
                 logger.warn("JWT token has expired: " + e.getMessage());
+            } catch (RevokedTokenException e) {
+                logger.warn("Rejected revoked JWT token for " + request.getRequestURI());
             } catch (SignatureException e) {
                 // Token signature is invalid
                 logger.error("JWT signature validation failed: " + e.getMessage());
@@ -54,15 +58,29 @@ public class JwtRequestFilter extends OncePerRequestFilter {
                 logger.error("Invalid JWT token: " + e.getMessage());
             }
         }
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
-            if (jwtUtil.validateToken(jwt, userDetails)) {
+        if (accessToken != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+            UserPrincipal principal = toPrincipal(accessToken);
+            if (principal != null) {
                 UsernamePasswordAuthenticationToken authenticationToken = new UsernamePasswordAuthenticationToken(
-                        userDetails, null, userDetails.getAuthorities());
+                        principal, null, principal.getAuthorities());
                 authenticationToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                 SecurityContextHolder.getContext().setAuthentication(authenticationToken);
+            } else {
+                logger.warn("JWT token belongs to a user that no longer exists: " + accessToken.username());
             }
         }
         filterChain.doFilter(request, response);
     }
-}
\ No newline at end of file
+
+    /**
+     * The token's user as currently known, so role changes and deletions apply before the token
+     * expires.
+     */
+    private UserPrincipal toPrincipal(AccessToken accessToken) {
+        UserCache.Entry user = userCache.get(accessToken.userId());
+        if (user == null || !user.username().equals(accessToken.username())) {
+            return null;
+        }
+        return user.toPrincipal();
+    }
+}
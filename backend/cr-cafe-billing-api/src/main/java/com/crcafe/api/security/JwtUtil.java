@@ -1,37 +1,44 @@
 package com.crcafe.api.security;
 
-import com.crcafe.core.model.User;
+import com.crcafe.core.security.UserPrincipal;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
-import java.security.Key;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
 import java.util.function.Function;
 
 @Component
 public class JwtUtil {
 
+    /** Claim carrying the user's id in access tokens. */
+    public static final String USER_ID_CLAIM = "uid";
+    /** Claim carrying the user's role name (OWNER, MANAGER, WORKER) in access tokens. */
+    public static final String ROLE_CLAIM = "role";
+    /** Claim marking a token as an access token; only tokens with {@link #ACCESS_TOKEN_TYPE} authenticate requests. */
+    public static final String TOKEN_TYPE_CLAIM = "typ";
+    public static final String ACCESS_TOKEN_TYPE = "access";
+
     private final SecretKey secretKey;
+    // Parsers are immutable and thread-safe; building one per call was a measurable share of each request.
+    private final JwtParser parser;
     private final long expirationTime;
-    private final long refreshExpirationTime;
 
     public JwtUtil(
             @Value("${jwt.secret}") String secret,
-            @Value("${jwt.expiration-ms}") long expirationTime,
-            @Value("${jwt.refresh-expiration-ms}") long refreshExpirationTime
+            @Value("${jwt.expiration-ms}") long expirationTime
     ) {
         this.secretKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parserBuilder().setSigningKey(secretKey).build();
         this.expirationTime = expirationTime;
-        this.refreshExpirationTime = refreshExpirationTime;
     }
 
     public String extractUsername(String token) {
@@ -43,48 +50,35 @@ public class JwtUtil {
     }
 
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
+        final Claims claims = parse(token);
         return claimsResolver.apply(claims);
     }
 
-    private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder().setSigningKey(secretKey).build().parseClaimsJws(token).getBody();
-    }
-
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
-    }
-
-    public String generateRefreshToken(UserDetails userDetails) {
-        Map<String, Object> claims = new HashMap<>();
-        return createToken(claims, userDetails.getUsername(), refreshExpirationTime);
+    /**
+     * Verifies the signature and expiry of {@code token} and returns its claims.
+     *
+     * @throws io.jsonwebtoken.JwtException if the token is malformed, tampered with or expired
+     */
+    public Claims parse(String token) {
+        return parser.parseClaimsJws(token).getBody();
     }
 
-    public String generateToken(UserDetails userDetails) {
+    /**
+     * Access token carrying everything the request filter needs to authenticate the caller
+     * without reading the users table: the user's id and role, plus a unique id for revocation.
+     */
+    public String generateToken(UserPrincipal user) {
         Map<String, Object> claims = new HashMap<>();
-        // Add user roles to the token claims
-        long expirationTimeInMillis = 1000 * 60 * 60;
-        claims.put("roles", userDetails.getAuthorities());
-        return createToken(claims, userDetails.getUsername(), expirationTime);
-    }
-
-    private String createToken(Map<String, Object> claims, String subject, long expirationTimeInMillis) {
+        claims.put(USER_ID_CLAIM, user.getUserId());
+        claims.put(ROLE_CLAIM, user.getRole().name());
+        claims.put(TOKEN_TYPE_CLAIM, ACCESS_TOKEN_TYPE);
         return Jwts.builder()
                 .setClaims(claims)
-                .setSubject(subject)
+                .setId(UUID.randomUUID().toString())
+                .setSubject(user.getUsername())
                 .setIssuedAt(new Date(System.currentTimeMillis()))
-                .setExpiration(new Date(System.currentTimeMillis() + expirationTimeInMillis))
+                .setExpiration(new Date(System.currentTimeMillis() + expirationTime))
                 .signWith(secretKey)
                 .compact();
     }
-
-    public Boolean validateToken(String token, UserDetails userDetails) {
-        try {
-            final String username = extractUsername(token);
-            return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
-        } catch (Exception e) {
-            // Any exception during token parsing/validation means the token is invalid
-            return false;
-        }
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,103 @@
+package com.crcafe.api.security;
+
+import com.crcafe.core.security.TooManyRequestsException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token buckets limiting login attempts per username and per client address, checked before
+ * any password is hashed. The username limit stops guessing against one account; the address
+ * limit stops one client from spraying many accounts. The address limit is deliberately loose,
+ * because a whole shop usually signs in from one address at shift change.
+ * <p>
+ * Buckets live in memory on each node and are dropped after ten idle minutes.
+ */
+@Component
+public class LoginRateLimiter {
+
+    private final Limit username;
+    private final Limit address;
+
+    public LoginRateLimiter(MeterRegistry meterRegistry,
+                            @Value("${login.rate-limit.username.capacity:5}") int usernameCapacity,
+                            @Value("${login.rate-limit.username.per-minute:5}") int usernamePerMinute,
+                            @Value("${login.rate-limit.address.capacity:60}") int addressCapacity,
+                            @Value("${login.rate-limit.address.per-minute:60}") int addressPerMinute,
+                            @Value("${login.rate-limit.max-tracked:10000}") long maxTracked) {
+        this.username = new Limit("username", usernameCapacity, usernamePerMinute, maxTracked, meterRegistry);
+        this.address = new Limit("address", addressCapacity, addressPerMinute, maxTracked, meterRegistry);
+    }
+
+    /**
+     * Takes one attempt from both buckets.
+     *
+     * @throws TooManyRequestsException if either bucket is empty
+     */
+    public void acquire(String username, String address) {
+        this.username.acquire(username == null ? "" : username.trim().toLowerCase(Locale.ROOT));
+        this.address.acquire(address == null ? "" : address);
+    }
+
+    private static final class Limit {
+
+        private final int capacity;
+        private final double tokensPerNano;
+        private final Cache<String, TokenBucket> buckets;
+        private final Counter throttled;
+
+        Limit(String name, int capacity, int perMinute, long maxTracked, MeterRegistry meterRegistry) {
+            this.capacity = capacity;
+            this.tokensPerNano = perMinute / (double) TimeUnit.MINUTES.toNanos(1);
+            this.buckets = Caffeine.newBuilder()
+                    .maximumSize(maxTracked)
+                    .expireAfterAccess(Duration.ofMinutes(10))
+                    .build();
+            this.throttled = Counter.builder("auth.login.throttled")
+                    .description("Login attempts refused by a rate limit")
+                    .tag("limit", name)
+                    .register(meterRegistry);
+        }
+
+        void acquire(String key) {
+            TokenBucket bucket = buckets.get(key, k -> new TokenBucket(capacity));
+            long waitNanos = bucket.tryTake(tokensPerNano, capacity);
+            if (waitNanos > 0) {
+                throttled.increment();
+                throw new TooManyRequestsException("Too many login attempts; please wait and try again.",
+                        Duration.ofNanos(waitNanos));
+            }
+        }
+    }
+
+    private static final class TokenBucket {
+
+        private double tokens;
+        private long refilledAt = System.nanoTime();
+
+        TokenBucket(int capacity) {
+            this.tokens = capacity;
+        }
+
+        /**
+         * Takes a token and returns 0, or returns how long until one will be available.
+         */
+        synchronized long tryTake(double tokensPerNano, int capacity) {
+            long now = System.nanoTime();
+            tokens = Math.min(capacity, tokens + (now - refilledAt) * tokensPerNano);
+            refilledAt = now;
+            if (tokens >= 1) {
+                tokens -= 1;
+                return 0;
+            }
+            return (long) Math.ceil((1 - tokens) / tokensPerNano);
+        }
+    }
+}
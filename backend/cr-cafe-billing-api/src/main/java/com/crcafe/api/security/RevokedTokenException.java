@@ -0,0 +1,13 @@
+package com.crcafe.api.security;
+
+import io.jsonwebtoken.JwtException;
+
+/**
+ * Thrown for a correctly signed, unexpired access token that has been revoked.
+ */
+public class RevokedTokenException extends JwtException {
+
+    public RevokedTokenException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,44 @@
+package com.crcafe.api.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+
+/**
+ * Ids of access tokens that were revoked before they expired, e.g. on logout.
+ * <p>
+ * Each id is only remembered until its token would have expired anyway, so the list stays as
+ * small as the number of tokens revoked within one token lifetime. It is per node: a token
+ * revoked on one node is still accepted by the others until it expires.
+ */
+@Component
+public class TokenDenylist {
+
+    private final Cache<String, Instant> revoked;
+
+    public TokenDenylist(MeterRegistry meterRegistry,
+                         @Value("${jwt.denylist.max-entries:100000}") long maxEntries) {
+        this.revoked = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfter(new TokenExpiry<String, Instant>(expiresAt -> expiresAt))
+                .build();
+        Gauge.builder("jwt.denylist.size", revoked, Cache::estimatedSize)
+                .description("Revoked access tokens that have not expired yet")
+                .register(meterRegistry);
+    }
+
+    public void revoke(AccessToken token) {
+        if (token.tokenId() != null && token.expiresAt().isAfter(Instant.now())) {
+            revoked.put(token.tokenId(), token.expiresAt());
+        }
+    }
+
+    public boolean isRevoked(AccessToken token) {
+        return token.tokenId() != null && revoked.getIfPresent(token.tokenId()) != null;
+    }
+}
@@ -0,0 +1,34 @@
+package com.crcafe.api.security;
+
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.function.Function;
+
+/**
+ * Caffeine expiry that keeps an entry exactly until the token it describes expires.
+ */
+final class TokenExpiry<K, V> implements Expiry<K, V> {
+
+    private final Function<V, Instant> expiresAt;
+
+    TokenExpiry(Function<V, Instant> expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
+    @Override
+    public long expireAfterCreate(K key, V value, long currentTime) {
+        return Math.max(0, Duration.between(Instant.now(), expiresAt.apply(value)).toNanos());
+    }
+
+    @Override
+    public long expireAfterUpdate(K key, V value, long currentTime, long currentDuration) {
+        return expireAfterCreate(key, value, currentTime);
+    }
+
+    @Override
+    public long expireAfterRead(K key, V value, long currentTime, long currentDuration) {
+        return currentDuration;
+    }
+}
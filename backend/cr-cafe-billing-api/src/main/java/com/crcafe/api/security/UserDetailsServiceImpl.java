@@ -5,6 +5,7 @@ import com.crcafe.core.service.UserService;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
@@ -15,9 +16,10 @@ import java.util.Collections;
 /**
  * This service class is responsible for loading a user's details from the database
  * for Spring Security to perform authentication and authorization.
+ * It also stores the new hash when a login finds a password hashed at an outdated cost.
  */
 @Service
-public class UserDetailsServiceImpl implements UserDetailsService {
+public class UserDetailsServiceImpl implements UserDetailsService, UserDetailsPasswordService {
 
     private final UserService userService;
 
@@ -42,4 +44,12 @@ public class UserDetailsServiceImpl implements UserDetailsService {
                 authorities
         );
     }
-}
\ No newline at end of file
+
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        userService.updatePasswordHash(user.getUsername(), newPassword);
+        return org.springframework.security.core.userdetails.User.withUserDetails(user)
+                .password(newPassword)
+                .build();
+    }
+}
@@ -1,5 +1,6 @@
 package com.crcafe.api.security;
 
+import jakarta.servlet.DispatcherType;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -37,7 +38,12 @@ public class WebSecurityConfig {
                 .csrf(csrf -> csrf.disable())
                 // Permit the /login endpoint to be accessed without authentication
                 .authorizeHttpRequests(authz -> authz
-                        .requestMatchers("/api/auth/login","/api/auth/refresh").permitAll()
+                        // Async dispatches (e.g. the dashboard SSE stream completing) belong to a
+                        // request that was already authorized when it started.
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+                        .requestMatchers("/api/auth/login","/api/auth/refresh","/api/auth/logout").permitAll()
+                        .requestMatchers("/actuator/health").permitAll()
+                        .requestMatchers("/actuator/**").hasRole("OWNER")
                         .anyRequest().authenticated()
                 )
                 // We are not using HttpBasic anymore
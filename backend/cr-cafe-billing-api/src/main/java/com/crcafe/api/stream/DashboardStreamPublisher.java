@@ -0,0 +1,181 @@
+package com.crcafe.api.stream;
+
+import com.crcafe.core.event.BillGeneratedEvent;
+import com.crcafe.core.service.TodayMetrics;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fans dashboard updates out to every open {@code /api/dashboard/stream} connection.
+ * <p>
+ * Each committed bill is turned into one small event, computed once and shared by all
+ * subscribers. Every subscriber has its own bounded buffer and is drained by a small shared
+ * sender pool, so a slow client only ever delays itself: when its buffer is full the oldest
+ * pending event is dropped (the next event carries fresh totals anyway).
+ * A periodic heartbeat keeps proxies from closing idle connections and detects dead clients.
+ */
+@Component
+public class DashboardStreamPublisher {
+
+    private static final Logger log = LoggerFactory.getLogger(DashboardStreamPublisher.class);
+
+    private final TodayMetrics todayMetrics;
+    private final int bufferSize;
+    private final int maxSubscribers;
+    private final long timeoutMs;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ExecutorService senders;
+
+    public DashboardStreamPublisher(
+            TodayMetrics todayMetrics,
+            @Value("${dashboard.stream.buffer-size:32}") int bufferSize,
+            @Value("${dashboard.stream.max-subscribers:100}") int maxSubscribers,
+            @Value("${dashboard.stream.timeout-ms:1800000}") long timeoutMs,
+            @Value("${dashboard.stream.sender-threads:2}") int senderThreads) {
+        this.todayMetrics = todayMetrics;
+        this.bufferSize = bufferSize;
+        this.maxSubscribers = maxSubscribers;
+        this.timeoutMs = timeoutMs;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.senders = Executors.newFixedThreadPool(senderThreads, r -> {
+            Thread t = new Thread(r, "dashboard-sse-" + threadCount.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Registers a new subscriber, or returns null when the subscriber limit is reached.
+     * The subscriber immediately receives a "snapshot" event with the current totals.
+     */
+    public SseEmitter subscribe() {
+        if (subscribers.size() >= maxSubscribers) {
+            return null;
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Subscriber subscriber = new Subscriber(emitter, bufferSize);
+        subscribers.add(subscriber);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+
+        enqueue(subscriber, SseEmitter.event().name("snapshot").data(currentTotals()));
+        return emitter;
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onBillGenerated(BillGeneratedEvent event) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        Map<String, Object> bill = new HashMap<>();
+        bill.put("billId", event.billId());
+        bill.put("orderId", event.orderId());
+        bill.put("userId", event.userId());
+        bill.put("receiptId", event.receiptId());
+        bill.put("finalAmount", event.finalAmount());
+        bill.put("discount", event.discount());
+        bill.put("paymentMode", event.paymentMode());
+        bill.put("billDate", event.billDate());
+
+        Map<String, Object> payload = currentTotals();
+        payload.put("bill", bill);
+        publish("bill", payload);
+    }
+
+    @Scheduled(fixedRateString = "${dashboard.stream.heartbeat-ms:15000}")
+    public void sendHeartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            enqueue(subscriber, SseEmitter.event().comment("heartbeat"));
+        }
+    }
+
+    private void publish(String name, Object data) {
+        for (Subscriber subscriber : subscribers) {
+            enqueue(subscriber, SseEmitter.event().name(name).data(data));
+        }
+    }
+
+    private Map<String, Object> currentTotals() {
+        Map<String, Object> totals = new HashMap<>();
+        totals.put("todaysRevenue", todayMetrics.getRevenue());
+        totals.put("todaysOrders", todayMetrics.getOrderCount());
+        totals.put("todaysBills", todayMetrics.getBillCount());
+        totals.put("revenueByPaymentMode", todayMetrics.getRevenueByPaymentMode());
+        return totals;
+    }
+
+    private void enqueue(Subscriber subscriber, SseEmitter.SseEventBuilder event) {
+        while (!subscriber.queue.offer(event)) {
+            // Buffer full: this client is not keeping up, drop its oldest pending event.
+            subscriber.queue.poll();
+        }
+        if (subscriber.draining.compareAndSet(false, true)) {
+            senders.execute(() -> drain(subscriber));
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        try {
+            SseEmitter.SseEventBuilder event;
+            while ((event = subscriber.queue.poll()) != null) {
+                subscriber.emitter.send(event);
+            }
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Dropping dashboard stream subscriber: {}", e.getMessage());
+            subscribers.remove(subscriber);
+            subscriber.queue.clear();
+            subscriber.emitter.completeWithError(e);
+            return;
+        } finally {
+            subscriber.draining.set(false);
+        }
+        // An event may have been queued after the last poll but before draining was reset.
+        if (!subscriber.queue.isEmpty() && subscriber.draining.compareAndSet(false, true)) {
+            senders.execute(() -> drain(subscriber));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        senders.shutdownNow();
+        for (Subscriber subscriber : subscribers) {
+            subscriber.emitter.complete();
+        }
+        subscribers.clear();
+    }
+
+    private static final class Subscriber {
+        private final SseEmitter emitter;
+        private final Queue<SseEmitter.SseEventBuilder> queue;
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        private Subscriber(SseEmitter emitter, int bufferSize) {
+            this.emitter = emitter;
+            this.queue = new ArrayBlockingQueue<>(bufferSize);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.crcafe.api.stream;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+
+/**
+ * Writes a JSON array straight to the response with a {@link JsonGenerator}, one element at a
+ * time, so large lists are neither collected into DTOs nor serialized through reflection first.
+ */
+public final class JsonArrayStream {
+
+    private JsonArrayStream() {
+    }
+
+    @FunctionalInterface
+    public interface Elements {
+        void writeTo(JsonGenerator generator) throws IOException;
+    }
+
+    public static StreamingResponseBody of(JsonFactory factory, Elements elements) {
+        return out -> {
+            try (JsonGenerator generator = factory.createGenerator(out)) {
+                generator.writeStartArray();
+                elements.writeTo(generator);
+                generator.writeEndArray();
+            }
+        };
+    }
+}
@@ -0,0 +1,131 @@
+package com.crcafe.api.controller;
+
+import com.crcafe.api.stream.DashboardStreamPublisher;
+import com.crcafe.core.dto.DashboardSummaryDto;
+import com.crcafe.core.service.DashboardCache;
+import com.crcafe.core.service.DashboardOverviewService;
+import com.crcafe.core.service.DashboardService;
+import com.crcafe.core.service.SalesRollupService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class DashboardControllerTest {
+
+    private static final String TIMEZONE = "Asia/Kolkata";
+
+    @Mock
+    private DashboardService dashboardService;
+    @Mock
+    private SalesRollupService salesRollupService;
+    @Mock
+    private DashboardStreamPublisher dashboardStreamPublisher;
+    @Mock
+    private DashboardCache dashboardCache;
+    @Mock
+    private DashboardOverviewService dashboardOverviewService;
+    @Mock
+    private DashboardSummaryDto summary;
+
+    private DashboardController controller;
+
+    @BeforeEach
+    void createController() {
+        controller = new DashboardController(dashboardService, salesRollupService, dashboardStreamPublisher,
+                dashboardCache, dashboardOverviewService, TIMEZONE);
+    }
+
+    @Test
+    void tagsTheResponseWithTheDataVersionAndBusinessDay() {
+        when(dashboardCache.getVersion()).thenReturn(5L);
+        when(dashboardService.getSummary()).thenReturn(summary);
+
+        ResponseEntity<DashboardSummaryDto> response = controller.getSummary(request(null));
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isSameAs(summary);
+        assertThat(response.getHeaders().getETag()).isEqualTo(etag(5));
+        assertThat(response.getHeaders().getCacheControl()).contains("no-cache");
+    }
+
+    @Test
+    void answersNotModifiedWithoutComputingTheBody() {
+        when(dashboardCache.getVersion()).thenReturn(5L);
+
+        ResponseEntity<DashboardSummaryDto> response = controller.getSummary(request(etag(5)));
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(response.getBody()).isNull();
+        assertThat(response.getHeaders().getETag()).isEqualTo(etag(5));
+        verifyNoInteractions(dashboardService);
+    }
+
+    @Test
+    void sendsTheBodyAgainOnceTheDataHasChanged() {
+        when(dashboardCache.getVersion()).thenReturn(6L);
+        when(dashboardService.getSummary()).thenReturn(summary);
+
+        ResponseEntity<DashboardSummaryDto> response = controller.getSummary(request(etag(5)));
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getETag()).isEqualTo(etag(6));
+        verify(dashboardService).getSummary();
+    }
+
+    @Test
+    void doesNotTagOrStoreAPartialOverview() {
+        when(dashboardCache.getVersion()).thenReturn(5L);
+        when(dashboardOverviewService.getOverview(List.of("summary"), "day", "day"))
+                .thenReturn(Map.of("errors", Map.of("summary", "timeout")));
+
+        ResponseEntity<Map<String, Object>> response =
+                controller.getOverview(List.of("summary"), "day", "day", request(null));
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getETag()).isNull();
+        assertThat(response.getHeaders().getCacheControl()).isEqualTo("no-store");
+    }
+
+    @Test
+    void tagsACompleteOverview() {
+        when(dashboardCache.getVersion()).thenReturn(5L);
+        when(dashboardOverviewService.getOverview(List.of("summary"), "day", "day"))
+                .thenReturn(Map.of("summary", summary, "errors", Map.of()));
+
+        ResponseEntity<Map<String, Object>> response =
+                controller.getOverview(List.of("summary"), "day", "day", request(null));
+
+        assertThat(response.getHeaders().getETag()).isEqualTo(etag(5));
+    }
+
+    private static ServletWebRequest request(String ifNoneMatch) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/dashboard/summary");
+        if (ifNoneMatch != null) {
+            request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        return new ServletWebRequest(request, new MockHttpServletResponse());
+    }
+
+    private static String etag(long version) {
+        return "\"" + version + "-" + LocalDate.now(ZoneId.of(TIMEZONE)) + "\"";
+    }
+}
@@ -1,5 +1,8 @@
 package com.crcafe.core.config;
 
+import com.crcafe.core.security.BoundedPasswordEncoder;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
@@ -13,11 +16,18 @@ public class SecurityConfig {
 
     /**
      * Creates a PasswordEncoder bean that will be used for hashing passwords.
-     * BCrypt is a strong, widely-used hashing algorithm.
+     * BCrypt is a strong, widely-used hashing algorithm. It runs on its own bounded pool
+     * (one thread per core by default), so a burst of logins cannot starve other requests.
+     * Raising {@code security.bcrypt.strength} rehashes each password at its owner's next login.
      * @return A PasswordEncoder instance.
      */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(
+            MeterRegistry meterRegistry,
+            @Value("${security.bcrypt.strength:10}") int strength,
+            @Value("${security.password-hashing.threads:0}") int threads,
+            @Value("${security.password-hashing.queue-capacity:64}") int queueCapacity) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(strength), poolSize, queueCapacity, meterRegistry);
     }
 }
@@ -0,0 +1,22 @@
+package com.crcafe.core.dto;
+
+import com.crcafe.core.model.PaymentMode;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * One order in a bulk upload, e.g. replayed from a terminal's offline queue.
+ * {@code orderDate} is when the order was taken (null means now); it may not lie in the future
+ * or more than {@code orders.bulk.max-age-days} in the past. When {@code paymentMode} is set the
+ * order is billed in the same step, dated at the order time.
+ */
+public record BulkOrder(String correlationId,
+                        LocalDateTime orderDate,
+                        List<Line> lines,
+                        PaymentMode paymentMode,
+                        Long discountId) {
+
+    public record Line(Long itemId, int quantity) {
+    }
+}
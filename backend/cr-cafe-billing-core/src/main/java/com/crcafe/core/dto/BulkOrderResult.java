@@ -0,0 +1,17 @@
+package com.crcafe.core.dto;
+
+/**
+ * Outcome of one order in a bulk upload, matched to the request by {@code correlationId}.
+ * On failure only {@code error} is set.
+ */
+public record BulkOrderResult(String correlationId,
+                              boolean success,
+                              Long orderId,
+                              Long billId,
+                              String receiptId,
+                              String error) {
+
+    public static BulkOrderResult failed(String correlationId, String error) {
+        return new BulkOrderResult(correlationId, false, null, null, null, error);
+    }
+}
@@ -0,0 +1,13 @@
+package com.crcafe.core.dto;
+
+import com.crcafe.core.model.Item;
+
+import java.util.List;
+
+/**
+ * Menu changes since a catalog version. {@code version} is the version the client has after
+ * applying them. When {@code full} is set, {@code items} is the whole menu and replaces the
+ * client's copy; otherwise it holds only the added or changed items.
+ */
+public record MenuChanges(long version, boolean full, List<Item> items, List<Long> deleted) {
+}
@@ -0,0 +1,15 @@
+package com.crcafe.core.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+public class RevenueBucket {
+    private String label;
+    private LocalDateTime start;
+    private BigDecimal revenue;
+    private long orders;
+}
@@ -0,0 +1,126 @@
+package com.crcafe.core.dto;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.IsoFields;
+import java.time.temporal.TemporalAdjusters;
+
+/**
+ * Bucket sizes supported by the revenue chart. Each constant knows how to align a
+ * timestamp to the start of its bucket, step to the next bucket and label it.
+ * Week buckets follow ISO-8601 (weeks start on Monday, labels use the week-based year).
+ */
+public enum RevenueGranularity {
+    HOUR {
+        @Override
+        public LocalDateTime truncate(LocalDateTime dateTime) {
+            return dateTime.truncatedTo(ChronoUnit.HOURS);
+        }
+
+        @Override
+        public LocalDateTime next(LocalDateTime bucketStart) {
+            return bucketStart.plusHours(1);
+        }
+
+        @Override
+        public String label(LocalDateTime bucketStart) {
+            return bucketStart.format(HOUR_LABEL);
+        }
+
+        @Override
+        public LocalDate defaultFrom(LocalDate today) {
+            return today;
+        }
+    },
+    DAY {
+        @Override
+        public LocalDateTime truncate(LocalDateTime dateTime) {
+            return dateTime.toLocalDate().atStartOfDay();
+        }
+
+        @Override
+        public LocalDateTime next(LocalDateTime bucketStart) {
+            return bucketStart.plusDays(1);
+        }
+
+        @Override
+        public String label(LocalDateTime bucketStart) {
+            return bucketStart.format(DateTimeFormatter.ISO_LOCAL_DATE);
+        }
+
+        @Override
+        public LocalDate defaultFrom(LocalDate today) {
+            return today.minusDays(29);
+        }
+    },
+    WEEK {
+        @Override
+        public LocalDateTime truncate(LocalDateTime dateTime) {
+            return dateTime.toLocalDate().with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)).atStartOfDay();
+        }
+
+        @Override
+        public LocalDateTime next(LocalDateTime bucketStart) {
+            return bucketStart.plusWeeks(1);
+        }
+
+        @Override
+        public String label(LocalDateTime bucketStart) {
+            return String.format("%d-W%02d",
+                    bucketStart.get(IsoFields.WEEK_BASED_YEAR),
+                    bucketStart.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR));
+        }
+
+        @Override
+        public LocalDate defaultFrom(LocalDate today) {
+            return today.minusWeeks(11);
+        }
+    },
+    MONTH {
+        @Override
+        public LocalDateTime truncate(LocalDateTime dateTime) {
+            return dateTime.toLocalDate().withDayOfMonth(1).atStartOfDay();
+        }
+
+        @Override
+        public LocalDateTime next(LocalDateTime bucketStart) {
+            return bucketStart.plusMonths(1);
+        }
+
+        @Override
+        public String label(LocalDateTime bucketStart) {
+            return bucketStart.format(MONTH_LABEL);
+        }
+
+        @Override
+        public LocalDate defaultFrom(LocalDate today) {
+            return today.minusMonths(11);
+        }
+    };
+
+    private static final DateTimeFormatter HOUR_LABEL = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:00");
+    private static final DateTimeFormatter MONTH_LABEL = DateTimeFormatter.ofPattern("yyyy-MM");
+
+    public abstract LocalDateTime truncate(LocalDateTime dateTime);
+
+    public abstract LocalDateTime next(LocalDateTime bucketStart);
+
+    public abstract String label(LocalDateTime bucketStart);
+
+    /**
+     * First calendar day shown when the caller does not pass an explicit range.
+     */
+    public abstract LocalDate defaultFrom(LocalDate today);
+
+    public static RevenueGranularity fromString(String value) {
+        for (RevenueGranularity granularity : values()) {
+            if (granularity.name().equalsIgnoreCase(value)) {
+                return granularity;
+            }
+        }
+        throw new IllegalArgumentException("Invalid range: " + value);
+    }
+}
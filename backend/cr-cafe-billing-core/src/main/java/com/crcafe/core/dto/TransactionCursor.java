@@ -0,0 +1,30 @@
+package com.crcafe.core.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position in the recent-transactions list, ordered by (bill_date DESC, id DESC).
+ * Clients only ever see the opaque {@link #encode() encoded} form.
+ */
+public record TransactionCursor(LocalDateTime billDate, Long billId) {
+
+    public String encode() {
+        String raw = billDate + "|" + billId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static TransactionCursor decode(String encoded) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(encoded), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            return new TransactionCursor(
+                    LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + encoded);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.crcafe.core.dto;
+
+import com.crcafe.core.model.PaymentMode;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Optional filters for the transaction search. Null fields are simply left out of the query.
+ */
+public record TransactionFilter(String cashier,
+                                BigDecimal minValue,
+                                BigDecimal maxValue,
+                                LocalDateTime startDate,
+                                LocalDateTime endDate,
+                                PaymentMode paymentMode) {
+
+    public static final TransactionFilter NONE = new TransactionFilter(null, null, null, null, null, null);
+}
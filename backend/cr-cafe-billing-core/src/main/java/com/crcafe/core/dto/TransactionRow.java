@@ -0,0 +1,27 @@
+package com.crcafe.core.dto;
+
+import com.crcafe.core.model.PaymentMode;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * One row of the recent-transactions list, selected straight into this type by the query.
+ * JSON names match the snake_case keys the dashboard has always used.
+ */
+public record TransactionRow(
+        @JsonProperty("user_id") Long userId,
+        @JsonProperty("handled_by") String handledBy,
+        @JsonProperty("order_id") Long orderId,
+        @JsonProperty("receipt_id") String receiptId,
+        @JsonProperty("final_amount") BigDecimal finalAmount,
+        @JsonProperty("date") LocalDateTime date,
+        @JsonProperty("payment_mode") PaymentMode paymentMode,
+        @JsonIgnore Long billId) {
+
+    public TransactionCursor toCursor() {
+        return new TransactionCursor(date, billId);
+    }
+}
@@ -0,0 +1,22 @@
+package com.crcafe.core.event;
+
+import com.crcafe.core.model.PaymentMode;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Published by the order service once a bill has been saved.
+ * Listeners that must only see committed data should use
+ * {@code @TransactionalEventListener} (after commit).
+ */
+public record BillGeneratedEvent(Long billId,
+                                 Long orderId,
+                                 Long userId,
+                                 String receiptId,
+                                 BigDecimal totalAmount,
+                                 BigDecimal discount,
+                                 BigDecimal finalAmount,
+                                 PaymentMode paymentMode,
+                                 LocalDateTime billDate) {
+}
@@ -0,0 +1,11 @@
+package com.crcafe.core.event;
+
+import com.crcafe.core.model.Item;
+
+/**
+ * Published by the item service when an item is created, changed or deleted. {@code item} is the
+ * item as saved, or null if it was deleted; {@code catalogVersion} is the menu version the change
+ * was committed under.
+ */
+public record ItemChangedEvent(Long itemId, Item item, long catalogVersion) {
+}
@@ -0,0 +1,20 @@
+package com.crcafe.core.event;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Published by the order service once an order has been saved.
+ * Listeners that must only see committed data should use
+ * {@code @TransactionalEventListener} (after commit).
+ */
+public record OrderCreatedEvent(Long orderId,
+                                Long userId,
+                                LocalDateTime orderDate,
+                                BigDecimal totalAmount,
+                                List<Line> lines) {
+
+    public record Line(Long itemId, String itemName, int quantity) {
+    }
+}
@@ -0,0 +1,8 @@
+package com.crcafe.core.event;
+
+/**
+ * Published by the user service when a user is created, updated or deleted.
+ * {@code previousUsername} differs from {@code username} only when a user was renamed.
+ */
+public record UserChangedEvent(Long userId, String previousUsername, String username) {
+}
@@ -0,0 +1,48 @@
+package com.crcafe.core.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * How far an archiving job has got. While a run is in progress {@code runCutoff} is set and
+ * {@code lastBillDate}/{@code lastBillId} mark the last bill archived; a run that was interrupted
+ * continues from there with the same cutoff.
+ */
+@Entity
+@Table(name = "archive_checkpoints")
+@Data
+@NoArgsConstructor
+public class ArchiveCheckpoint {
+
+    @Id
+    @Column(name = "job_name", length = 50)
+    private String jobName;
+
+    // Bills dated before this are archived by the current run; null when no run is in progress.
+    @Column(name = "run_cutoff")
+    private LocalDateTime runCutoff;
+
+    @Column(name = "last_bill_date")
+    private LocalDateTime lastBillDate;
+
+    @Column(name = "last_bill_id")
+    private Long lastBillId;
+
+    // Bills archived by the current (or last) run.
+    @Column(name = "rows_archived", nullable = false)
+    private long rowsArchived;
+
+    // The instance running the job; null when nobody holds the lease.
+    @Column(name = "lease_owner", length = 100)
+    private String leaseOwner;
+
+    // The lease owner holds it until then, renewing it with every chunk.
+    @Column(name = "lease_until")
+    private LocalDateTime leaseUntil;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -13,7 +13,9 @@ import java.time.LocalDateTime;
 public class Bill {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "bills_id")
+    @TableGenerator(name = "bills_id", table = "id_generators", pkColumnName = "sequence_name",
+            valueColumnName = "next_val", pkColumnValue = "bills", allocationSize = 50)
     private Long id;
 
     @OneToOne // Each bill corresponds to exactly one order
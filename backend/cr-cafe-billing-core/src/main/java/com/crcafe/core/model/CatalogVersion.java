@@ -0,0 +1,27 @@
+package com.crcafe.core.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The current version of a data set that instances cache (the menu, the dashboard figures),
+ * shared by all instances. The menu's is incremented in the same transaction as every change
+ * to it; the dashboard's shortly after changes commit (see {@code DashboardCache}).
+ */
+@Entity
+@Table(name = "catalog_versions")
+@Data
+@NoArgsConstructor
+public class CatalogVersion {
+
+    public static final String MENU = "menu";
+    public static final String DASHBOARD = "dashboard";
+
+    @Id
+    @Column(name = "catalog_name", length = 50)
+    private String catalogName;
+
+    @Column(nullable = false)
+    private long version;
+}
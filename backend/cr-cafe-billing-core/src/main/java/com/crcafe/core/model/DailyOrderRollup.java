@@ -0,0 +1,32 @@
+package com.crcafe.core.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDate;
+
+/**
+ * Number of orders placed on one day by one cashier, whether or not they were billed.
+ * Rows are updated in the same transaction that writes the order, alongside
+ * {@link DailySalesRollup}, so the dashboard can count orders without scanning the orders table.
+ */
+@Entity
+@Table(name = "daily_order_rollup",
+        uniqueConstraints = @UniqueConstraint(name = "uk_daily_order_rollup", columnNames = {"order_date", "user_id"}))
+@Data
+@NoArgsConstructor
+public class DailyOrderRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "order_date", nullable = false)
+    private LocalDate orderDate;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(nullable = false)
+    private long orderCount;
+}
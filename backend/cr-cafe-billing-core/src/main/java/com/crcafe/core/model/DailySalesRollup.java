@@ -0,0 +1,46 @@
+package com.crcafe.core.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Pre-aggregated sales totals for one day, payment mode and cashier.
+ * Rows are updated in the same transaction that writes the bill, so the
+ * dashboard can read totals without scanning the bills table.
+ */
+@Entity
+@Table(name = "daily_sales_rollup",
+        uniqueConstraints = @UniqueConstraint(name = "uk_daily_sales_rollup", columnNames = {"sales_date", "payment_mode", "user_id"}))
+@Data
+@NoArgsConstructor
+public class DailySalesRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "sales_date", nullable = false)
+    private LocalDate salesDate;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "payment_mode", nullable = false)
+    private PaymentMode paymentMode;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(nullable = false)
+    private long billCount;
+
+    @Column(nullable = false, precision = 12, scale = 2)
+    private BigDecimal grossAmount = BigDecimal.ZERO;
+
+    @Column(nullable = false, precision = 12, scale = 2)
+    private BigDecimal discountAmount = BigDecimal.ZERO;
+
+    @Column(nullable = false, precision = 12, scale = 2)
+    private BigDecimal netAmount = BigDecimal.ZERO;
+}
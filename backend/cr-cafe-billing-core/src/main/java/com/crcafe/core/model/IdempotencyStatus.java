@@ -0,0 +1,11 @@
+package com.crcafe.core.model;
+
+/**
+ * State of an idempotency key. A request claims its key as {@code PENDING} before it runs and
+ * the key becomes {@code COMPLETED}, with the response, in the same transaction as the request's
+ * own writes.
+ */
+public enum IdempotencyStatus {
+    PENDING,
+    COMPLETED
+}
@@ -14,8 +14,11 @@ import java.util.List;
 @NoArgsConstructor
 public class Order {
 
+    // Ids are reserved in blocks from id_generators so that inserts can be batched.
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "orders_id")
+    @TableGenerator(name = "orders_id", table = "id_generators", pkColumnName = "sequence_name",
+            valueColumnName = "next_val", pkColumnValue = "orders", allocationSize = 50)
     private Long id;
 
     @ManyToOne
@@ -28,6 +31,11 @@ public class Order {
     @Column(nullable = false, precision = 10, scale = 2)
     private BigDecimal totalAmount;
 
+    // Changed through OrderRepository.compareAndSetStatus so that concurrent requests cannot both win.
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private OrderStatus status = OrderStatus.OPEN;
+
     // This annotation is the "parent" side. It will be serialized normally.
     @JsonManagedReference // <-- ADD THIS ANNOTATION
     @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, orphanRemoval = true)
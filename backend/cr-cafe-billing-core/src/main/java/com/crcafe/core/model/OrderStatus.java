@@ -0,0 +1,11 @@
+package com.crcafe.core.model;
+
+/**
+ * Lifecycle of an order. Orders start {@code OPEN} and move exactly once, either to
+ * {@code BILLED} when a bill is generated or to {@code VOID} when they are cancelled unbilled.
+ */
+public enum OrderStatus {
+    OPEN,
+    BILLED,
+    VOID
+}
@@ -0,0 +1,11 @@
+package com.crcafe.core.model;
+
+/**
+ * Delivery state of an outbox event. {@code FAILED} events have used up their attempts and are
+ * kept for inspection; they are not retried automatically.
+ */
+public enum OutboxStatus {
+    PENDING,
+    PROCESSED,
+    FAILED
+}
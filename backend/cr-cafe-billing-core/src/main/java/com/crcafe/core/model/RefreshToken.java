@@ -0,0 +1,45 @@
+package com.crcafe.core.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One issued refresh token, stored only as the SHA-256 of the token. Tokens issued from the
+ * same login share a {@code sessionId}; refreshing revokes the presented token and issues the
+ * next one in the session.
+ */
+@Entity
+@Table(name = "refresh_tokens")
+@Data
+@NoArgsConstructor
+public class RefreshToken {
+
+    // Hex SHA-256 of the token.
+    @Id
+    @Column(name = "token_hash", length = 64)
+    private String tokenHash;
+
+    @Column(name = "session_id", nullable = false, length = 36)
+    private String sessionId;
+
+    // A plain id rather than an association: refreshing never needs to load the user row.
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    // User-Agent of the login that started the session.
+    @Column(length = 255)
+    private String device;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    // Set once the token was rotated or its session was ended.
+    @Column(name = "revoked_at")
+    private LocalDateTime revokedAt;
+}
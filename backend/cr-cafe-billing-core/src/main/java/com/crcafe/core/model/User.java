@@ -29,9 +29,6 @@ public class User implements UserDetails {
     @Column(nullable = false)
     private UserRole role;
 
-    @Column(name = "refresh_token", length = 512) // Choose a length that can hold a JWT
-    private String refreshToken;
-
     @Column(name = "profile_image_url")
     private String profileImageUrl;
 
@@ -0,0 +1,227 @@
+package com.crcafe.core.outbox;
+
+import com.crcafe.core.model.OutboxEvent;
+import com.crcafe.core.model.OutboxStatus;
+import com.crcafe.core.repository.OutboxEventRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Delivers outbox events to the {@link OutboxHandler}s in the background, in batches.
+ * <p>
+ * Each poll claims up to {@code outbox.batch-size} due events in a short transaction: the rows
+ * are locked with SKIP LOCKED (so several instances can poll safely) and leased for
+ * {@code outbox.lease-ms}. Handlers then run outside any transaction, and a second short
+ * transaction marks the batch processed. A failed event is retried with exponential backoff and
+ * marked {@code FAILED} after {@code outbox.max-attempts}; an event whose dispatcher died is
+ * picked up again once its lease runs out. Full batches are drained back to back.
+ * <p>
+ * Metrics: {@code outbox.events} (tagged {@code result} delivered/retry/failed), {@code outbox.lag}
+ * (commit to delivery), {@code outbox.batch} (time per batch) and {@code outbox.oldest.pending.seconds}
+ * (age of the oldest event claimed by the last poll, 0 when idle).
+ */
+@Component
+public class OutboxDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxDispatcher.class);
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    private final OutboxEventRepository repository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final Map<String, Registration> registrations = new HashMap<>();
+    private final int batchSize;
+    private final long pollIntervalMs;
+    private final Duration lease;
+    private final int maxAttempts;
+    private final Duration retryDelay;
+    private final Duration retention;
+    private final ScheduledExecutorService executor;
+
+    private final Counter delivered;
+    private final Counter retried;
+    private final Counter failed;
+    private final Timer lag;
+    private final Timer batchTimer;
+    private final AtomicLong oldestPendingSeconds = new AtomicLong();
+
+    public OutboxDispatcher(OutboxEventRepository repository,
+                            ObjectMapper objectMapper,
+                            PlatformTransactionManager transactionManager,
+                            MeterRegistry meterRegistry,
+                            ObjectProvider<OutboxHandler<?>> handlers,
+                            @Value("${outbox.batch-size:100}") int batchSize,
+                            @Value("${outbox.poll-interval-ms:500}") long pollIntervalMs,
+                            @Value("${outbox.lease-ms:60000}") long leaseMs,
+                            @Value("${outbox.max-attempts:10}") int maxAttempts,
+                            @Value("${outbox.retry-delay-ms:1000}") long retryDelayMs,
+                            @Value("${outbox.retention-hours:72}") long retentionHours) {
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.pollIntervalMs = pollIntervalMs;
+        this.lease = Duration.ofMillis(leaseMs);
+        this.maxAttempts = maxAttempts;
+        this.retryDelay = Duration.ofMillis(retryDelayMs);
+        this.retention = Duration.ofHours(retentionHours);
+        handlers.orderedStream().forEach(handler ->
+                registrations.computeIfAbsent(handler.eventType().getSimpleName(),
+                        type -> new Registration(handler.eventType(), new ArrayList<>())).handlers().add(handler));
+
+        this.delivered = Counter.builder("outbox.events").tag("result", "delivered").register(meterRegistry);
+        this.retried = Counter.builder("outbox.events").tag("result", "retry").register(meterRegistry);
+        this.failed = Counter.builder("outbox.events").tag("result", "failed").register(meterRegistry);
+        this.lag = Timer.builder("outbox.lag").description("Time from recording an event to delivering it")
+                .register(meterRegistry);
+        this.batchTimer = Timer.builder("outbox.batch").register(meterRegistry);
+        Gauge.builder("outbox.oldest.pending.seconds", oldestPendingSeconds, AtomicLong::get).register(meterRegistry);
+
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "outbox-dispatcher");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        executor.scheduleWithFixedDelay(this::poll, pollIntervalMs, pollIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.sweep-ms:3600000}")
+    public void deleteProcessed() {
+        Integer deleted = transactionTemplate.execute(status ->
+                repository.deleteProcessedBefore(LocalDateTime.now().minus(retention)));
+        if (deleted != null && deleted > 0) {
+            log.info("Deleted {} processed outbox events", deleted);
+        }
+    }
+
+    private void poll() {
+        try {
+            while (dispatchBatch() == batchSize) {
+                // A full batch means more are waiting; keep going without sleeping.
+            }
+        } catch (RuntimeException e) {
+            // Never let an exception cancel the scheduled task.
+            log.warn("Outbox dispatch failed", e);
+        }
+    }
+
+    /**
+     * Claims, delivers and settles one batch; returns the number of events claimed.
+     */
+    private int dispatchBatch() {
+        long start = System.nanoTime();
+        List<OutboxEvent> batch = transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<OutboxEvent> events = repository.lockDeliverable(now, batchSize);
+            if (!events.isEmpty()) {
+                repository.lease(events.stream().map(OutboxEvent::getId).toList(), now.plus(lease));
+            }
+            return events;
+        });
+        if (batch == null || batch.isEmpty()) {
+            oldestPendingSeconds.set(0);
+            return 0;
+        }
+        oldestPendingSeconds.set(Duration.between(batch.get(0).getCreatedAt(), LocalDateTime.now()).toSeconds());
+
+        List<Long> done = new ArrayList<>(batch.size());
+        List<Failure> failures = new ArrayList<>();
+        for (OutboxEvent event : batch) {
+            try {
+                deliver(event);
+                done.add(event.getId());
+                lag.record(Duration.between(event.getCreatedAt(), LocalDateTime.now()));
+            } catch (Exception e) {
+                log.warn("Outbox event {} ({}) failed on attempt {}", event.getId(), event.getEventType(),
+                        event.getAttempts() + 1, e);
+                failures.add(new Failure(event, e));
+            }
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            if (!done.isEmpty()) {
+                repository.markProcessed(done, now);
+            }
+            for (Failure failure : failures) {
+                settle(failure, now);
+            }
+        });
+        delivered.increment(done.size());
+        batchTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return batch.size();
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private void deliver(OutboxEvent event) throws Exception {
+        Registration registration = registrations.get(event.getEventType());
+        if (registration == null) {
+            // Nobody consumes this type (yet); it is marked processed like any other event.
+            return;
+        }
+        Object payload = objectMapper.readValue(event.getPayload(), registration.eventType());
+        for (OutboxHandler handler : registration.handlers()) {
+            handler.handle(payload);
+        }
+    }
+
+    private void settle(Failure failure, LocalDateTime now) {
+        OutboxEvent event = failure.event();
+        int attempt = event.getAttempts() + 1;
+        String error = String.valueOf(failure.error());
+        if (error.length() > MAX_ERROR_LENGTH) {
+            error = error.substring(0, MAX_ERROR_LENGTH);
+        }
+        if (attempt >= maxAttempts) {
+            repository.markFailed(event.getId(), OutboxStatus.FAILED, now, error);
+            failed.increment();
+            log.error("Outbox event {} ({}) failed {} times and will not be retried",
+                    event.getId(), event.getEventType(), attempt);
+        } else {
+            // 1x, 2x, 4x ... the retry delay, capped at 2^10.
+            Duration backoff = retryDelay.multipliedBy(1L << Math.min(attempt - 1, 10));
+            repository.markFailed(event.getId(), OutboxStatus.PENDING, now.plus(backoff), error);
+            retried.increment();
+        }
+    }
+
+    private record Registration(Class<?> eventType, List<OutboxHandler<?>> handlers) {
+    }
+
+    private record Failure(OutboxEvent event, Exception error) {
+    }
+}
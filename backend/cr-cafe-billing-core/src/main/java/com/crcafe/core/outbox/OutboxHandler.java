@@ -0,0 +1,19 @@
+package com.crcafe.core.outbox;
+
+/**
+ * Consumes events recorded through {@link OutboxWriter}. Every Spring bean implementing this
+ * interface is called by the {@link OutboxDispatcher} on its own thread, after the transaction
+ * that recorded the event has committed.
+ * <p>
+ * Delivery is at least once: an event whose delivery fails (in any handler) or whose dispatcher
+ * dies mid-batch is delivered again, to every handler of its type. Handlers must therefore be
+ * idempotent, e.g. by keying their work on the event's ids.
+ *
+ * @param <E> the event record this handler consumes
+ */
+public interface OutboxHandler<E> {
+
+    Class<E> eventType();
+
+    void handle(E event);
+}
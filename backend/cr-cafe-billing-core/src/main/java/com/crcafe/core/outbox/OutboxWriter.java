@@ -0,0 +1,47 @@
+package com.crcafe.core.outbox;
+
+import com.crcafe.core.model.OutboxEvent;
+import com.crcafe.core.repository.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+/**
+ * Records events in the outbox_events table as part of the caller's transaction, so an event
+ * exists if and only if the change it describes was committed.
+ */
+@Component
+public class OutboxWriter {
+
+    private final OutboxEventRepository repository;
+    private final ObjectMapper objectMapper;
+
+    public OutboxWriter(OutboxEventRepository repository, ObjectMapper objectMapper) {
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Queues {@code event} (a record serializable to JSON) for the handlers of its type.
+     * The row is only flushed with the rest of the transaction, so events of a bulk upload are batched.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void append(Long aggregateId, Object event) {
+        OutboxEvent row = new OutboxEvent();
+        row.setEventType(event.getClass().getSimpleName());
+        row.setAggregateId(aggregateId);
+        try {
+            row.setPayload(objectMapper.writeValueAsString(event));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize " + row.getEventType(), e);
+        }
+        LocalDateTime now = LocalDateTime.now();
+        row.setCreatedAt(now);
+        row.setAvailableAt(now);
+        repository.save(row);
+    }
+}
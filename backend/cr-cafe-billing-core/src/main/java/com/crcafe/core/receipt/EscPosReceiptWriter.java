@@ -0,0 +1,46 @@
+package com.crcafe.core.receipt;
+
+import java.nio.charset.Charset;
+
+/**
+ * ESC/POS commands for thermal receipt printers: initialise, print the lines (emphasised where
+ * bold) in code page 437, the printers' default, then feed and cut the paper.
+ */
+final class EscPosReceiptWriter implements ReceiptWriter {
+
+    private static final Charset CP437 = Charset.forName("IBM437");
+    private static final byte ESC = 0x1B;
+    private static final byte GS = 0x1D;
+    private static final byte[] INIT = {ESC, '@'};
+    private static final byte[] BOLD_ON = {ESC, 'E', 1};
+    private static final byte[] BOLD_OFF = {ESC, 'E', 0};
+    // Feed four lines so the last line clears the cutter, then partial cut.
+    private static final byte[] FEED_AND_CUT = {ESC, 'd', 4, GS, 'V', 66, 0};
+
+    private final ReceiptBuffers buffers;
+    private boolean bold;
+
+    EscPosReceiptWriter(ReceiptBuffers buffers) {
+        this.buffers = buffers;
+        buffers.out.writeBytes(INIT);
+    }
+
+    @Override
+    public void line(CharSequence text, boolean bold) {
+        if (bold != this.bold) {
+            buffers.out.writeBytes(bold ? BOLD_ON : BOLD_OFF);
+            this.bold = bold;
+        }
+        buffers.out.writeBytes(text.toString().getBytes(CP437));
+        buffers.out.write('\n');
+    }
+
+    @Override
+    public byte[] finish() {
+        if (bold) {
+            buffers.out.writeBytes(BOLD_OFF);
+        }
+        buffers.out.writeBytes(FEED_AND_CUT);
+        return buffers.out.toByteArray();
+    }
+}
@@ -0,0 +1,96 @@
+package com.crcafe.core.receipt;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A single-page PDF sized to the receipt, set in the built-in Courier fonts (nothing embedded).
+ * The page content is collected first, since the page height depends on the number of lines,
+ * and the document objects and cross-reference table are written around it at the end.
+ */
+final class PdfReceiptWriter implements ReceiptWriter {
+
+    private static final Charset WIN_ANSI = Charset.forName("windows-1252");
+    private static final int FONT_SIZE = 10;
+    private static final int LEADING = 12;
+    // Courier glyphs are 600/1000 em wide.
+    private static final double CHAR_WIDTH = FONT_SIZE * 0.6;
+    private static final int MARGIN = 18;
+
+    private final ReceiptBuffers buffers;
+    private final int width;
+    private int lines;
+    private boolean bold;
+
+    PdfReceiptWriter(ReceiptBuffers buffers, int width) {
+        this.buffers = buffers;
+        this.width = width;
+    }
+
+    @Override
+    public void line(CharSequence text, boolean bold) {
+        if (bold != this.bold || lines == 0) {
+            ascii(buffers.content, bold ? "/F2 " : "/F1 ");
+            ascii(buffers.content, FONT_SIZE + " Tf ");
+            this.bold = bold;
+        }
+        buffers.content.write('(');
+        for (byte b : text.toString().getBytes(WIN_ANSI)) {
+            if (b == '(' || b == ')' || b == '\\') {
+                buffers.content.write('\\');
+            }
+            buffers.content.write(b);
+        }
+        ascii(buffers.content, ") Tj T*\n");
+        lines++;
+    }
+
+    @Override
+    public byte[] finish() {
+        int pageWidth = (int) Math.ceil(width * CHAR_WIDTH) + 2 * MARGIN;
+        int pageHeight = Math.max(lines, 1) * LEADING + 2 * MARGIN;
+        String begin = "BT " + LEADING + " TL " + MARGIN + " " + (pageHeight - MARGIN - FONT_SIZE) + " Td\n";
+        String end = "ET\n";
+        int contentLength = begin.length() + buffers.content.size() + end.length();
+
+        int[] offsets = new int[7];
+        ascii(buffers.out, "%PDF-1.4\n");
+        offsets[1] = object(1, "<< /Type /Catalog /Pages 2 0 R >>");
+        offsets[2] = object(2, "<< /Type /Pages /Kids [3 0 R] /Count 1 >>");
+        offsets[3] = object(3, "<< /Type /Page /Parent 2 0 R /MediaBox [0 0 " + pageWidth + " " + pageHeight + "]"
+                + " /Resources << /Font << /F1 4 0 R /F2 5 0 R >> >> /Contents 6 0 R >>");
+        offsets[4] = object(4, "<< /Type /Font /Subtype /Type1 /BaseFont /Courier /Encoding /WinAnsiEncoding >>");
+        offsets[5] = object(5, "<< /Type /Font /Subtype /Type1 /BaseFont /Courier-Bold /Encoding /WinAnsiEncoding >>");
+        offsets[6] = buffers.out.size();
+        ascii(buffers.out, "6 0 obj\n<< /Length " + contentLength + " >>\nstream\n" + begin);
+        try {
+            buffers.content.writeTo(buffers.out);
+        } catch (IOException e) {
+            // Not thrown between in-memory streams.
+            throw new UncheckedIOException(e);
+        }
+        ascii(buffers.out, end + "endstream\nendobj\n");
+
+        int xref = buffers.out.size();
+        StringBuilder table = new StringBuilder("xref\n0 7\n0000000000 65535 f \n");
+        for (int i = 1; i < offsets.length; i++) {
+            table.append(String.format("%010d 00000 n \n", offsets[i]));
+        }
+        table.append("trailer\n<< /Size 7 /Root 1 0 R >>\nstartxref\n").append(xref).append("\n%%EOF\n");
+        ascii(buffers.out, table.toString());
+        return buffers.out.toByteArray();
+    }
+
+    private int object(int number, String dictionary) {
+        int offset = buffers.out.size();
+        ascii(buffers.out, number + " 0 obj\n" + dictionary + "\nendobj\n");
+        return offset;
+    }
+
+    private static void ascii(ByteArrayOutputStream out, String s) {
+        out.writeBytes(s.getBytes(StandardCharsets.US_ASCII));
+    }
+}
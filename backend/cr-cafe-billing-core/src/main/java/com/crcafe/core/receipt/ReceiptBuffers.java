@@ -0,0 +1,32 @@
+package com.crcafe.core.receipt;
+
+import java.io.ByteArrayOutputStream;
+
+/**
+ * Per-thread scratch buffers reused across renders, so rendering a receipt allocates little
+ * beyond the returned byte array.
+ */
+final class ReceiptBuffers {
+
+    // Buffers that grew past this (an unusually long receipt) are dropped rather than kept per thread.
+    private static final int MAX_RETAINED_BYTES = 64 * 1024;
+
+    final StringBuilder line = new StringBuilder(64);
+    final StringBuilder value = new StringBuilder(64);
+    ByteArrayOutputStream out = new ByteArrayOutputStream(2048);
+    ByteArrayOutputStream content = new ByteArrayOutputStream(2048);
+
+    ReceiptBuffers reset() {
+        out = reset(out);
+        content = reset(content);
+        return this;
+    }
+
+    private static ByteArrayOutputStream reset(ByteArrayOutputStream buffer) {
+        if (buffer.size() > MAX_RETAINED_BYTES) {
+            return new ByteArrayOutputStream(2048);
+        }
+        buffer.reset();
+        return buffer;
+    }
+}
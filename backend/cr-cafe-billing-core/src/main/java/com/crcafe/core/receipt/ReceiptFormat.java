@@ -0,0 +1,36 @@
+package com.crcafe.core.receipt;
+
+/**
+ * Output formats of {@link ReceiptRenderer}.
+ */
+public enum ReceiptFormat {
+    TEXT("text/plain;charset=UTF-8", "txt"),
+    // Raw bytes for ESC/POS thermal printers, to be sent to the printer as-is.
+    ESCPOS("application/octet-stream", "bin"),
+    PDF("application/pdf", "pdf");
+
+    private final String contentType;
+    private final String fileExtension;
+
+    ReceiptFormat(String contentType, String fileExtension) {
+        this.contentType = contentType;
+        this.fileExtension = fileExtension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getFileExtension() {
+        return fileExtension;
+    }
+
+    public static ReceiptFormat fromString(String value) {
+        for (ReceiptFormat format : values()) {
+            if (format.name().equalsIgnoreCase(value)) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("Invalid receipt format: " + value + " (expected text, escpos or pdf)");
+    }
+}
@@ -0,0 +1,14 @@
+package com.crcafe.core.receipt;
+
+/**
+ * Produces the receipt id stored on every bill ({@code bills.receipt_id}, unique, at most 100 characters).
+ * <p>
+ * Implementations must be thread-safe and must never return the same id twice, including across
+ * the nodes of a deployment, since a duplicate fails the whole billing transaction.
+ * {@link TimeOrderedReceiptIdGenerator} is used unless another implementation is declared as a
+ * {@code @Primary} bean.
+ */
+public interface ReceiptIdGenerator {
+
+    String nextId();
+}
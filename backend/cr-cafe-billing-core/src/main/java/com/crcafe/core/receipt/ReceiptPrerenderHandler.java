@@ -0,0 +1,38 @@
+package com.crcafe.core.receipt;
+
+import com.crcafe.core.event.BillGeneratedEvent;
+import com.crcafe.core.outbox.OutboxHandler;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Renders each new bill's receipt in the background (via the outbox) in the formats terminals
+ * usually ask for, so the print request right after checkout is a cache hit.
+ * A redelivered event finds the receipt already cached, so redelivery is harmless.
+ */
+@Component
+public class ReceiptPrerenderHandler implements OutboxHandler<BillGeneratedEvent> {
+
+    private final ReceiptService receiptService;
+    private final List<ReceiptFormat> formats;
+
+    public ReceiptPrerenderHandler(ReceiptService receiptService,
+                                   @Value("${receipt.prerender-formats:TEXT}") List<String> formats) {
+        this.receiptService = receiptService;
+        this.formats = formats.stream().map(ReceiptFormat::fromString).toList();
+    }
+
+    @Override
+    public Class<BillGeneratedEvent> eventType() {
+        return BillGeneratedEvent.class;
+    }
+
+    @Override
+    public void handle(BillGeneratedEvent event) {
+        for (ReceiptFormat format : formats) {
+            receiptService.getReceipt(event.receiptId(), format);
+        }
+    }
+}
@@ -0,0 +1,281 @@
+package com.crcafe.core.receipt;
+
+import com.crcafe.core.model.Bill;
+import com.crcafe.core.model.OrderItem;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Renders a bill and its order items as plain text, ESC/POS printer commands or PDF.
+ * <p>
+ * The layout comes from {@code receipt.template} (see {@code receipts/receipt.tmpl}) and is
+ * compiled once at startup into a tree of lines whose placeholders are already bound to field
+ * accessors, so a bad template fails the start-up instead of a checkout, and rendering does no
+ * parsing. Lines are laid out to {@code receipt.width} characters in per-thread buffers that are
+ * reused across renders. The bill must have its order, cashier and order items loaded.
+ */
+@Component
+public class ReceiptRenderer {
+
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("dd-MM-yyyy HH:mm");
+
+    private static final Map<String, Function<Bill, Object>> BILL_FIELDS = Map.of(
+            "receiptId", Bill::getReceiptId,
+            "orderId", bill -> bill.getOrder().getId(),
+            "billDate", bill -> DATE_FORMAT.format(bill.getBillDate()),
+            "cashier", bill -> bill.getOrder().getUser().getUsername(),
+            "paymentMode", Bill::getPaymentMode,
+            "subtotal", bill -> money(bill.getTotalAmount()),
+            "discount", bill -> money(bill.getDiscount()),
+            "total", bill -> money(bill.getFinalAmount()));
+
+    private static final Map<String, Function<OrderItem, Object>> ITEM_FIELDS = Map.of(
+            "name", item -> item.getItem().getName(),
+            "quantity", OrderItem::getQuantity,
+            "price", item -> money(item.getPrice()),
+            "amount", item -> money(item.getPrice().multiply(BigDecimal.valueOf(item.getQuantity()))));
+
+    private final int width;
+    private final String rule;
+    private final List<Node> template;
+    private final ThreadLocal<ReceiptBuffers> buffers = ThreadLocal.withInitial(ReceiptBuffers::new);
+
+    public ReceiptRenderer(@Value("${receipt.width:42}") int width,
+                           @Value("${receipt.shop-name:CR Cafe}") String shopName,
+                           @Value("${receipt.template:classpath:receipts/receipt.tmpl}") Resource template) {
+        if (width < 20) {
+            throw new IllegalArgumentException("receipt.width must be at least 20 characters");
+        }
+        this.width = width;
+        this.rule = "-".repeat(width);
+        try {
+            this.template = compile(template.getContentAsString(StandardCharsets.UTF_8), shopName);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read receipt template " + template, e);
+        }
+    }
+
+    public byte[] render(Bill bill, ReceiptFormat format) {
+        ReceiptBuffers buffers = this.buffers.get().reset();
+        ReceiptWriter writer = switch (format) {
+            case TEXT -> new TextReceiptWriter(buffers);
+            case ESCPOS -> new EscPosReceiptWriter(buffers);
+            case PDF -> new PdfReceiptWriter(buffers, width);
+        };
+        render(template, bill, null, writer, buffers);
+        return writer.finish();
+    }
+
+    private void render(List<Node> nodes, Bill bill, OrderItem item, ReceiptWriter writer, ReceiptBuffers buffers) {
+        for (Node node : nodes) {
+            if (node instanceof Each each) {
+                for (OrderItem orderItem : bill.getOrder().getOrderItems()) {
+                    render(each.body(), bill, orderItem, writer, buffers);
+                }
+            } else if (node instanceof Rule r) {
+                writer.line(rule, r.bold());
+            } else if (node instanceof Line line) {
+                layout(line, bill, item, writer, buffers);
+            }
+        }
+    }
+
+    private void layout(Line line, Bill bill, OrderItem item, ReceiptWriter writer, ReceiptBuffers buffers) {
+        StringBuilder out = buffers.line;
+        StringBuilder value = buffers.value;
+        value.setLength(0);
+        line.left().append(value, bill, item);
+
+        if (line.right() != null) {
+            String left = value.toString();
+            value.setLength(0);
+            line.right().append(value, bill, item);
+            if (value.length() + 1 >= width) {
+                // The right-hand value alone fills the line: print both parts on lines of their own.
+                wrap(left, false, line.bold(), writer, out);
+                wrap(value, false, line.bold(), writer, out);
+                return;
+            }
+            int leftWidth = Math.min(left.length(), width - value.length() - 1);
+            out.setLength(0);
+            out.append(left, 0, leftWidth);
+            out.append(" ".repeat(width - leftWidth - value.length()));
+            out.append(value);
+            writer.line(out, line.bold());
+            return;
+        }
+        wrap(value, line.centered(), line.bold(), writer, out);
+    }
+
+    private void wrap(CharSequence text, boolean centered, boolean bold, ReceiptWriter writer, StringBuilder out) {
+        int start = 0;
+        do {
+            int end = Math.min(start + width, text.length());
+            out.setLength(0);
+            if (centered) {
+                out.append(" ".repeat((width - (end - start)) / 2));
+            }
+            out.append(text, start, end);
+            writer.line(out, bold);
+            start = end;
+        } while (start < text.length());
+    }
+
+    private static String money(BigDecimal amount) {
+        return (amount != null ? amount : BigDecimal.ZERO).setScale(2, RoundingMode.HALF_UP).toPlainString();
+    }
+
+    // ---- template compilation ----
+
+    private static List<Node> compile(String source, String shopName) {
+        Deque<List<Node>> blocks = new ArrayDeque<>();
+        blocks.push(new ArrayList<>());
+        String[] lines = source.split("\r?\n");
+        for (int i = 0; i < lines.length; i++) {
+            String raw = lines[i];
+            if (raw.isBlank() || raw.startsWith("#")) {
+                continue;
+            }
+            try {
+                compileLine(raw, shopName, blocks);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalStateException("Receipt template line " + (i + 1) + ": " + e.getMessage(), e);
+            }
+        }
+        if (blocks.size() != 1) {
+            throw new IllegalStateException("Receipt template: 'each item' without 'end'");
+        }
+        return List.copyOf(blocks.pop());
+    }
+
+    private static void compileLine(String raw, String shopName, Deque<List<Node>> blocks) {
+        String rest = raw;
+        boolean bold = false;
+        if (rest.startsWith("bold ")) {
+            bold = true;
+            rest = rest.substring(5);
+        }
+        int space = rest.indexOf(' ');
+        String directive = space < 0 ? rest.strip() : rest.substring(0, space);
+        String argument = space < 0 ? "" : rest.substring(space + 1);
+        boolean inItem = blocks.size() > 1;
+        List<Node> block = blocks.peek();
+
+        switch (directive) {
+            case "text" -> block.add(new Line(bold, false, expression(argument, shopName, inItem), null));
+            case "center" -> block.add(new Line(bold, true, expression(argument.strip(), shopName, inItem), null));
+            case "row" -> {
+                int bar = argument.indexOf('|');
+                if (bar < 0) {
+                    throw new IllegalArgumentException("row needs '<left> | <right>'");
+                }
+                block.add(new Line(bold, false,
+                        expression(argument.substring(0, bar).stripTrailing(), shopName, inItem),
+                        expression(argument.substring(bar + 1).strip(), shopName, inItem)));
+            }
+            case "rule" -> block.add(new Rule(bold));
+            case "blank" -> block.add(new Line(false, false, expression("", shopName, inItem), null));
+            case "each" -> {
+                if (!argument.strip().equals("item") || inItem) {
+                    throw new IllegalArgumentException("only a single, non-nested 'each item' block is supported");
+                }
+                blocks.push(new ArrayList<>());
+            }
+            case "end" -> {
+                if (!inItem) {
+                    throw new IllegalArgumentException("'end' without 'each item'");
+                }
+                List<Node> body = blocks.pop();
+                blocks.peek().add(new Each(List.copyOf(body)));
+            }
+            default -> throw new IllegalArgumentException("unknown directive '" + directive + "'");
+        }
+    }
+
+    /**
+     * Splits {@code text} into literal parts and ${field} placeholders, resolving each
+     * placeholder to its accessor now.
+     */
+    private static Expression expression(String text, String shopName, boolean inItem) {
+        List<Part> parts = new ArrayList<>();
+        int from = 0;
+        while (from < text.length()) {
+            int open = text.indexOf("${", from);
+            if (open < 0) {
+                parts.add(literal(text.substring(from)));
+                break;
+            }
+            int close = text.indexOf('}', open);
+            if (close < 0) {
+                throw new IllegalArgumentException("unclosed placeholder in '" + text + "'");
+            }
+            if (open > from) {
+                parts.add(literal(text.substring(from, open)));
+            }
+            parts.add(field(text.substring(open + 2, close), shopName, inItem));
+            from = close + 1;
+        }
+        return new Expression(List.copyOf(parts));
+    }
+
+    private static Part literal(String text) {
+        return (out, bill, item) -> out.append(text);
+    }
+
+    private static Part field(String name, String shopName, boolean inItem) {
+        if (name.equals("shopName")) {
+            return literal(shopName);
+        }
+        Function<Bill, Object> billField = BILL_FIELDS.get(name);
+        if (billField != null) {
+            return (out, bill, item) -> out.append(billField.apply(bill));
+        }
+        Function<OrderItem, Object> itemField = ITEM_FIELDS.get(name);
+        if (itemField != null) {
+            if (!inItem) {
+                throw new IllegalArgumentException("${" + name + "} can only be used inside 'each item'");
+            }
+            return (out, bill, item) -> out.append(itemField.apply(item));
+        }
+        throw new IllegalArgumentException("unknown field ${" + name + "}");
+    }
+
+    private interface Node {
+    }
+
+    private record Line(boolean bold, boolean centered, Expression left, Expression right) implements Node {
+    }
+
+    private record Rule(boolean bold) implements Node {
+    }
+
+    private record Each(List<Node> body) implements Node {
+    }
+
+    private record Expression(List<Part> parts) {
+        void append(StringBuilder out, Bill bill, OrderItem item) {
+            for (Part part : parts) {
+                part.append(out, bill, item);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface Part {
+        void append(StringBuilder out, Bill bill, OrderItem item);
+    }
+}
@@ -0,0 +1,56 @@
+package com.crcafe.core.receipt;
+
+import com.crcafe.core.model.Bill;
+import com.crcafe.core.repository.BillRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+
+/**
+ * Rendered receipts by receipt id and format. A bill never changes once it is generated, so
+ * a rendered receipt stays valid; entries are only bounded by {@code receipt.cache.max-entries}
+ * and dropped after {@code receipt.cache.ttl-minutes} without use. Hit and miss counts are
+ * published as the {@code cache.gets} meter with {@code cache=receipts}.
+ */
+@Service
+public class ReceiptService {
+
+    private final BillRepository billRepository;
+    private final ReceiptRenderer renderer;
+    private final Cache<Key, byte[]> rendered;
+
+    public ReceiptService(BillRepository billRepository, ReceiptRenderer renderer, MeterRegistry meterRegistry,
+                          @Value("${receipt.cache.max-entries:1000}") long maxEntries,
+                          @Value("${receipt.cache.ttl-minutes:60}") long ttlMinutes) {
+        this.billRepository = billRepository;
+        this.renderer = renderer;
+        this.rendered = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterAccess(Duration.ofMinutes(ttlMinutes))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, rendered, "receipts");
+    }
+
+    /**
+     * The receipt for {@code receiptId} in {@code format}, rendered on first use.
+     *
+     * @throws EntityNotFoundException if there is no bill with that receipt id
+     */
+    public byte[] getReceipt(String receiptId, ReceiptFormat format) {
+        return rendered.get(new Key(receiptId, format), key -> {
+            Bill bill = billRepository.findReceiptByReceiptId(receiptId)
+                    .orElseThrow(() -> new EntityNotFoundException("Receipt not found: " + receiptId));
+            return renderer.render(bill, format);
+        });
+    }
+
+    private record Key(String receiptId, ReceiptFormat format) {
+    }
+}
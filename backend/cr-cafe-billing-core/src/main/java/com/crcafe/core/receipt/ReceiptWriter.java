@@ -0,0 +1,15 @@
+package com.crcafe.core.receipt;
+
+/**
+ * Encodes laid-out receipt lines into one output format. Lines arrive already padded to the
+ * receipt width, so every format prints them with a monospaced font.
+ */
+interface ReceiptWriter {
+
+    void line(CharSequence text, boolean bold);
+
+    /**
+     * Returns the encoded receipt; the writer's buffers may be reused afterwards.
+     */
+    byte[] finish();
+}
@@ -0,0 +1,26 @@
+package com.crcafe.core.receipt;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Plain UTF-8 text, one line per receipt line.
+ */
+final class TextReceiptWriter implements ReceiptWriter {
+
+    private final ReceiptBuffers buffers;
+
+    TextReceiptWriter(ReceiptBuffers buffers) {
+        this.buffers = buffers;
+    }
+
+    @Override
+    public void line(CharSequence text, boolean bold) {
+        buffers.out.writeBytes(text.toString().getBytes(StandardCharsets.UTF_8));
+        buffers.out.write('\n');
+    }
+
+    @Override
+    public byte[] finish() {
+        return buffers.out.toByteArray();
+    }
+}
@@ -0,0 +1,107 @@
+package com.crcafe.core.receipt;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Default receipt ids: {@code CRCAFE-yyyyMMdd-HHmmss-NNSSSSSS}, where {@code NN} is this node's id
+ * and {@code SSSSSS} a per-second sequence, both upper-case hex. Same shape as the older
+ * random-suffix ids, and they sort by time.
+ * <p>
+ * The formatted second is computed once per second and shared; each id then costs one atomic
+ * increment and a short string build. Ids are unique without a database round trip as long as
+ * every node has a distinct {@code receipt.node-id} (0-255):
+ * <ul>
+ *   <li>the second never moves backwards, even if the wall clock does, and</li>
+ *   <li>if 16.7 million ids are issued within one second, callers wait for the next second.</li>
+ * </ul>
+ * There is no default node id, since one derived from the host could collide with another node's;
+ * start-up fails when it is not set.
+ * The sequence restarts at zero on boot; start-up takes longer than a second, so a restarted node
+ * does not reuse the ids of its previous run unless the clock was set back across the restart.
+ */
+@Component
+public class TimeOrderedReceiptIdGenerator implements ReceiptIdGenerator {
+
+    private static final DateTimeFormatter SECOND_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+    private static final String PREFIX = "CRCAFE-";
+    private static final int MAX_SEQUENCE = 0xFFFFFF;
+    private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+
+    private final Clock clock;
+    private final char[] node;
+    private final AtomicReference<Second> current;
+
+    public TimeOrderedReceiptIdGenerator(@Value("${receipt.node-id:-1}") int nodeId) {
+        this(Clock.systemDefaultZone(), requireNodeId(nodeId));
+    }
+
+    TimeOrderedReceiptIdGenerator(Clock clock, int nodeId) {
+        if (nodeId < 0 || nodeId > 0xFF) {
+            throw new IllegalArgumentException("receipt.node-id must be between 0 and 255");
+        }
+        this.clock = clock;
+        this.node = new char[] {HEX[nodeId >> 4], HEX[nodeId & 0xF]};
+        this.current = new AtomicReference<>(second(clock.millis() / 1000));
+    }
+
+    @Override
+    public String nextId() {
+        while (true) {
+            Second second = current.get();
+            long now = clock.millis() / 1000;
+            if (now > second.epochSecond) {
+                current.compareAndSet(second, second(now));
+                continue;
+            }
+            int sequence = second.sequence.getAndIncrement();
+            if (sequence <= MAX_SEQUENCE) {
+                return format(second.prefix, sequence);
+            }
+            // This second's sequence is used up; wait for the clock to move on.
+            Thread.onSpinWait();
+        }
+    }
+
+    private String format(String prefix, int sequence) {
+        char[] suffix = new char[8];
+        suffix[0] = node[0];
+        suffix[1] = node[1];
+        for (int i = 7; i >= 2; i--) {
+            suffix[i] = HEX[sequence & 0xF];
+            sequence >>>= 4;
+        }
+        return new StringBuilder(prefix.length() + suffix.length).append(prefix).append(suffix).toString();
+    }
+
+    private Second second(long epochSecond) {
+        LocalDateTime time = LocalDateTime.ofInstant(Instant.ofEpochSecond(epochSecond), clock.getZone());
+        return new Second(epochSecond, PREFIX + SECOND_FORMAT.format(time) + "-");
+    }
+
+    private static int requireNodeId(int nodeId) {
+        if (nodeId < 0) {
+            throw new IllegalStateException(
+                    "receipt.node-id (RECEIPT_NODE_ID) is not set; give every instance a distinct id between 0 and 255");
+        }
+        return nodeId;
+    }
+
+    private static final class Second {
+        private final long epochSecond;
+        private final String prefix;
+        private final AtomicInteger sequence = new AtomicInteger();
+
+        private Second(long epochSecond, String prefix) {
+            this.epochSecond = epochSecond;
+            this.prefix = prefix;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.crcafe.core.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Keys of a bill due for archiving: enough to archive it and to continue the scan after it.
+ */
+public interface ArchivableBillProjection {
+    Long getId();
+    Long getOrderId();
+    LocalDateTime getBillDate();
+}
@@ -0,0 +1,62 @@
+package com.crcafe.core.repository;
+
+import com.crcafe.core.model.ArchiveCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Repository for the archive_checkpoints table.
+ */
+@Repository
+public interface ArchiveCheckpointRepository extends JpaRepository<ArchiveCheckpoint, String> {
+
+    /**
+     * Gives the job's lease to {@code owner} until {@code until} unless another instance holds an
+     * unexpired one.
+     */
+    @Modifying
+    @Query("UPDATE ArchiveCheckpoint c SET c.leaseOwner = :owner, c.leaseUntil = :until, c.updatedAt = :now " +
+            "WHERE c.jobName = :job AND (c.leaseUntil IS NULL OR c.leaseUntil < :now OR c.leaseOwner = :owner)")
+    int claim(@Param("job") String job, @Param("owner") String owner,
+              @Param("now") LocalDateTime now, @Param("until") LocalDateTime until);
+
+    @Modifying
+    @Query("UPDATE ArchiveCheckpoint c SET c.runCutoff = :cutoff, c.lastBillDate = NULL, c.lastBillId = NULL, " +
+            "c.rowsArchived = 0, c.updatedAt = :now WHERE c.jobName = :job AND c.leaseOwner = :owner")
+    int startRun(@Param("job") String job, @Param("owner") String owner,
+                 @Param("cutoff") LocalDateTime cutoff, @Param("now") LocalDateTime now);
+
+    /**
+     * Records a committed chunk and renews the lease; runs in the chunk's transaction.
+     * @return 0 if {@code owner} no longer holds the lease.
+     */
+    @Modifying
+    @Query("UPDATE ArchiveCheckpoint c SET c.lastBillDate = :lastBillDate, c.lastBillId = :lastBillId, " +
+            "c.rowsArchived = c.rowsArchived + :rows, c.leaseUntil = :until, c.updatedAt = :now " +
+            "WHERE c.jobName = :job AND c.leaseOwner = :owner")
+    int advance(@Param("job") String job,
+                @Param("owner") String owner,
+                @Param("lastBillDate") LocalDateTime lastBillDate,
+                @Param("lastBillId") Long lastBillId,
+                @Param("rows") long rows,
+                @Param("now") LocalDateTime now,
+                @Param("until") LocalDateTime until);
+
+    @Modifying
+    @Query("UPDATE ArchiveCheckpoint c SET c.runCutoff = NULL, c.lastBillDate = NULL, c.lastBillId = NULL, " +
+            "c.updatedAt = :now WHERE c.jobName = :job AND c.leaseOwner = :owner")
+    int finishRun(@Param("job") String job, @Param("owner") String owner, @Param("now") LocalDateTime now);
+
+    /**
+     * Gives up the lease if {@code owner} still holds it.
+     */
+    @Modifying
+    @Query("UPDATE ArchiveCheckpoint c SET c.leaseOwner = NULL, c.leaseUntil = NULL " +
+            "WHERE c.jobName = :job AND c.leaseOwner = :owner")
+    int release(@Param("job") String job, @Param("owner") String owner);
+}
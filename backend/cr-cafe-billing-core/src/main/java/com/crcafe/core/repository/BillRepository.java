@@ -1,93 +1,74 @@
 package com.crcafe.core.repository;
 
 import com.crcafe.core.model.Bill;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List; // Import List
 import java.util.Optional;
 
 @Repository
-public interface BillRepository extends JpaRepository<Bill, Long> {
+public interface BillRepository extends JpaRepository<Bill, Long>, TransactionSearchRepository {
 
     void deleteByBillDateBefore(LocalDateTime cutoffDate);
     Optional<Bill> findByOrderId(Long orderId);
 
-    // Add this method to find all bills before a certain date
-    List<Bill> findByBillDateBefore(LocalDateTime cutoffDate);
+    /**
+     * The bill with its order, cashier and order items, everything a receipt prints, in one query.
+     */
+    @Query("SELECT b FROM Bill b JOIN FETCH b.order o JOIN FETCH o.user " +
+            "LEFT JOIN FETCH o.orderItems oi LEFT JOIN FETCH oi.item WHERE b.receiptId = :receiptId")
+    Optional<Bill> findReceiptByReceiptId(@Param("receiptId") String receiptId);
 
-    List<Bill> findByBillDateBetween(LocalDateTime start, LocalDateTime end);
-
-    @Query(value = "SELECT o.user_id, u.username AS handled_by, b.order_id, b.receipt_id, " +
-            "b.final_amount, b.bill_date AS date " +
-            "FROM bills b " +
-            "JOIN orders o ON b.order_id = o.id " +
-            "JOIN users u ON o.user_id = u.id " +
-            "ORDER BY b.bill_date DESC " +
-            "LIMIT 10",
-            nativeQuery = true)
-    List<Object[]> fetchRecentTransactions();
+    /**
+     * The next page-size bills dated before {@code cutoff}, in (bill_date, id) order after the
+     * given position. A range scan on idx_bills_date, however many bills were archived before.
+     */
+    @Query("SELECT b.id AS id, b.order.id AS orderId, b.billDate AS billDate FROM Bill b " +
+            "WHERE b.billDate < :cutoff " +
+            "AND (b.billDate > :afterDate OR (b.billDate = :afterDate AND b.id > :afterId)) " +
+            "ORDER BY b.billDate, b.id")
+    List<ArchivableBillProjection> findArchivable(@Param("cutoff") LocalDateTime cutoff,
+                                                  @Param("afterDate") LocalDateTime afterDate,
+                                                  @Param("afterId") long afterId,
+                                                  Pageable pageable);
 
-    @Query(value = "SELECT o.user_id, u.username AS handled_by, b.order_id, b.receipt_id, " +
-            "b.final_amount, b.bill_date AS date, b.payment_mode " +
-            "FROM bills b " +
-            "JOIN orders o ON b.order_id = o.id " +
-            "JOIN users u ON o.user_id = u.id " +
-            "ORDER BY b.bill_date DESC " +
-            "LIMIT :limit OFFSET :offset",
-            nativeQuery = true)
-    List<Object[]> fetchRecentTransactionsPaginated(@Param("limit") int limit, @Param("offset") int offset);
+    @Modifying
+    @Query(value = "DELETE FROM bills WHERE id IN (:ids)", nativeQuery = true)
+    int deleteByIds(@Param("ids") Collection<Long> ids);
 
-    @Query(value = "SELECT COUNT(*) FROM bills b " +
-            "JOIN orders o ON b.order_id = o.id " +
-            "JOIN users u ON o.user_id = u.id",
-            nativeQuery = true)
-    long countTotalTransactions();
+    List<Bill> findByBillDateBetween(LocalDateTime start, LocalDateTime end);
 
-    @Query(value = "SELECT o.user_id, u.username AS handled_by, b.order_id, b.receipt_id, " +
-            "b.final_amount, b.bill_date AS date, b.payment_mode " +
+    /**
+     * Hourly revenue for bills in {@code [from, to)}. The range predicate is on the raw
+     * column, so idx_bills_date limits the scan to the requested window.
+     */
+    @Query(value = "SELECT DATE_FORMAT(b.bill_date, '%Y-%m-%d %H:00:00') AS bucket, " +
+            "COUNT(*) AS orders, SUM(b.final_amount) AS revenue " +
             "FROM bills b " +
-            "JOIN orders o ON b.order_id = o.id " +
-            "JOIN users u ON o.user_id = u.id " +
-            "WHERE (:cashier IS NULL OR u.username = :cashier) " +
-            "AND (:minValue IS NULL OR b.final_amount >= :minValue) " +
-            "AND (:maxValue IS NULL OR b.final_amount <= :maxValue) " +
-            "AND (:startDate IS NULL OR b.bill_date >= :startDate) " +
-            "AND (:endDate IS NULL OR b.bill_date <= :endDate) " +
-            "AND (:paymentMode IS NULL OR b.payment_mode = :paymentMode) " +
-            "ORDER BY b.bill_date DESC " +
-            "LIMIT :limit OFFSET :offset",
+            "WHERE b.bill_date >= :from AND b.bill_date < :to " +
+            "GROUP BY bucket",
             nativeQuery = true)
-    List<Object[]> fetchRecentTransactionsWithFilters(
-            @Param("cashier") String cashier,
-            @Param("minValue") java.math.BigDecimal minValue,
-            @Param("maxValue") java.math.BigDecimal maxValue,
-            @Param("startDate") java.time.LocalDateTime startDate,
-            @Param("endDate") java.time.LocalDateTime endDate,
-            @Param("paymentMode") String paymentMode,
-            @Param("limit") int limit,
-            @Param("offset") int offset);
+    List<RevenueBucketProjection> getHourlyRevenue(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
 
-    @Query(value = "SELECT COUNT(*) FROM bills b " +
-            "JOIN orders o ON b.order_id = o.id " +
-            "JOIN users u ON o.user_id = u.id " +
-            "WHERE (:cashier IS NULL OR u.username = :cashier) " +
-            "AND (:minValue IS NULL OR b.final_amount >= :minValue) " +
-            "AND (:maxValue IS NULL OR b.final_amount <= :maxValue) " +
-            "AND (:startDate IS NULL OR b.bill_date >= :startDate) " +
-            "AND (:endDate IS NULL OR b.bill_date <= :endDate) " +
-            "AND (:paymentMode IS NULL OR b.payment_mode = :paymentMode)",
-            nativeQuery = true)
-    long countTotalTransactionsWithFilters(
-            @Param("cashier") String cashier,
-            @Param("minValue") java.math.BigDecimal minValue,
-            @Param("maxValue") java.math.BigDecimal maxValue,
-            @Param("startDate") java.time.LocalDateTime startDate,
-            @Param("endDate") java.time.LocalDateTime endDate,
-            @Param("paymentMode") String paymentMode);
+    /**
+     * Bill totals per payment mode and cashier for bills in {@code [from, to)}; a range scan on idx_bills_date.
+     */
+    @Query("SELECT b.paymentMode AS paymentMode, o.user.id AS userId, COUNT(b) AS billCount, SUM(b.finalAmount) AS revenue " +
+            "FROM Bill b JOIN b.order o " +
+            "WHERE b.billDate >= :from AND b.billDate < :to " +
+            "GROUP BY b.paymentMode, o.user.id")
+    List<CashierDayTotalsProjection> getTotalsByPaymentModeAndCashier(@Param("from") LocalDateTime from,
+                                                                      @Param("to") LocalDateTime to);
+
+    @Query("SELECT MIN(b.billDate) FROM Bill b")
+    Optional<LocalDateTime> findEarliestBillDate();
 
     @Query(value = "SELECT DISTINCT u.username FROM bills b " +
             "JOIN orders o ON b.order_id = o.id " +
@@ -0,0 +1,12 @@
+package com.crcafe.core.repository;
+
+import com.crcafe.core.model.PaymentMode;
+
+import java.math.BigDecimal;
+
+public interface CashierDayTotalsProjection {
+    PaymentMode getPaymentMode();
+    Long getUserId();
+    Long getBillCount();
+    BigDecimal getRevenue();
+}
@@ -0,0 +1,12 @@
+package com.crcafe.core.repository;
+
+import java.math.BigDecimal;
+
+public interface CashierPerformanceProjection {
+    Long getUserId();
+    String getUsername();
+    Long getOrders();
+    Long getBills();
+    BigDecimal getRevenue();
+    BigDecimal getDiscount();
+}
@@ -0,0 +1,28 @@
+package com.crcafe.core.repository;
+
+import com.crcafe.core.model.CatalogVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+/**
+ * Repository for the catalog_versions table.
+ */
+@Repository
+public interface CatalogVersionRepository extends JpaRepository<CatalogVersion, String> {
+
+    @Query("SELECT c.version FROM CatalogVersion c WHERE c.catalogName = :name")
+    Optional<Long> findVersion(@Param("name") String name);
+
+    /**
+     * Increments the catalog's version; the row stays locked until the caller's transaction ends,
+     * so concurrent changes to the catalog get consecutive versions in commit order.
+     */
+    @Modifying
+    @Query("UPDATE CatalogVersion c SET c.version = c.version + 1 WHERE c.catalogName = :name")
+    int increment(@Param("name") String name);
+}
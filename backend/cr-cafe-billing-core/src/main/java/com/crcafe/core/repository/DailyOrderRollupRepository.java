@@ -0,0 +1,51 @@
+package com.crcafe.core.repository;
+
+import com.crcafe.core.model.DailyOrderRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Repository for the daily_order_rollup table.
+ */
+@Repository
+public interface DailyOrderRollupRepository extends JpaRepository<DailyOrderRollup, Long> {
+
+    /**
+     * Adds {@code orderCount} orders to the row for their day and cashier, creating it if needed,
+     * in a single upsert statement.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO daily_order_rollup (order_date, user_id, order_count) " +
+            "VALUES (:orderDate, :userId, :orderCount) " +
+            "ON DUPLICATE KEY UPDATE order_count = order_count + VALUES(order_count)",
+            nativeQuery = true)
+    int addOrders(@Param("orderDate") LocalDate orderDate,
+                  @Param("userId") Long userId,
+                  @Param("orderCount") long orderCount);
+
+    @Query("SELECT COALESCE(SUM(r.orderCount), 0) FROM DailyOrderRollup r")
+    long getAllTimeOrderCount();
+
+    @Modifying
+    @Query("DELETE FROM DailyOrderRollup r WHERE r.orderDate >= :fromDate")
+    int deleteByOrderDateFrom(@Param("fromDate") LocalDate fromDate);
+
+    /**
+     * Recomputes rollup rows from the orders table for every order on or after the given time.
+     * Callers must delete the affected rows first.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO daily_order_rollup (order_date, user_id, order_count) " +
+            "SELECT DATE(o.order_date), o.user_id, COUNT(*) " +
+            "FROM orders o " +
+            "WHERE o.order_date >= :from " +
+            "GROUP BY DATE(o.order_date), o.user_id",
+            nativeQuery = true)
+    int insertFromOrders(@Param("from") LocalDateTime from);
+}
@@ -0,0 +1,97 @@
+package com.crcafe.core.repository;
+
+import com.crcafe.core.model.DailySalesRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repository for the daily_sales_rollup table.
+ */
+@Repository
+public interface DailySalesRollupRepository extends JpaRepository<DailySalesRollup, Long> {
+
+    /**
+     * Adds {@code billCount} bills with the given totals to the rollup row for their day,
+     * payment mode and cashier, creating the row if it does not exist yet. This is a single
+     * upsert statement, so concurrent bills for the same key never lose an update.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO daily_sales_rollup " +
+            "(sales_date, payment_mode, user_id, bill_count, gross_amount, discount_amount, net_amount) " +
+            "VALUES (:salesDate, :paymentMode, :userId, :billCount, :grossAmount, :discountAmount, :netAmount) " +
+            "ON DUPLICATE KEY UPDATE " +
+            "bill_count = bill_count + VALUES(bill_count), " +
+            "gross_amount = gross_amount + VALUES(gross_amount), " +
+            "discount_amount = discount_amount + VALUES(discount_amount), " +
+            "net_amount = net_amount + VALUES(net_amount)",
+            nativeQuery = true)
+    int addBills(@Param("salesDate") LocalDate salesDate,
+                 @Param("paymentMode") String paymentMode,
+                 @Param("userId") Long userId,
+                 @Param("billCount") long billCount,
+                 @Param("grossAmount") BigDecimal grossAmount,
+                 @Param("discountAmount") BigDecimal discountAmount,
+                 @Param("netAmount") BigDecimal netAmount);
+
+    @Query("SELECT COALESCE(SUM(r.billCount), 0) AS billCount, " +
+            "COALESCE(SUM(r.grossAmount), 0) AS grossAmount, " +
+            "COALESCE(SUM(r.discountAmount), 0) AS discountAmount, " +
+            "COALESCE(SUM(r.netAmount), 0) AS netAmount " +
+            "FROM DailySalesRollup r")
+    SalesTotalsProjection getAllTimeTotals();
+
+    @Query(value = "SELECT DATE_FORMAT(r.sales_date, '%Y-%m-%d') AS bucket, " +
+            "SUM(r.bill_count) AS orders, SUM(r.net_amount) AS revenue " +
+            "FROM daily_sales_rollup r " +
+            "WHERE r.sales_date >= :fromDate AND r.sales_date < :toDate " +
+            "GROUP BY bucket",
+            nativeQuery = true)
+    List<RevenueBucketProjection> getRevenueByDay(@Param("fromDate") LocalDate fromDate, @Param("toDate") LocalDate toDate);
+
+    /**
+     * Weekly revenue; buckets are keyed by the Monday that starts each ISO week.
+     */
+    @Query(value = "SELECT DATE_FORMAT(DATE_SUB(r.sales_date, INTERVAL WEEKDAY(r.sales_date) DAY), '%Y-%m-%d') AS bucket, " +
+            "SUM(r.bill_count) AS orders, SUM(r.net_amount) AS revenue " +
+            "FROM daily_sales_rollup r " +
+            "WHERE r.sales_date >= :fromDate AND r.sales_date < :toDate " +
+            "GROUP BY bucket",
+            nativeQuery = true)
+    List<RevenueBucketProjection> getRevenueByWeek(@Param("fromDate") LocalDate fromDate, @Param("toDate") LocalDate toDate);
+
+    @Query(value = "SELECT DATE_FORMAT(r.sales_date, '%Y-%m-01') AS bucket, " +
+            "SUM(r.bill_count) AS orders, SUM(r.net_amount) AS revenue " +
+            "FROM daily_sales_rollup r " +
+            "WHERE r.sales_date >= :fromDate AND r.sales_date < :toDate " +
+            "GROUP BY bucket",
+            nativeQuery = true)
+    List<RevenueBucketProjection> getRevenueByMonth(@Param("fromDate") LocalDate fromDate, @Param("toDate") LocalDate toDate);
+
+    @Modifying
+    @Query("DELETE FROM DailySalesRollup r WHERE r.salesDate >= :fromDate")
+    int deleteBySalesDateFrom(@Param("fromDate") LocalDate fromDate);
+
+    /**
+     * Recomputes rollup rows from the bills table for every bill on or after the given time.
+     * Callers must delete the affected rows first.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO daily_sales_rollup " +
+            "(sales_date, payment_mode, user_id, bill_count, gross_amount, discount_amount, net_amount) " +
+            "SELECT DATE(b.bill_date), b.payment_mode, o.user_id, COUNT(*), " +
+            "SUM(b.total_amount), SUM(COALESCE(b.discount, 0)), SUM(b.final_amount) " +
+            "FROM bills b " +
+            "JOIN orders o ON b.order_id = o.id " +
+            "WHERE b.bill_date >= :from " +
+            "GROUP BY DATE(b.bill_date), b.payment_mode, o.user_id",
+            nativeQuery = true)
+    int insertFromBills(@Param("from") LocalDateTime from);
+}
@@ -2,8 +2,28 @@ package com.crcafe.core.repository;
 
 import com.crcafe.core.model.FinancialSummary;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Optional;
+
 @Repository
 public interface FinancialSummaryRepository extends JpaRepository<FinancialSummary, Long> {
-}
\ No newline at end of file
+
+    /**
+     * Copies the given bills into financial_summary with one multi-row INSERT ... SELECT.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO financial_summary " +
+            "(archived_date, original_bill_date, total_amount, discount, final_amount, receipt_id) " +
+            "SELECT :archivedAt, b.bill_date, b.total_amount, b.discount, b.final_amount, b.receipt_id " +
+            "FROM bills b WHERE b.id IN (:billIds) ORDER BY b.bill_date, b.id", nativeQuery = true)
+    int insertFromBills(@Param("billIds") Collection<Long> billIds, @Param("archivedAt") LocalDateTime archivedAt);
+
+    @Query("SELECT MAX(f.originalBillDate) FROM FinancialSummary f")
+    Optional<LocalDateTime> findLatestOriginalBillDate();
+}
@@ -0,0 +1,71 @@
+package com.crcafe.core.repository;
+
+import com.crcafe.core.model.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Repository for the idempotency_keys table.
+ */
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    @Query("SELECT r FROM IdempotencyRecord r WHERE r.idempotencyKey = :key AND r.expiresAt > :now")
+    Optional<IdempotencyRecord> findUnexpired(@Param("key") String key, @Param("now") LocalDateTime now);
+
+    /**
+     * Claims the key with a PENDING row unless a row for it exists; a plain insert, so no row is
+     * read or locked first.
+     * @return 1 if this call claimed the key, 0 if it is already claimed or completed.
+     */
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO idempotency_keys " +
+            "(idempotency_key, request_hash, status, created_at, expires_at) " +
+            "VALUES (:key, :requestHash, 'PENDING', :createdAt, :expiresAt)",
+            nativeQuery = true)
+    int claim(@Param("key") String key,
+              @Param("requestHash") String requestHash,
+              @Param("createdAt") LocalDateTime createdAt,
+              @Param("expiresAt") LocalDateTime expiresAt);
+
+    /**
+     * Stores the response on the claim made at {@code claimedAt}.
+     * @return 0 if that claim no longer exists (it expired and the key was claimed again).
+     */
+    @Modifying
+    @Query(value = "UPDATE idempotency_keys SET status = 'COMPLETED', status_code = :statusCode, " +
+            "response_body = :responseBody, expires_at = :expiresAt " +
+            "WHERE idempotency_key = :key AND status = 'PENDING' AND created_at = :claimedAt",
+            nativeQuery = true)
+    int complete(@Param("key") String key,
+                 @Param("claimedAt") LocalDateTime claimedAt,
+                 @Param("statusCode") int statusCode,
+                 @Param("responseBody") String responseBody,
+                 @Param("expiresAt") LocalDateTime expiresAt);
+
+    /**
+     * Gives up the claim made at {@code claimedAt}, so the request can be retried with the same key.
+     */
+    @Modifying
+    @Query(value = "DELETE FROM idempotency_keys " +
+            "WHERE idempotency_key = :key AND status = 'PENDING' AND created_at = :claimedAt",
+            nativeQuery = true)
+    int release(@Param("key") String key, @Param("claimedAt") LocalDateTime claimedAt);
+
+    /**
+     * Deletes the key's row if it has expired, so that it can be claimed again before the hourly sweep.
+     */
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.idempotencyKey = :key AND r.expiresAt <= :now")
+    int deleteIfExpired(@Param("key") String key, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.expiresAt <= :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
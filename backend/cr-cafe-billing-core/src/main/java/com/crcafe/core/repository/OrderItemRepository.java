@@ -1,13 +1,51 @@
 package com.crcafe.core.repository;
 
 import com.crcafe.core.model.OrderItem;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
     List<OrderItem> findByOrderOrderDateBetween(LocalDateTime start, LocalDateTime end);
-} 
\ No newline at end of file
+
+    /**
+     * The lines of one order with their item names, without loading order or item entities.
+     */
+    @Query("SELECT oi.id AS id, i.id AS itemId, i.name AS name, oi.quantity AS quantity, oi.price AS price " +
+            "FROM OrderItem oi JOIN oi.item i WHERE oi.order.id = :orderId ORDER BY oi.id")
+    List<OrderLineProjection> findLinesByOrderId(@Param("orderId") Long orderId);
+
+    /**
+     * All-time best sellers, aggregated in the database by item id.
+     * The page size of {@code pageable} is the number of items returned.
+     */
+    @Query("SELECT i.id AS itemId, i.name AS name, SUM(oi.quantity) AS quantity, SUM(oi.price * oi.quantity) AS revenue " +
+            "FROM OrderItem oi JOIN oi.item i " +
+            "GROUP BY i.id, i.name " +
+            "ORDER BY SUM(oi.quantity) DESC")
+    List<TopItemProjection> findTopSellingItems(Pageable pageable);
+
+    /**
+     * Best sellers for orders placed in {@code [from, to)}.
+     */
+    @Query("SELECT i.id AS itemId, i.name AS name, SUM(oi.quantity) AS quantity, SUM(oi.price * oi.quantity) AS revenue " +
+            "FROM OrderItem oi JOIN oi.item i JOIN oi.order o " +
+            "WHERE o.orderDate >= :from AND o.orderDate < :to " +
+            "GROUP BY i.id, i.name " +
+            "ORDER BY SUM(oi.quantity) DESC")
+    List<TopItemProjection> findTopSellingItemsBetween(@Param("from") LocalDateTime from,
+                                                       @Param("to") LocalDateTime to,
+                                                       Pageable pageable);
+
+    @Modifying
+    @Query(value = "DELETE FROM order_items WHERE order_id IN (:orderIds)", nativeQuery = true)
+    int deleteByOrderIds(@Param("orderIds") Collection<Long> orderIds);
+}
@@ -0,0 +1,11 @@
+package com.crcafe.core.repository;
+
+import java.math.BigDecimal;
+
+public interface OrderLineProjection {
+    Long getId();
+    Long getItemId();
+    String getName();
+    Integer getQuantity();
+    BigDecimal getPrice();
+}
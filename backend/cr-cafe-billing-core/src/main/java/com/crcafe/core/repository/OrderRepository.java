@@ -1,12 +1,15 @@
 package com.crcafe.core.repository;
 
 import com.crcafe.core.model.Order;
+import com.crcafe.core.model.OrderStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -30,35 +33,56 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     @Query("SELECT u.username AS username, COUNT(o) AS orders FROM Order o JOIN o.user u WHERE o.orderDate >= :startDate AND o.orderDate <= :endDate GROUP BY u.username")
     List<UserOrderCountProjection> findUserOrderCounts(@Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate);
 
+    /**
+     * Per-cashier orders, bills, revenue and discount for orders placed in {@code [from, to)}.
+     * The bare range predicate on order_date lets MySQL range-scan idx_orders_date_user
+     * (order_date, user_id) instead of evaluating a function on every row.
+     */
     @Query("""
-        SELECT u.username AS username, COUNT(o.id) AS orders
-        FROM Order o
-        JOIN o.user u
-        WHERE DATE(o.orderDate) = CURRENT_DATE
-        GROUP BY u.username
-    """)
-    List<UserOrderCountProjection> getOrdersGroupedByUserForToday();
-
-    @Query("""
-        SELECT u.username AS username, COUNT(o.id) AS orders
+        SELECT u.id AS userId, u.username AS username, COUNT(o.id) AS orders, COUNT(b.id) AS bills,
+               COALESCE(SUM(b.finalAmount), 0) AS revenue, COALESCE(SUM(b.discount), 0) AS discount
         FROM Order o
         JOIN o.user u
-        WHERE FUNCTION('YEARWEEK', o.orderDate, 1) = FUNCTION('YEARWEEK', CURRENT_DATE, 1)
-        GROUP BY u.username
+        LEFT JOIN Bill b ON b.order = o
+        WHERE o.orderDate >= :from AND o.orderDate < :to
+        GROUP BY u.id, u.username
     """)
-    List<UserOrderCountProjection> getOrdersGroupedByUserForThisWeek();
+    List<CashierPerformanceProjection> getCashierPerformance(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
 
-    @Query("""
-        SELECT u.username AS username, COUNT(o.id) AS orders
-        FROM Order o
-        JOIN o.user u
-        WHERE MONTH(o.orderDate) = MONTH(CURRENT_DATE) AND YEAR(o.orderDate) = YEAR(CURRENT_DATE)
-        GROUP BY u.username
-    """)
-    List<UserOrderCountProjection> getOrdersGroupedByUserForThisMonth();
+    /**
+     * Order counts per cashier for orders in {@code [from, to)}; a range scan on idx_orders_date_user.
+     */
+    @Query("SELECT o.user.id AS userId, COUNT(o) AS orders FROM Order o " +
+            "WHERE o.orderDate >= :from AND o.orderDate < :to GROUP BY o.user.id")
+    List<UserOrderTotalProjection> countOrdersByUserBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
 
     Optional<Order> findById(Long id);
 
+    /**
+     * Moves the order from {@code expected} to {@code status} in one conditional update.
+     * @return 1 if this call made the transition, 0 if the order does not exist or is not in {@code expected}.
+     */
+    @Modifying
+    @Query("UPDATE Order o SET o.status = :status WHERE o.id = :id AND o.status = :expected")
+    int compareAndSetStatus(@Param("id") Long id, @Param("expected") OrderStatus expected, @Param("status") OrderStatus status);
+
+    /**
+     * Deletes orders whose items and bill have already been deleted (used by archiving).
+     */
+    @Modifying
+    @Query(value = "DELETE FROM orders WHERE id IN (:ids)", nativeQuery = true)
+    int deleteByIds(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT o.status FROM Order o WHERE o.id = :id")
+    Optional<OrderStatus> findStatusById(@Param("id") Long id);
+
+    /**
+     * Order counts per status for orders placed in {@code [from, to)}; answered from idx_orders_status_date.
+     */
+    @Query("SELECT o.status AS status, COUNT(o) AS orders FROM Order o " +
+            "WHERE o.orderDate >= :from AND o.orderDate < :to GROUP BY o.status")
+    List<OrderStatusCountProjection> countByStatusBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
     List<Order> findAllByOrderByOrderDateDesc();
 
     // Query to count orders for a specific user on a specific day
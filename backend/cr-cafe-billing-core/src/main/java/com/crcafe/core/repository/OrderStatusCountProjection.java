@@ -0,0 +1,8 @@
+package com.crcafe.core.repository;
+
+import com.crcafe.core.model.OrderStatus;
+
+public interface OrderStatusCountProjection {
+    OrderStatus getStatus();
+    Long getOrders();
+}
@@ -0,0 +1,51 @@
+package com.crcafe.core.repository;
+
+import com.crcafe.core.model.OutboxEvent;
+import com.crcafe.core.model.OutboxStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository for the outbox_events table.
+ */
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    /**
+     * Locks up to {@code limit} deliverable events, oldest first. Rows locked by another
+     * dispatcher are skipped rather than waited for.
+     */
+    @Query(value = "SELECT * FROM outbox_events WHERE status = 'PENDING' AND available_at <= :now " +
+            "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<OutboxEvent> lockDeliverable(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    /**
+     * Hides the given events from other dispatchers until {@code until}.
+     */
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.availableAt = :until WHERE e.id IN :ids")
+    int lease(@Param("ids") Collection<Long> ids, @Param("until") LocalDateTime until);
+
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.status = com.crcafe.core.model.OutboxStatus.PROCESSED, " +
+            "e.processedAt = :at, e.attempts = e.attempts + 1 WHERE e.id IN :ids")
+    int markProcessed(@Param("ids") Collection<Long> ids, @Param("at") LocalDateTime at);
+
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.status = :status, e.attempts = e.attempts + 1, " +
+            "e.availableAt = :retryAt, e.lastError = :error WHERE e.id = :id")
+    int markFailed(@Param("id") Long id, @Param("status") OutboxStatus status,
+                   @Param("retryAt") LocalDateTime retryAt, @Param("error") String error);
+
+    @Modifying
+    @Query("DELETE FROM OutboxEvent e WHERE e.status = com.crcafe.core.model.OutboxStatus.PROCESSED " +
+            "AND e.processedAt < :before")
+    int deleteProcessedBefore(@Param("before") LocalDateTime before);
+}
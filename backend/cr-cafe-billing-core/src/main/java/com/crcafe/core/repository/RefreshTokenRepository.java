@@ -0,0 +1,46 @@
+package com.crcafe.core.repository;
+
+import com.crcafe.core.model.RefreshToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Repository for the refresh_tokens table.
+ */
+@Repository
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, String> {
+
+    /**
+     * Inserts a new token with a plain insert; {@code save} would first look the assigned id up.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO refresh_tokens (token_hash, session_id, user_id, device, created_at, expires_at) " +
+            "VALUES (:tokenHash, :sessionId, :userId, :device, :createdAt, :expiresAt)",
+            nativeQuery = true)
+    void insert(@Param("tokenHash") String tokenHash,
+                @Param("sessionId") String sessionId,
+                @Param("userId") Long userId,
+                @Param("device") String device,
+                @Param("createdAt") LocalDateTime createdAt,
+                @Param("expiresAt") LocalDateTime expiresAt);
+
+    /**
+     * Revokes one token unless it is already revoked; returns 0 if another request got there first.
+     */
+    @Modifying
+    @Query("UPDATE RefreshToken r SET r.revokedAt = :now WHERE r.tokenHash = :tokenHash AND r.revokedAt IS NULL")
+    int revoke(@Param("tokenHash") String tokenHash, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE RefreshToken r SET r.revokedAt = :now WHERE r.sessionId = :sessionId AND r.revokedAt IS NULL")
+    int revokeSession(@Param("sessionId") String sessionId, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("DELETE FROM RefreshToken r WHERE r.expiresAt <= :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
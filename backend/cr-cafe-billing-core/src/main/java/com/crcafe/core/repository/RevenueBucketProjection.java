@@ -0,0 +1,9 @@
+package com.crcafe.core.repository;
+
+import java.math.BigDecimal;
+
+public interface RevenueBucketProjection {
+    String getBucket();
+    Long getOrders();
+    BigDecimal getRevenue();
+}
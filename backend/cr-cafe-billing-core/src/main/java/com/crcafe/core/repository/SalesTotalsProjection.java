@@ -0,0 +1,10 @@
+package com.crcafe.core.repository;
+
+import java.math.BigDecimal;
+
+public interface SalesTotalsProjection {
+    Long getBillCount();
+    BigDecimal getGrossAmount();
+    BigDecimal getDiscountAmount();
+    BigDecimal getNetAmount();
+}
@@ -0,0 +1,10 @@
+package com.crcafe.core.repository;
+
+import java.math.BigDecimal;
+
+public interface TopItemProjection {
+    Long getItemId();
+    String getName();
+    Long getQuantity();
+    BigDecimal getRevenue();
+}
@@ -0,0 +1,27 @@
+package com.crcafe.core.repository;
+
+import com.crcafe.core.dto.TransactionCursor;
+import com.crcafe.core.dto.TransactionFilter;
+import com.crcafe.core.dto.TransactionRow;
+
+import java.util.List;
+
+/**
+ * Transaction search built per request, so that only the filters actually supplied end up
+ * in the SQL and MySQL can pick idx_bills_date or the user index for each combination.
+ */
+public interface TransactionSearchRepository {
+
+    /**
+     * Rows adjacent to {@code cursor} (or the newest rows when the cursor is null).
+     * Reading older returns newest-first; reading newer returns oldest-first.
+     */
+    List<TransactionRow> findTransactions(TransactionFilter filter, TransactionCursor cursor, boolean newer, int limit);
+
+    /**
+     * Offset-based page, newest first. Kept for clients that still page by number.
+     */
+    List<TransactionRow> findTransactionsByOffset(TransactionFilter filter, int offset, int limit);
+
+    long countTransactions(TransactionFilter filter);
+}
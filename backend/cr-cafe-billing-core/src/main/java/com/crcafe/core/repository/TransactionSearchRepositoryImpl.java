@@ -0,0 +1,128 @@
+package com.crcafe.core.repository;
+
+import com.crcafe.core.dto.TransactionCursor;
+import com.crcafe.core.dto.TransactionFilter;
+import com.crcafe.core.dto.TransactionRow;
+import com.crcafe.core.model.Bill;
+import com.crcafe.core.model.Order;
+import com.crcafe.core.model.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Criteria-based implementation of {@link TransactionSearchRepository}, picked up by
+ * Spring Data as a fragment of {@link BillRepository}.
+ */
+class TransactionSearchRepositoryImpl implements TransactionSearchRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<TransactionRow> findTransactions(TransactionFilter filter, TransactionCursor cursor, boolean newer, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<TransactionRow> query = cb.createQuery(TransactionRow.class);
+        Root<Bill> bill = query.from(Bill.class);
+        Join<Bill, Order> order = bill.join("order");
+        Join<Order, User> user = order.join("user");
+
+        List<Predicate> predicates = filterPredicates(cb, bill, user, filter);
+        Path<LocalDateTime> billDate = bill.get("billDate");
+        Path<Long> billId = bill.get("id");
+        if (cursor != null) {
+            if (newer) {
+                predicates.add(cb.greaterThanOrEqualTo(billDate, cursor.billDate()));
+                predicates.add(cb.or(
+                        cb.greaterThan(billDate, cursor.billDate()),
+                        cb.greaterThan(billId, cursor.billId())));
+            } else {
+                predicates.add(cb.lessThanOrEqualTo(billDate, cursor.billDate()));
+                predicates.add(cb.or(
+                        cb.lessThan(billDate, cursor.billDate()),
+                        cb.lessThan(billId, cursor.billId())));
+            }
+        }
+
+        query.select(rowSelection(cb, bill, order, user))
+                .where(predicates.toArray(new Predicate[0]))
+                .orderBy(newer
+                        ? List.of(cb.asc(billDate), cb.asc(billId))
+                        : List.of(cb.desc(billDate), cb.desc(billId)));
+        return entityManager.createQuery(query).setMaxResults(limit).getResultList();
+    }
+
+    @Override
+    public List<TransactionRow> findTransactionsByOffset(TransactionFilter filter, int offset, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<TransactionRow> query = cb.createQuery(TransactionRow.class);
+        Root<Bill> bill = query.from(Bill.class);
+        Join<Bill, Order> order = bill.join("order");
+        Join<Order, User> user = order.join("user");
+
+        query.select(rowSelection(cb, bill, order, user))
+                .where(filterPredicates(cb, bill, user, filter).toArray(new Predicate[0]))
+                .orderBy(cb.desc(bill.get("billDate")), cb.desc(bill.get("id")));
+        return entityManager.createQuery(query)
+                .setFirstResult(offset)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public long countTransactions(TransactionFilter filter) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Bill> bill = query.from(Bill.class);
+        // bills.order_id and orders.user_id are NOT NULL foreign keys, so the joins are
+        // only needed when filtering by cashier.
+        Join<Order, User> user = filter.cashier() != null
+                ? bill.<Bill, Order>join("order").join("user")
+                : null;
+
+        query.select(cb.count(bill))
+                .where(filterPredicates(cb, bill, user, filter).toArray(new Predicate[0]));
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    private static CompoundSelection<TransactionRow> rowSelection(CriteriaBuilder cb, Root<Bill> bill,
+                                                                  Join<Bill, Order> order, Join<Order, User> user) {
+        return cb.construct(TransactionRow.class,
+                user.get("id"),
+                user.get("username"),
+                order.get("id"),
+                bill.get("receiptId"),
+                bill.get("finalAmount"),
+                bill.get("billDate"),
+                bill.get("paymentMode"),
+                bill.get("id"));
+    }
+
+    private static List<Predicate> filterPredicates(CriteriaBuilder cb, Root<Bill> bill, Join<Order, User> user,
+                                                    TransactionFilter filter) {
+        List<Predicate> predicates = new ArrayList<>();
+        if (filter.cashier() != null) {
+            predicates.add(cb.equal(user.get("username"), filter.cashier()));
+        }
+        if (filter.minValue() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(bill.get("finalAmount"), filter.minValue()));
+        }
+        if (filter.maxValue() != null) {
+            predicates.add(cb.lessThanOrEqualTo(bill.get("finalAmount"), filter.maxValue()));
+        }
+        if (filter.startDate() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(bill.get("billDate"), filter.startDate()));
+        }
+        if (filter.endDate() != null) {
+            predicates.add(cb.lessThanOrEqualTo(bill.get("billDate"), filter.endDate()));
+        }
+        if (filter.paymentMode() != null) {
+            predicates.add(cb.equal(bill.get("paymentMode"), filter.paymentMode()));
+        }
+        return predicates;
+    }
+}
@@ -0,0 +1,6 @@
+package com.crcafe.core.repository;
+
+public interface UserOrderTotalProjection {
+    Long getUserId();
+    Long getOrders();
+}
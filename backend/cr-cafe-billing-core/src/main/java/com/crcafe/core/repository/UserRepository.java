@@ -1,10 +1,16 @@
 package com.crcafe.core.repository;
 
 import com.crcafe.core.model.User;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.QueryHint;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repository interface for User entities.
@@ -23,4 +29,21 @@ public interface UserRepository extends JpaRepository<User, Long> {
      */
     Optional<User> findByUsername(String username);
 
+    @Query("SELECT u.id AS id, u.username AS username, u.role AS role, u.profileImageUrl AS profileImageUrl " +
+            "FROM User u WHERE u.id = :id")
+    Optional<UserSummaryProjection> findSummaryById(@Param("id") Long id);
+
+    @Query("SELECT u.id AS id, u.username AS username, u.role AS role, u.profileImageUrl AS profileImageUrl " +
+            "FROM User u WHERE u.username = :username")
+    Optional<UserSummaryProjection> findSummaryByUsername(@Param("username") String username);
+
+    /**
+     * Every user without the password hash, ordered by id. MySQL streams the rows one by one
+     * (fetch size MIN_VALUE); the stream must be consumed and closed inside a transaction.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE))
+    @Query("SELECT u.id AS id, u.username AS username, u.role AS role, u.profileImageUrl AS profileImageUrl " +
+            "FROM User u ORDER BY u.id")
+    Stream<UserSummaryProjection> streamSummaries();
+
 }
\ No newline at end of file
@@ -0,0 +1,10 @@
+package com.crcafe.core.repository;
+
+import com.crcafe.core.model.UserRole;
+
+public interface UserSummaryProjection {
+    Long getId();
+    String getUsername();
+    UserRole getRole();
+    String getProfileImageUrl();
+}
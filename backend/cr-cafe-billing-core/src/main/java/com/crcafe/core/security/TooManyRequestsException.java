@@ -0,0 +1,21 @@
+package com.crcafe.core.security;
+
+import java.time.Duration;
+
+/**
+ * Thrown when a request is turned away to protect the server or an account; answered with
+ * 429 and a Retry-After of {@code retryAfter}.
+ */
+public class TooManyRequestsException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public TooManyRequestsException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -0,0 +1,68 @@
+package com.crcafe.core.security;
+
+import com.crcafe.core.model.UserRole;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * The authenticated caller of a request. It carries the user's id and role, so code handling
+ * the request never has to look the user up again to find out who they are. It holds no password.
+ */
+public final class UserPrincipal implements UserDetails {
+
+    private final Long userId;
+    private final String username;
+    private final UserRole role;
+    private final List<GrantedAuthority> authorities;
+
+    public UserPrincipal(Long userId, String username, UserRole role) {
+        this.userId = Objects.requireNonNull(userId);
+        this.username = Objects.requireNonNull(username);
+        this.role = Objects.requireNonNull(role);
+        this.authorities = List.of(new SimpleGrantedAuthority("ROLE_" + role.name()));
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public UserRole getRole() {
+        return role;
+    }
+
+    @Override
+    public String getUsername() {
+        return username;
+    }
+
+    @Override
+    public String getPassword() {
+        return null;
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof UserPrincipal other
+                && userId.equals(other.userId) && username.equals(other.username) && role == other.role;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(userId, username, role);
+    }
+
+    @Override
+    public String toString() {
+        return "UserPrincipal[userId=" + userId + ", username=" + username + ", role=" + role + "]";
+    }
+}
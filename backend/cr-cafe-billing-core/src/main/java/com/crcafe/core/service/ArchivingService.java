@@ -1,66 +1,228 @@
 package com.crcafe.core.service;
 
-import com.crcafe.core.model.Bill;
-import com.crcafe.core.model.FinancialSummary;
+import com.crcafe.core.model.ArchiveCheckpoint;
+import com.crcafe.core.repository.ArchivableBillProjection;
+import com.crcafe.core.repository.ArchiveCheckpointRepository;
 import com.crcafe.core.repository.BillRepository;
 import com.crcafe.core.repository.FinancialSummaryRepository;
+import com.crcafe.core.repository.OrderItemRepository;
+import com.crcafe.core.repository.OrderRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.UUID;
 
+/**
+ * Moves bills older than {@code archive.retention-days} into financial_summary and deletes them
+ * together with their orders and order items.
+ * <p>
+ * Bills are taken in (bill_date, id) order, {@code archive.chunk-size} at a time, and each chunk
+ * is archived in its own short transaction: one INSERT ... SELECT into financial_summary and one
+ * {@code DELETE ... WHERE ... IN (...)} per table. The same transaction records the last archived
+ * bill in archive_checkpoints, so a run stopped by a crash or restart resumes after it, with the
+ * cutoff it started with. Chunks are paced to at most {@code archive.max-rows-per-second} bills,
+ * and only the instance holding the job's lease runs it: every checkpoint update is conditional on
+ * {@code lease_owner}, so an instance whose lease expired and was taken over rolls back its chunk
+ * and stops.
+ */
 @Service
 public class ArchivingService {
 
+    private static final Logger log = LoggerFactory.getLogger(ArchivingService.class);
+
+    private static final String JOB = "bills";
+    // Start of the keyset scan; earlier than any bill.
+    private static final LocalDateTime SCAN_START = LocalDateTime.of(1970, 1, 1, 0, 0);
+
     private final BillRepository billRepository;
+    private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
     private final FinancialSummaryRepository financialSummaryRepository;
+    private final ArchiveCheckpointRepository checkpointRepository;
+    private final DashboardCache dashboardCache;
+    private final TransactionTemplate transactionTemplate;
+    private final int retentionDays;
+    private final int chunkSize;
+    private final int maxRowsPerSecond;
+    private final Duration lease;
+    // Identifies this instance as the lease owner ("pid@host/random").
+    private final String owner = ManagementFactory.getRuntimeMXBean().getName() + "/" + UUID.randomUUID();
+    private final Counter archived;
 
-    public ArchivingService(BillRepository billRepository, FinancialSummaryRepository financialSummaryRepository) {
+    public ArchivingService(BillRepository billRepository,
+                            OrderRepository orderRepository,
+                            OrderItemRepository orderItemRepository,
+                            FinancialSummaryRepository financialSummaryRepository,
+                            ArchiveCheckpointRepository checkpointRepository,
+                            DashboardCache dashboardCache,
+                            PlatformTransactionManager transactionManager,
+                            MeterRegistry meterRegistry,
+                            @Value("${archive.retention-days:30}") int retentionDays,
+                            @Value("${archive.chunk-size:500}") int chunkSize,
+                            @Value("${archive.max-rows-per-second:1000}") int maxRowsPerSecond,
+                            @Value("${archive.lease-minutes:10}") long leaseMinutes) {
         this.billRepository = billRepository;
+        this.orderRepository = orderRepository;
+        this.orderItemRepository = orderItemRepository;
         this.financialSummaryRepository = financialSummaryRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.dashboardCache = dashboardCache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.retentionDays = retentionDays;
+        this.chunkSize = chunkSize;
+        this.maxRowsPerSecond = maxRowsPerSecond;
+        this.lease = Duration.ofMinutes(leaseMinutes);
+        this.archived = Counter.builder("archive.bills")
+                .description("Bills moved to financial_summary and deleted")
+                .register(meterRegistry);
     }
 
     /**
      * This method is scheduled to run automatically.
-     * The cron expression "0 0 2 * * *" means it will run at 2:00 AM every day.
+     * The default cron expression "0 0 2 * * *" means it will run at 2:00 AM every day.
      */
-    @Scheduled(cron = "0 0 2 * * *")
-    @Transactional
+    @Scheduled(cron = "${archive.cron:0 0 2 * * *}")
     public void archiveAndCleanupOldBills() {
-        System.out.println("--- Starting nightly archiving and cleanup task ---");
+        LocalDateTime now = LocalDateTime.now();
+        Integer claimed = transactionTemplate.execute(status -> checkpointRepository.claim(JOB, owner, now, now.plus(lease)));
+        if (claimed == null || claimed == 0) {
+            log.info("Bill archiving is already running on another instance");
+            return;
+        }
+        try {
+            archive();
+        } catch (LeaseLostException e) {
+            log.warn("Bill archiving stopped: {}", e.getMessage());
+        } finally {
+            transactionTemplate.executeWithoutResult(status -> checkpointRepository.release(JOB, owner));
+        }
+    }
 
-        // Calculate the cutoff date (30 days ago)
-        LocalDateTime cutoffDate = LocalDateTime.now().minusDays(30);
+    private void archive() {
+        ArchiveCheckpoint checkpoint = checkpointRepository.findById(JOB)
+                .orElseThrow(() -> new IllegalStateException("archive_checkpoints has no row for job " + JOB));
 
-        // Find all bills older than the cutoff date
-        List<Bill> billsToArchive = billRepository.findByBillDateBefore(cutoffDate);
+        LocalDateTime cutoff;
+        LocalDateTime afterDate;
+        long afterId;
+        if (checkpoint.getRunCutoff() != null) {
+            cutoff = checkpoint.getRunCutoff();
+            afterDate = checkpoint.getLastBillDate() != null ? checkpoint.getLastBillDate() : SCAN_START;
+            afterId = checkpoint.getLastBillId() != null ? checkpoint.getLastBillId() : 0;
+            log.info("Resuming bill archiving before {} after bill {} ({} bills already archived)",
+                    cutoff, afterId, checkpoint.getRowsArchived());
+        } else {
+            cutoff = LocalDateTime.now().minusDays(retentionDays);
+            afterDate = SCAN_START;
+            afterId = 0;
+            transactionTemplate.executeWithoutResult(status ->
+                    requireLease(checkpointRepository.startRun(JOB, owner, cutoff, LocalDateTime.now())));
+            log.info("Archiving bills dated before {}", cutoff);
+        }
 
-        if (billsToArchive.isEmpty()) {
-            System.out.println("No bills older than 30 days found to archive.");
-            return;
+        long startedAt = System.nanoTime();
+        long total = 0;
+        while (true) {
+            Chunk chunk = archiveChunk(cutoff, afterDate, afterId);
+            if (chunk.bills() == 0) {
+                break;
+            }
+            total += chunk.bills();
+            archived.increment(chunk.bills());
+            afterDate = chunk.lastBillDate();
+            afterId = chunk.lastBillId();
+            if (chunk.bills() < chunkSize) {
+                break;
+            }
+            if (!pace(startedAt, total)) {
+                log.info("Bill archiving interrupted after {} bills; the next run resumes after bill {}", total, afterId);
+                return;
+            }
         }
 
-        System.out.println("Found " + billsToArchive.size() + " bills to archive and delete.");
+        transactionTemplate.executeWithoutResult(status ->
+                requireLease(checkpointRepository.finishRun(JOB, owner, LocalDateTime.now())));
+        if (total > 0) {
+            // Dashboard figures read from bills may have changed.
+            dashboardCache.invalidateAll();
+        }
+        log.info("Archived {} bills in {} s", total, Duration.ofNanos(System.nanoTime() - startedAt).toSeconds());
+    }
 
-        for (Bill bill : billsToArchive) {
-            // 1. Create a financial summary record
-            FinancialSummary summary = new FinancialSummary();
-            summary.setArchivedDate(LocalDateTime.now());
-            summary.setOriginalBillDate(bill.getBillDate());
-            summary.setTotalAmount(bill.getTotalAmount());
-            summary.setDiscount(bill.getDiscount());
-            summary.setFinalAmount(bill.getFinalAmount());
-            summary.setReceiptId(bill.getReceiptId());
+    /**
+     * Archives the next chunk after ({@code afterDate}, {@code afterId}) in one transaction,
+     * including the checkpoint update.
+     */
+    private Chunk archiveChunk(LocalDateTime cutoff, LocalDateTime afterDate, long afterId) {
+        return transactionTemplate.execute(status -> {
+            List<ArchivableBillProjection> bills = billRepository.findArchivable(
+                    cutoff, afterDate, afterId, PageRequest.of(0, chunkSize));
+            if (bills.isEmpty()) {
+                return new Chunk(0, afterDate, afterId);
+            }
+            List<Long> billIds = bills.stream().map(ArchivableBillProjection::getId).toList();
+            List<Long> orderIds = bills.stream().map(ArchivableBillProjection::getOrderId).toList();
+            LocalDateTime now = LocalDateTime.now();
 
-            financialSummaryRepository.save(summary);
+            financialSummaryRepository.insertFromBills(billIds, now);
+            // Children first: bills and order items reference orders.
+            orderItemRepository.deleteByOrderIds(orderIds);
+            billRepository.deleteByIds(billIds);
+            orderRepository.deleteByIds(orderIds);
 
-            // 2. Delete the old bill. The associated order and order items will also be
-            //    deleted because of the cascade settings in our Order entity.
-            billRepository.delete(bill);
+            ArchivableBillProjection last = bills.get(bills.size() - 1);
+            // Throwing rolls the chunk back if another instance has taken the lease over meanwhile.
+            requireLease(checkpointRepository.advance(JOB, owner, last.getBillDate(), last.getId(),
+                    bills.size(), now, now.plus(lease)));
+            return new Chunk(bills.size(), last.getBillDate(), last.getId());
+        });
+    }
+
+    /**
+     * Sleeps until {@code total} bills are within the rate ceiling. False if interrupted.
+     */
+    private boolean pace(long startedAt, long total) {
+        if (maxRowsPerSecond <= 0) {
+            return true;
+        }
+        long dueNanos = total * 1_000_000_000L / maxRowsPerSecond;
+        long aheadNanos = dueNanos - (System.nanoTime() - startedAt);
+        if (aheadNanos <= 0) {
+            return true;
+        }
+        try {
+            Thread.sleep(Duration.ofNanos(aheadNanos).toMillis());
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void requireLease(int updated) {
+        if (updated == 0) {
+            throw new LeaseLostException("lease on job " + JOB + " is no longer held by " + owner);
+        }
+    }
+
+    private static class LeaseLostException extends IllegalStateException {
+        LeaseLostException(String message) {
+            super(message);
         }
+    }
 
-        System.out.println("--- Finished archiving and cleanup task. ---");
+    private record Chunk(int bills, LocalDateTime lastBillDate, long lastBillId) {
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,284 @@
+package com.crcafe.core.service;
+
+import com.crcafe.core.dto.DashboardSummaryDto;
+import com.crcafe.core.dto.RevenueBucket;
+import com.crcafe.core.dto.RevenueGranularity;
+import com.crcafe.core.dto.TransactionRow;
+import com.crcafe.core.event.BillGeneratedEvent;
+import com.crcafe.core.event.ItemChangedEvent;
+import com.crcafe.core.event.OrderCreatedEvent;
+import com.crcafe.core.event.UserChangedEvent;
+import com.crcafe.core.model.CatalogVersion;
+import com.crcafe.core.repository.CatalogVersionRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Bounded, expiring caches for dashboard answers, keyed by method and parameters, plus a
+ * data version that the controller turns into an HTTP ETag.
+ * <p>
+ * Committed orders and bills evict only the entries they can affect (a bill only evicts revenue
+ * windows containing its timestamp, for example); item and user changes evict everything, since
+ * names appear in most answers. Unchanged polls can then be answered with 304 without
+ * recomputing anything. Hit and miss counts are published as the {@code cache.gets} meter,
+ * tagged with the cache name.
+ * <p>
+ * The version is the dashboard row in catalog_versions, shared by all instances. A local change
+ * marks it dirty, and it is incremented at most every {@code dashboard.version.flush-ms}, or right
+ * away when this instance next hands out a version. Doing it outside the checkout transaction
+ * keeps checkouts from queueing on the row. The row is re-read at most every
+ * {@code dashboard.version.poll-ms}, also when nobody is polling the dashboard. When another
+ * instance has moved it on, this instance's entries and {@link TodayMetrics} may be missing that
+ * change, so the entries are all dropped and today's counters are reloaded from the database
+ * before the new version is handed out. Instances that answer with the same version therefore
+ * answer with the same figures.
+ */
+@Component
+public class DashboardCache {
+
+    private static final String SINGLE_KEY = "all";
+
+    private final CatalogVersionRepository catalogVersionRepository;
+    private final TodayMetrics todayMetrics;
+    private final TransactionTemplate transactionTemplate;
+    private final long pollNanos;
+    // Set by local changes that other instances have not been told about yet.
+    private final AtomicBoolean dirty = new AtomicBoolean();
+    // Last version read or written by this instance, and when it was read (guarded by this).
+    private long version = -1;
+    private long versionReadAt;
+    private final Cache<String, DashboardSummaryDto> summary;
+    private final Cache<TopItemsKey, List<Map<String, Object>>> topItems;
+    private final Cache<RevenueKey, List<RevenueBucket>> revenue;
+    private final Cache<String, List<TransactionRow>> recentTransactions;
+    private final Cache<String, List<String>> cashiers;
+    private final Cache<PerformanceKey, List<Map<String, Object>>> usersPerformance;
+
+    public DashboardCache(MeterRegistry meterRegistry,
+                          CatalogVersionRepository catalogVersionRepository,
+                          TodayMetrics todayMetrics,
+                          PlatformTransactionManager transactionManager,
+                          @Value("${dashboard.cache.max-entries:500}") long maxEntries,
+                          @Value("${dashboard.cache.ttl-seconds:60}") long ttlSeconds,
+                          @Value("${dashboard.version.poll-ms:1000}") long pollMs) {
+        this.catalogVersionRepository = catalogVersionRepository;
+        this.todayMetrics = todayMetrics;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.pollNanos = TimeUnit.MILLISECONDS.toNanos(pollMs);
+        Duration ttl = Duration.ofSeconds(ttlSeconds);
+        this.summary = monitor(meterRegistry, "dashboard.summary", build(1, ttl));
+        this.topItems = monitor(meterRegistry, "dashboard.top-items", build(maxEntries, ttl));
+        this.revenue = monitor(meterRegistry, "dashboard.revenue", build(maxEntries, ttl));
+        this.recentTransactions = monitor(meterRegistry, "dashboard.recent-transactions", build(1, ttl));
+        this.cashiers = monitor(meterRegistry, "dashboard.cashiers", build(1, ttl));
+        this.usersPerformance = monitor(meterRegistry, "dashboard.users-performance", build(maxEntries, ttl));
+    }
+
+    /**
+     * Changes whenever committed data shown on the dashboard has changed, on any instance
+     * (within {@code dashboard.version.poll-ms} for other instances' changes).
+     */
+    public long getVersion() {
+        if (dirty.get()) {
+            flushVersion();
+        }
+        synchronized (this) {
+            if (version < 0 || System.nanoTime() - versionReadAt >= pollNanos) {
+                long shared = readVersion();
+                if (version >= 0 && shared != version) {
+                    catchUp();
+                }
+                version = shared;
+                versionReadAt = System.nanoTime();
+            }
+            return version;
+        }
+    }
+
+    /**
+     * Picks up other instances' changes even while nobody polls the dashboard, since today's
+     * counters are also read elsewhere (e.g. a cashier's own order count).
+     */
+    @Scheduled(fixedDelayString = "${dashboard.version.poll-ms:1000}")
+    public void pollVersion() {
+        getVersion();
+    }
+
+    /**
+     * Tells other instances about local changes by incrementing the shared version.
+     */
+    @Scheduled(fixedDelayString = "${dashboard.version.flush-ms:1000}")
+    public void flushVersion() {
+        if (!dirty.getAndSet(false)) {
+            return;
+        }
+        try {
+            long shared = transactionTemplate.execute(status -> {
+                catalogVersionRepository.increment(CatalogVersion.DASHBOARD);
+                return readVersion();
+            });
+            synchronized (this) {
+                if (version >= 0 && shared - 1 != version) {
+                    // Another instance changed the data too, and its change may not be in our entries.
+                    catchUp();
+                }
+                version = shared;
+                versionReadAt = System.nanoTime();
+            }
+        } catch (RuntimeException e) {
+            dirty.set(true);
+            throw e;
+        }
+    }
+
+    public DashboardSummaryDto summary(Supplier<DashboardSummaryDto> loader) {
+        return summary.get(SINGLE_KEY, k -> loader.get());
+    }
+
+    /**
+     * Top items over {@code [from, to)}; a null bound is open.
+     */
+    public List<Map<String, Object>> topItems(LocalDateTime from, LocalDateTime to, int limit,
+                                              Supplier<List<Map<String, Object>>> loader) {
+        return topItems.get(new TopItemsKey(from, to, limit), k -> loader.get());
+    }
+
+    /**
+     * Revenue buckets over {@code [start, end)}, which must already be aligned to whole buckets
+     * so that a bill anywhere inside a reported bucket evicts the entry.
+     */
+    public List<RevenueBucket> revenue(RevenueGranularity granularity, LocalDateTime start, LocalDateTime end,
+                                       Supplier<List<RevenueBucket>> loader) {
+        return revenue.get(new RevenueKey(granularity, start, end), k -> loader.get());
+    }
+
+    public List<TransactionRow> recentTransactions(Supplier<List<TransactionRow>> loader) {
+        return recentTransactions.get(SINGLE_KEY, k -> loader.get());
+    }
+
+    public List<String> cashiers(Supplier<List<String>> loader) {
+        return cashiers.get(SINGLE_KEY, k -> loader.get());
+    }
+
+    /**
+     * Per-cashier performance for orders placed in {@code [from, to)}.
+     */
+    public List<Map<String, Object>> usersPerformance(LocalDateTime from, LocalDateTime to,
+                                                      Supplier<List<Map<String, Object>>> loader) {
+        return usersPerformance.get(new PerformanceKey(from, to), k -> loader.get());
+    }
+
+    /**
+     * Drops every entry, e.g. after the sales rollup has been rebuilt.
+     */
+    public void invalidateAll() {
+        clear();
+        dirty.set(true);
+    }
+
+    // Runs right after TodayMetrics has counted the change (so a reload cannot cache stale
+    // figures) and before the remaining AFTER_COMMIT listeners such as the SSE stream.
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    @Order(Ordered.HIGHEST_PRECEDENCE + 1)
+    public void onOrderCreated(OrderCreatedEvent event) {
+        LocalDateTime at = event.orderDate();
+        // The summary carries today's order count.
+        summary.invalidateAll();
+        topItems.asMap().keySet().removeIf(key -> key.contains(at));
+        usersPerformance.asMap().keySet().removeIf(key -> key.contains(at));
+        dirty.set(true);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    @Order(Ordered.HIGHEST_PRECEDENCE + 1)
+    public void onBillGenerated(BillGeneratedEvent event) {
+        LocalDateTime at = event.billDate();
+        summary.invalidateAll();
+        revenue.asMap().keySet().removeIf(key -> key.contains(at));
+        recentTransactions.invalidateAll();
+        cashiers.invalidateAll();
+        // Performance windows are keyed by order date, which the bill event does not carry.
+        usersPerformance.invalidateAll();
+        dirty.set(true);
+    }
+
+    // Renamed items and users appear under their old names in cached answers.
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onItemChanged(ItemChangedEvent event) {
+        invalidateAll();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        invalidateAll();
+    }
+
+    private void catchUp() {
+        todayMetrics.rebuild();
+        clear();
+    }
+
+    private void clear() {
+        summary.invalidateAll();
+        topItems.invalidateAll();
+        revenue.invalidateAll();
+        recentTransactions.invalidateAll();
+        cashiers.invalidateAll();
+        usersPerformance.invalidateAll();
+    }
+
+    private long readVersion() {
+        return catalogVersionRepository.findVersion(CatalogVersion.DASHBOARD)
+                .orElseThrow(() -> new IllegalStateException("catalog_versions has no row for " + CatalogVersion.DASHBOARD));
+    }
+
+    private static <K, V> Cache<K, V> build(long maxEntries, Duration ttl) {
+        return Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    private static <K, V> Cache<K, V> monitor(MeterRegistry registry, String name, Cache<K, V> cache) {
+        CaffeineCacheMetrics.monitor(registry, cache, name);
+        return cache;
+    }
+
+    private record TopItemsKey(LocalDateTime from, LocalDateTime to, int limit) {
+        boolean contains(LocalDateTime t) {
+            return (from == null || !t.isBefore(from)) && (to == null || t.isBefore(to));
+        }
+    }
+
+    private record PerformanceKey(LocalDateTime from, LocalDateTime to) {
+        boolean contains(LocalDateTime t) {
+            return !t.isBefore(from) && t.isBefore(to);
+        }
+    }
+
+    private record RevenueKey(RevenueGranularity granularity, LocalDateTime start, LocalDateTime end) {
+        boolean contains(LocalDateTime t) {
+            return !t.isBefore(start) && t.isBefore(end);
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package com.crcafe.core.service;
+
+import com.crcafe.core.dto.RevenueGranularity;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionTimedOutException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Computes several dashboard widgets for one request, concurrently.
+ * <p>
+ * Widgets run on a small bounded pool, so a burst of dashboard loads queues up instead of
+ * exhausting database connections. Each widget has its own timeout, counted from when the request
+ * submitted it: {@code dashboard.overview.timeout-ms}, or
+ * {@code dashboard.overview.widget-timeout-ms.<widget>} where set. A widget that has not finished
+ * in time is reported under {@code errors} as {@code "timeout"} while the other widgets are still
+ * returned, and a widget that fails or cannot be queued is reported the same way.
+ * <p>
+ * A timed-out widget's thread is interrupted, and each widget runs in a read-only transaction
+ * with the same timeout, which becomes the JDBC query timeout of its statements. That way a
+ * slow query is stopped by the database too and does not keep a pool thread busy.
+ */
+@Service
+public class DashboardOverviewService {
+
+    private static final Logger log = LoggerFactory.getLogger(DashboardOverviewService.class);
+
+    public static final List<String> WIDGETS = List.of(
+            "summary", "top-items", "trending-items", "revenue", "recent-transactions",
+            "users-performance", "todays-revenue-by-payment-mode", "cashiers");
+
+    private static final int DEFAULT_ITEM_LIMIT = 10;
+
+    private final DashboardService dashboardService;
+    private final Map<String, Long> timeoutMs = new HashMap<>();
+    private final Map<String, TransactionTemplate> transactions = new HashMap<>();
+    private final ThreadPoolExecutor executor;
+
+    public DashboardOverviewService(
+            DashboardService dashboardService,
+            PlatformTransactionManager transactionManager,
+            Environment environment,
+            @Value("${dashboard.overview.threads:4}") int threads,
+            @Value("${dashboard.overview.queue-capacity:64}") int queueCapacity,
+            @Value("${dashboard.overview.timeout-ms:3000}") long defaultTimeoutMs) {
+        this.dashboardService = dashboardService;
+        for (String widget : WIDGETS) {
+            long widgetTimeoutMs = environment.getProperty(
+                    "dashboard.overview.widget-timeout-ms." + widget, Long.class, defaultTimeoutMs);
+            TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+            transaction.setReadOnly(true);
+            // Transaction timeouts are whole seconds.
+            transaction.setTimeout((int) Math.max(1, (widgetTimeoutMs + 999) / 1000));
+            timeoutMs.put(widget, widgetTimeoutMs);
+            transactions.put(widget, transaction);
+        }
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), r -> {
+                    Thread t = new Thread(r, "dashboard-overview-" + threadCount.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+    }
+
+    /**
+     * Returns {@code {"widgets": {name: data}, "errors": {name: reason}}} for the requested widgets,
+     * in the order requested. {@code range} applies to the revenue chart (hour/day/week/month) and
+     * {@code performanceRange} to users-performance (day/week/month).
+     */
+    public Map<String, Object> getOverview(Collection<String> widgets, String range, String performanceRange) {
+        Map<String, Supplier<Object>> tasks = new LinkedHashMap<>();
+        for (String widget : widgets) {
+            tasks.put(widget, task(widget, range, performanceRange));
+        }
+
+        // Plain FutureTasks rather than CompletableFutures: only their cancel(true) interrupts the worker.
+        Map<String, Future<Object>> futures = new LinkedHashMap<>();
+        Map<String, Object> data = new LinkedHashMap<>();
+        Map<String, String> errors = new LinkedHashMap<>();
+        long submittedAt = System.nanoTime();
+        for (Map.Entry<String, Supplier<Object>> entry : tasks.entrySet()) {
+            TransactionTemplate transaction = transactions.get(entry.getKey());
+            Supplier<Object> task = entry.getValue();
+            try {
+                futures.put(entry.getKey(), executor.submit(() -> transaction.execute(status -> task.get())));
+            } catch (RejectedExecutionException e) {
+                errors.put(entry.getKey(), "busy");
+            }
+        }
+
+        for (Map.Entry<String, Future<Object>> entry : futures.entrySet()) {
+            String widget = entry.getKey();
+            long deadline = submittedAt + TimeUnit.MILLISECONDS.toNanos(timeoutMs.get(widget));
+            try {
+                long remaining = Math.max(0, deadline - System.nanoTime());
+                data.put(widget, entry.getValue().get(remaining, TimeUnit.NANOSECONDS));
+            } catch (TimeoutException e) {
+                entry.getValue().cancel(true);
+                errors.put(widget, "timeout");
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                if (cause instanceof QueryTimeoutException || cause instanceof TransactionTimedOutException) {
+                    errors.put(widget, "timeout");
+                    continue;
+                }
+                log.warn("Dashboard widget {} failed", widget, cause);
+                errors.put(widget, cause instanceof IllegalArgumentException ? cause.getMessage() : "failed");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                errors.put(widget, "interrupted");
+            }
+        }
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("widgets", data);
+        result.put("errors", errors);
+        return result;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Resolves a widget name to its computation. Parameters are validated here, on the
+     * request thread, so a bad request fails as a whole instead of as a widget error.
+     */
+    private Supplier<Object> task(String widget, String range, String performanceRange) {
+        return switch (widget) {
+            case "summary" -> dashboardService::getSummary;
+            case "top-items" -> () -> dashboardService.getTopItems(null, null, DEFAULT_ITEM_LIMIT);
+            case "trending-items" -> () -> dashboardService.getTrendingItems(DEFAULT_ITEM_LIMIT);
+            case "revenue" -> {
+                RevenueGranularity granularity = RevenueGranularity.fromString(range);
+                LocalDate lastDay = LocalDate.now();
+                LocalDate firstDay = granularity.defaultFrom(lastDay);
+                yield () -> dashboardService.getRevenue(
+                        granularity, firstDay.atStartOfDay(), lastDay.plusDays(1).atStartOfDay());
+            }
+            case "recent-transactions" -> dashboardService::getRecentTransactions;
+            case "users-performance" -> {
+                if (!List.of("day", "week", "month").contains(performanceRange.toLowerCase())) {
+                    throw new IllegalArgumentException("Invalid range: " + performanceRange);
+                }
+                yield () -> dashboardService.getUsersPerformance(performanceRange);
+            }
+            case "todays-revenue-by-payment-mode" -> () -> {
+                // Same shape as GET /todays-revenue-by-payment-mode: amounts as plain strings.
+                Map<String, String> amounts = new HashMap<>();
+                for (Map.Entry<String, BigDecimal> entry : dashboardService.getTodaysRevenueByPaymentMode().entrySet()) {
+                    amounts.put(entry.getKey(), entry.getValue().toPlainString());
+                }
+                return amounts;
+            };
+            case "cashiers" -> dashboardService::getAllCashiers;
+            default -> throw new IllegalArgumentException("Unknown dashboard widget: " + widget
+                    + " (expected one of " + String.join(", ", WIDGETS) + ")");
+        };
+    }
+}
@@ -1,6 +1,10 @@
 package com.crcafe.core.service;
 
 import com.crcafe.core.dto.DashboardSummaryDto;
+import com.crcafe.core.dto.RevenueBucket;
+import com.crcafe.core.dto.RevenueGranularity;
+import com.crcafe.core.dto.TransactionFilter;
+import com.crcafe.core.dto.TransactionRow;
 import com.crcafe.core.repository.UserOrderCountProjection;
 
 import java.util.List;
@@ -8,15 +12,31 @@ import java.util.Map;
 
 public interface DashboardService {
     DashboardSummaryDto getSummary();
-    List<Map<String, Object>> getTopItems();
-    List<Map<String, Object>> getRevenue(String range);
-    List<Map<String, Object>> getRecentTransactions();
-    Map<String, Object> getRecentTransactionsPaginated(int page, int size);
-    Map<String, Object> getRecentTransactionsWithFilters(int page, int size, String cashier, 
-        java.math.BigDecimal minValue, java.math.BigDecimal maxValue, 
-        java.time.LocalDateTime startDate, java.time.LocalDateTime endDate, String paymentMode);
+    List<Map<String, Object>> getTopItems(java.time.LocalDateTime from, java.time.LocalDateTime to, int limit);
+    List<Map<String, Object>> getTrendingItems(int limit);
+    List<RevenueBucket> getRevenue(RevenueGranularity granularity, java.time.LocalDateTime from, java.time.LocalDateTime to);
+    List<TransactionRow> getRecentTransactions();
+    Map<String, Object> getRecentTransactionsWithFilters(int page, int size, TransactionFilter filter);
+    /**
+     * Keyset-paginated recent transactions. {@code cursor} is an opaque value from a previous
+     * response's nextCursor/prevCursor (null for the newest page); {@code newer} reads towards
+     * newer bills. The total count is only computed when {@code includeTotal} is set.
+     */
+    Map<String, Object> getRecentTransactionsWithFiltersPage(String cursor, boolean newer, int size, boolean includeTotal,
+        TransactionFilter filter);
     List<String> getAllCashiers();
+    /**
+     * Per-cashier performance for the current day, ISO week or month ({@code range} = day/week/month).
+     */
     List<Map<String,Object>> getUsersPerformance(String range);
+    /**
+     * Per-cashier orders, bills, revenue, discount and average ticket for orders placed in {@code [from, to)}.
+     */
+    List<Map<String,Object>> getUsersPerformance(java.time.LocalDateTime from, java.time.LocalDateTime to);
+    /**
+     * Number of orders per status (OPEN, BILLED, VOID) for orders placed in {@code [from, to)}.
+     */
+    Map<String, Long> getOrderStatusCounts(java.time.LocalDateTime from, java.time.LocalDateTime to);
     // Add method to get today's revenue by payment mode
     Map<String, java.math.BigDecimal> getTodaysRevenueByPaymentMode();
 }
\ No newline at end of file
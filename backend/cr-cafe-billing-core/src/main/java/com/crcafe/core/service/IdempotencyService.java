@@ -0,0 +1,154 @@
+package com.crcafe.core.service;
+
+import com.crcafe.core.model.IdempotencyRecord;
+import com.crcafe.core.model.IdempotencyStatus;
+import com.crcafe.core.repository.IdempotencyRecordRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.function.Supplier;
+
+/**
+ * Runs a request at most once per Idempotency-Key and replays its response for retries.
+ * <p>
+ * Before the request runs, its key is claimed with a PENDING row in idempotency_keys (a single
+ * INSERT IGNORE, so nothing is locked while the request runs). A retry that arrives meanwhile, on
+ * any instance, finds the row and is rejected. The request then runs in one transaction with
+ * storing its response, so either both commit or neither does; if it fails, the claim is deleted
+ * and the key may be retried. A claim left behind by a crashed instance expires after
+ * {@code idempotency.pending-timeout-seconds}.
+ * <p>
+ * Completed responses are also kept in a bounded in-memory cache. Both expire after
+ * {@code idempotency.ttl-hours}.
+ */
+@Service
+public class IdempotencyService {
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyService.class);
+
+    private final IdempotencyRecordRepository repository;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration ttl;
+    private final Duration pendingTimeout;
+    private final Cache<String, StoredResponse> completed;
+
+    public IdempotencyService(IdempotencyRecordRepository repository,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${idempotency.ttl-hours:24}") long ttlHours,
+                              @Value("${idempotency.pending-timeout-seconds:60}") long pendingTimeoutSeconds,
+                              @Value("${idempotency.max-entries:10000}") long maxEntries) {
+        this.repository = repository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.ttl = Duration.ofHours(ttlHours);
+        this.pendingTimeout = Duration.ofSeconds(pendingTimeoutSeconds);
+        this.completed = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    /**
+     * Returns the stored response for {@code key} if there is one, otherwise runs {@code action}
+     * and stores its response. {@code action} runs inside a transaction that also stores the response.
+     *
+     * @param requestHash identifies the request body; reusing a key for a different request is rejected
+     * @throws IllegalArgumentException if the key was already used for a different request
+     * @throws IllegalStateException if a request with the same key is still being processed
+     */
+    public Outcome execute(String key, String requestHash, Supplier<StoredResponse> action) {
+        StoredResponse cached = completed.getIfPresent(key);
+        if (cached != null) {
+            return replay(cached, requestHash);
+        }
+        // Truncated to the column's precision, since the claim is identified by it.
+        LocalDateTime claimedAt = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        Integer claimed = transactionTemplate.execute(status -> {
+            repository.deleteIfExpired(key, claimedAt);
+            return repository.claim(key, requestHash, claimedAt, claimedAt.plus(pendingTimeout));
+        });
+        if (claimed == null || claimed == 0) {
+            return replay(key, requestHash);
+        }
+
+        StoredResponse stored;
+        try {
+            stored = transactionTemplate.execute(status -> {
+                StoredResponse response = action.get();
+                StoredResponse toStore = new StoredResponse(requestHash, response.statusCode(), response.body());
+                int updated = repository.complete(key, claimedAt, toStore.statusCode(), toStore.body(),
+                        LocalDateTime.now().plus(ttl));
+                if (updated == 0) {
+                    // The claim expired and another request took the key over; roll this one back.
+                    throw new IllegalStateException("A request with this Idempotency-Key is already being processed.");
+                }
+                return toStore;
+            });
+        } catch (RuntimeException e) {
+            release(key, claimedAt);
+            throw e;
+        }
+        completed.put(key, stored);
+        return new Outcome(stored, false);
+    }
+
+    @Scheduled(fixedDelayString = "${idempotency.sweep-ms:3600000}")
+    public void deleteExpired() {
+        Integer deleted = transactionTemplate.execute(status -> repository.deleteExpired(LocalDateTime.now()));
+        if (deleted != null && deleted > 0) {
+            log.info("Deleted {} expired idempotency keys", deleted);
+        }
+    }
+
+    /**
+     * Answers a request whose key is already claimed: the stored response if that request has
+     * completed, otherwise a conflict.
+     */
+    private Outcome replay(String key, String requestHash) {
+        IdempotencyRecord record = repository.findUnexpired(key, LocalDateTime.now()).orElse(null);
+        if (record == null || record.getStatus() != IdempotencyStatus.COMPLETED) {
+            throw new IllegalStateException("A request with this Idempotency-Key is already being processed.");
+        }
+        StoredResponse stored = new StoredResponse(record.getRequestHash(), record.getStatusCode(), record.getResponseBody());
+        completed.put(key, stored);
+        return replay(stored, requestHash);
+    }
+
+    private void release(String key, LocalDateTime claimedAt) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> repository.release(key, claimedAt));
+        } catch (RuntimeException e) {
+            // Nothing was stored for the request; the claim expires on its own.
+            log.warn("Could not release idempotency key {}", key, e);
+        }
+    }
+
+    private static Outcome replay(StoredResponse stored, String requestHash) {
+        if (!stored.requestHash().equals(requestHash)) {
+            throw new IllegalArgumentException("This Idempotency-Key was already used for a different request.");
+        }
+        return new Outcome(stored, true);
+    }
+
+    /**
+     * A response as it was sent: HTTP status and serialized body.
+     */
+    public record StoredResponse(String requestHash, int statusCode, String body) {
+
+        public static StoredResponse of(int statusCode, String body) {
+            return new StoredResponse(null, statusCode, body);
+        }
+    }
+
+    public record Outcome(StoredResponse response, boolean replayed) {
+    }
+}
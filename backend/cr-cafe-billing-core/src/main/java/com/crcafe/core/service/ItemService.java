@@ -0,0 +1,82 @@
+package com.crcafe.core.service;
+
+import com.crcafe.core.event.ItemChangedEvent;
+import com.crcafe.core.model.CatalogVersion;
+import com.crcafe.core.model.Item;
+import com.crcafe.core.repository.CatalogVersionRepository;
+import com.crcafe.core.repository.ItemRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+
+/**
+ * Changes to menu items. Each change increments the menu's catalog version in the same
+ * transaction and publishes an {@link ItemChangedEvent}, which {@link MenuCatalog} applies
+ * once the transaction has committed.
+ */
+@Service
+public class ItemService {
+
+    private final ItemRepository itemRepository;
+    private final CatalogVersionRepository catalogVersionRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public ItemService(ItemRepository itemRepository, CatalogVersionRepository catalogVersionRepository,
+                       ApplicationEventPublisher eventPublisher) {
+        this.itemRepository = itemRepository;
+        this.catalogVersionRepository = catalogVersionRepository;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Transactional
+    public Item create(Item item) {
+        Item saved = itemRepository.save(item);
+        changed(saved.getId(), saved);
+        return saved;
+    }
+
+    /**
+     * @return false if there is no such item
+     */
+    @Transactional
+    public boolean delete(Long id) {
+        if (!itemRepository.existsById(id)) {
+            return false;
+        }
+        // The database refuses if the item is part of any existing order, which protects the sales history.
+        itemRepository.deleteById(id);
+        itemRepository.flush();
+        changed(id, null);
+        return true;
+    }
+
+    @Transactional
+    public Optional<Item> setAvailability(Long id, boolean available) {
+        return itemRepository.findById(id).map(item -> {
+            item.setAvailable(available);
+            Item saved = itemRepository.save(item);
+            changed(id, saved);
+            return saved;
+        });
+    }
+
+    @Transactional
+    public Optional<Item> updatePrice(Long id, BigDecimal price) {
+        return itemRepository.findById(id).map(item -> {
+            item.setPrice(price);
+            Item saved = itemRepository.save(item);
+            changed(id, saved);
+            return saved;
+        });
+    }
+
+    private void changed(Long itemId, Item item) {
+        catalogVersionRepository.increment(CatalogVersion.MENU);
+        long version = catalogVersionRepository.findVersion(CatalogVersion.MENU)
+                .orElseThrow(() -> new IllegalStateException("catalog_versions has no row for " + CatalogVersion.MENU));
+        eventPublisher.publishEvent(new ItemChangedEvent(itemId, item, version));
+    }
+}
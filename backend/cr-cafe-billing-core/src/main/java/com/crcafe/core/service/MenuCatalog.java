@@ -0,0 +1,289 @@
+package com.crcafe.core.service;
+
+import com.crcafe.core.dto.MenuChanges;
+import com.crcafe.core.event.ItemChangedEvent;
+import com.crcafe.core.model.CatalogVersion;
+import com.crcafe.core.model.Item;
+import com.crcafe.core.repository.CatalogVersionRepository;
+import com.crcafe.core.repository.ItemRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable in-memory snapshot of the menu, used to price orders and to serve the item list
+ * without reading the items table.
+ * <p>
+ * Readers only ever see a complete snapshot: every change builds a new map and publishes it,
+ * together with its catalog version, in a single volatile write. Changes made through this
+ * instance are applied once their transaction has committed ({@link ItemChangedEvent}).
+ * <p>
+ * The version is the menu's row in catalog_versions, which {@link ItemService} increments in the
+ * same transaction as every item change, so all instances agree on what a version means. Every
+ * {@code menu.catalog.refresh-ms} the row is polled (a primary key lookup); if another instance
+ * has changed the menu, the items table is re-read together with the version in one transaction
+ * and the items that differ from the snapshot are published under that version. The ids changed
+ * by the most recent {@code menu.catalog.change-log-size} changes are remembered so clients can
+ * ask for just the items changed since a version they already have, from any instance.
+ */
+@Component
+public class MenuCatalog {
+
+    private final ItemRepository itemRepository;
+    private final CatalogVersionRepository catalogVersionRepository;
+    private final TransactionTemplate readTransaction;
+    private final int changeLogSize;
+    private final Timer refreshTimer;
+    private final Deque<Change> changeLog = new ArrayDeque<>();
+    // Oldest version from which the change log is complete.
+    private long changeLogFloor;
+    private volatile Snapshot snapshot;
+
+    public MenuCatalog(ItemRepository itemRepository, CatalogVersionRepository catalogVersionRepository,
+                       PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+                       @Value("${menu.catalog.change-log-size:1000}") int changeLogSize) {
+        this.itemRepository = itemRepository;
+        this.catalogVersionRepository = catalogVersionRepository;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+        // refresh() also runs from an AFTER_COMMIT listener, where the finished transaction's
+        // resources are still bound; its reads need a transaction of their own.
+        this.readTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.changeLogSize = changeLogSize;
+        this.refreshTimer = Timer.builder("menu.catalog.refresh")
+                .description("Re-reading the items table to pick up other instances' changes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Loads the full menu once the application (including any seeding) has started.
+     * Clients holding an older version will receive a full resync.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void reload() {
+        Snapshot loaded = load();
+        changeLog.clear();
+        changeLogFloor = loaded.version();
+        snapshot = loaded;
+    }
+
+    /**
+     * Catches up with changes made through other instances: polls the menu's version and, if it
+     * is newer than the snapshot, re-reads the items and publishes those that differ.
+     */
+    @Scheduled(fixedDelayString = "${menu.catalog.refresh-ms:5000}",
+            initialDelayString = "${menu.catalog.refresh-ms:5000}")
+    public void refresh() {
+        long seenVersion = current().version();
+        if (readTransaction.execute(status -> currentVersion()) <= seenVersion) {
+            return;
+        }
+        refreshTimer.record(() -> {
+            Snapshot loaded = load();
+            synchronized (this) {
+                Snapshot current = current();
+                if (loaded.version() <= current.version()) {
+                    // Changes made through this instance got there first.
+                    return;
+                }
+                Set<Long> changedIds = new LinkedHashSet<>();
+                loaded.entries().forEach((id, entry) -> {
+                    if (!entry.equals(current.entries().get(id))) {
+                        changedIds.add(id);
+                    }
+                });
+                for (Long id : current.entries().keySet()) {
+                    if (!loaded.entries().containsKey(id)) {
+                        changedIds.add(id);
+                    }
+                }
+                publish(loaded.version(), loaded.entries(), changedIds);
+            }
+        });
+    }
+
+    /**
+     * Applies a change committed through this instance. A change that skips versions (another
+     * instance changed the menu in between) is picked up with a refresh instead.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onItemChanged(ItemChangedEvent event) {
+        synchronized (this) {
+            Snapshot current = current();
+            if (event.catalogVersion() <= current.version()) {
+                return;
+            }
+            if (event.catalogVersion() == current.version() + 1) {
+                Map<Long, Entry> entries = new HashMap<>(current.entries());
+                if (event.item() != null) {
+                    entries.put(event.itemId(), Entry.of(event.item()));
+                } else {
+                    entries.remove(event.itemId());
+                }
+                publish(event.catalogVersion(), entries, List.of(event.itemId()));
+                return;
+            }
+        }
+        refresh();
+    }
+
+    public long getVersion() {
+        return current().version();
+    }
+
+    /**
+     * Returns the current entry for {@code itemId}, or null if the snapshot does not know it.
+     */
+    public Entry get(Long itemId) {
+        return current().entries().get(itemId);
+    }
+
+    /**
+     * Every entry of the current snapshot, ordered by id, without copying them into items.
+     */
+    public List<Entry> entries() {
+        return current().entries().values().stream()
+                .sorted(Comparator.comparing(Entry::id))
+                .toList();
+    }
+
+    /**
+     * Items added or changed and ids deleted after {@code since}. If the change log no longer
+     * reaches back that far (or {@code since} is not a version of the menu), the whole menu is
+     * returned with {@code full} set.
+     */
+    public MenuChanges changesSince(long since) {
+        if (since > current().version()) {
+            // The client has talked to an instance that is further ahead; catch up before answering.
+            refresh();
+        }
+        return changesSince(current(), since);
+    }
+
+    private synchronized MenuChanges changesSince(Snapshot current, long since) {
+        if (since == current.version()) {
+            return new MenuChanges(current.version(), false, List.of(), List.of());
+        }
+        if (since < changeLogFloor || since > current.version()) {
+            return new MenuChanges(current.version(), true, sorted(current.entries().values()), List.of());
+        }
+        Set<Long> changedIds = new LinkedHashSet<>();
+        for (Change change : changeLog) {
+            if (change.version() > since && change.version() <= current.version()) {
+                changedIds.add(change.itemId());
+            }
+        }
+        List<Entry> updated = new ArrayList<>();
+        List<Long> deleted = new ArrayList<>();
+        for (Long itemId : changedIds) {
+            Entry entry = current.entries().get(itemId);
+            if (entry != null) {
+                updated.add(entry);
+            } else {
+                deleted.add(itemId);
+            }
+        }
+        return new MenuChanges(current.version(), false, sorted(updated), deleted);
+    }
+
+    private void publish(long version, Map<Long, Entry> entries, Collection<Long> changedIds) {
+        for (Long changedId : changedIds) {
+            changeLog.addLast(new Change(version, changedId));
+        }
+        while (changeLog.size() > changeLogSize) {
+            // Clients older than the dropped change can no longer be served a delta.
+            changeLogFloor = changeLog.removeFirst().version();
+        }
+        snapshot = new Snapshot(version, Map.copyOf(entries));
+    }
+
+    /**
+     * Reads the version and all items in one transaction, so the items are exactly those of that version.
+     */
+    private Snapshot load() {
+        return readTransaction.execute(status -> {
+            long version = currentVersion();
+            Map<Long, Entry> entries = new HashMap<>();
+            for (Item item : itemRepository.findAll()) {
+                entries.put(item.getId(), Entry.of(item));
+            }
+            return new Snapshot(version, Map.copyOf(entries));
+        });
+    }
+
+    private long currentVersion() {
+        return catalogVersionRepository.findVersion(CatalogVersion.MENU)
+                .orElseThrow(() -> new IllegalStateException("catalog_versions has no row for " + CatalogVersion.MENU));
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            // Requests can arrive before ApplicationReadyEvent; load on first use instead.
+            synchronized (this) {
+                if (snapshot == null) {
+                    reload();
+                }
+                current = snapshot;
+            }
+        }
+        return current;
+    }
+
+    private static List<Item> sorted(Collection<Entry> entries) {
+        return entries.stream()
+                .sorted(Comparator.comparing(Entry::id))
+                .map(Entry::toItem)
+                .toList();
+    }
+
+    private record Snapshot(long version, Map<Long, Entry> entries) {
+    }
+
+    private record Change(long version, Long itemId) {
+    }
+
+    public record Entry(Long id, String name, BigDecimal price, boolean available, String imageUrl) {
+
+        static Entry of(Item item) {
+            // At the column's scale, so an entry built from a request equals the one read back.
+            BigDecimal price = item.getPrice() != null ? item.getPrice().setScale(2, RoundingMode.HALF_UP) : null;
+            return new Entry(item.getId(), item.getName(), price, item.isAvailable(), item.getImageUrl());
+        }
+
+        /**
+         * A detached {@link Item} with this entry's values; fine for referencing the item from new rows.
+         */
+        public Item toItem() {
+            Item item = new Item();
+            item.setId(id);
+            item.setName(name);
+            item.setPrice(price);
+            item.setAvailable(available);
+            item.setImageUrl(imageUrl);
+            return item;
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.crcafe.core.service;
 
+import com.crcafe.core.dto.BulkOrder;
+import com.crcafe.core.dto.BulkOrderResult;
 import com.crcafe.core.model.Bill;
 import com.crcafe.core.model.Order;
 import com.crcafe.core.model.OrderItem;
@@ -13,7 +15,20 @@ import java.util.Optional;
  */
 public interface OrderService {
     Order createOrder(List<OrderItem> items, Long userId);
+    /**
+     * Creates (and optionally bills) many orders at once, all taken by the cashier {@code userId}.
+     * Each order succeeds or fails on its own; results are returned in request order.
+     */
+    List<BulkOrderResult> createOrders(Long userId, List<BulkOrder> orders);
     Bill generateBill(Long orderId, Long discountId, PaymentMode paymentMode);
+    /**
+     * Cancels an order that has not been billed.
+     */
+    Order voidOrder(Long orderId);
+    /**
+     * Creates an order and bills it in a single transaction.
+     */
+    Bill checkout(List<OrderItem> items, Long userId, Long discountId, PaymentMode paymentMode);
     Optional<Bill> findBillByOrderId(Long orderId);
     long getTodaysOrderCountForUser(Long userId);
 }
\ No newline at end of file
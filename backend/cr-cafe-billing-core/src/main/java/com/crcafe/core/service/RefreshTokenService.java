@@ -0,0 +1,169 @@
+package com.crcafe.core.service;
+
+import com.crcafe.core.model.RefreshToken;
+import com.crcafe.core.repository.RefreshTokenRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Issues, rotates and revokes refresh tokens.
+ * <p>
+ * A refresh token is 32 random bytes; only its SHA-256 is stored, in refresh_tokens, so a
+ * refresh is a primary-key lookup that never reads the users table. Every login starts a
+ * session, and every refresh revokes the presented token and issues the next one of that
+ * session with a fresh {@code jwt.refresh-expiration-ms}. Presenting a token that was already
+ * rotated means it was copied, so the whole session is ended. Tokens this node saw revoked are
+ * also remembered in memory ({@link RevokedRefreshTokens}) so replays are turned away without
+ * a query.
+ */
+@Service
+public class RefreshTokenService {
+
+    private static final Logger log = LoggerFactory.getLogger(RefreshTokenService.class);
+
+    private static final int TOKEN_BYTES = 32;
+    private static final int MAX_DEVICE_LENGTH = 255;
+
+    private final RefreshTokenRepository repository;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration ttl;
+    private final RevokedRefreshTokens revoked;
+    private final SecureRandom random = new SecureRandom();
+
+    public RefreshTokenService(RefreshTokenRepository repository,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${jwt.refresh-expiration-ms}") long ttlMs,
+                               @Value("${refresh-token.revoked-cache.max-entries:100000}") int revokedCacheSize) {
+        this.repository = repository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.ttl = Duration.ofMillis(ttlMs);
+        this.revoked = new RevokedRefreshTokens(revokedCacheSize, ttl);
+    }
+
+    /**
+     * Starts a new session for {@code userId} on {@code device} (e.g. the User-Agent) and
+     * returns its first token.
+     */
+    public Issued startSession(Long userId, String device) {
+        String sessionId = UUID.randomUUID().toString();
+        return transactionTemplate.execute(status -> issue(sessionId, userId, device, LocalDateTime.now()));
+    }
+
+    /**
+     * Exchanges {@code token} for the next token of its session. Empty if the token is unknown,
+     * expired or already used; in the last case the session is ended as well.
+     */
+    public Optional<Issued> rotate(String token) {
+        byte[] digest = sha256(token);
+        String tokenHash = HexFormat.of().formatHex(digest);
+
+        String revokedSession = revoked.sessionOf(digest, tokenHash);
+        if (revokedSession != null) {
+            endReusedSession(revokedSession);
+            return Optional.empty();
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        Rotation rotation = transactionTemplate.execute(status -> {
+            RefreshToken current = repository.findById(tokenHash).orElse(null);
+            if (current == null || !current.getExpiresAt().isAfter(now)) {
+                return null;
+            }
+            if (current.getRevokedAt() != null) {
+                log.warn("Refresh token reused; ending session {} of user {}", current.getSessionId(), current.getUserId());
+                repository.revokeSession(current.getSessionId(), now);
+                return new Rotation(current.getSessionId(), null);
+            }
+            if (repository.revoke(tokenHash, now) == 0) {
+                // A concurrent refresh with the same token won.
+                return null;
+            }
+            return new Rotation(current.getSessionId(),
+                    issue(current.getSessionId(), current.getUserId(), current.getDevice(), now));
+        });
+        if (rotation == null) {
+            return Optional.empty();
+        }
+        revoked.add(digest, tokenHash, rotation.sessionId());
+        return Optional.ofNullable(rotation.next());
+    }
+
+    /**
+     * Ends the session {@code token} belongs to, e.g. on logout. Unknown tokens are ignored.
+     */
+    public void endSession(String token) {
+        byte[] digest = sha256(token);
+        String tokenHash = HexFormat.of().formatHex(digest);
+        String sessionId = transactionTemplate.execute(status -> repository.findById(tokenHash)
+                .map(current -> {
+                    repository.revokeSession(current.getSessionId(), LocalDateTime.now());
+                    return current.getSessionId();
+                })
+                .orElse(null));
+        if (sessionId != null) {
+            revoked.add(digest, tokenHash, sessionId);
+        }
+    }
+
+    /**
+     * Expired tokens are useless whether revoked or not; revoked ones are kept until then so
+     * that reuse can still be detected.
+     */
+    @Scheduled(fixedDelayString = "${refresh-token.sweep-ms:3600000}")
+    public void deleteExpired() {
+        Integer deleted = transactionTemplate.execute(status -> repository.deleteExpired(LocalDateTime.now()));
+        if (deleted != null && deleted > 0) {
+            log.info("Deleted {} expired refresh tokens", deleted);
+        }
+    }
+
+    private void endReusedSession(String sessionId) {
+        log.warn("Revoked refresh token presented again; ending session {}", sessionId);
+        transactionTemplate.executeWithoutResult(status -> repository.revokeSession(sessionId, LocalDateTime.now()));
+    }
+
+    private Issued issue(String sessionId, Long userId, String device, LocalDateTime now) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        LocalDateTime expiresAt = now.plus(ttl);
+        repository.insert(HexFormat.of().formatHex(sha256(token)), sessionId, userId,
+                device != null && device.length() > MAX_DEVICE_LENGTH ? device.substring(0, MAX_DEVICE_LENGTH) : device,
+                now, expiresAt);
+        return new Issued(token, sessionId, userId, expiresAt);
+    }
+
+    private static byte[] sha256(String token) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * A newly issued refresh token; {@code token} is handed to the client and never stored.
+     */
+    public record Issued(String token, String sessionId, Long userId, LocalDateTime expiresAt) {
+    }
+
+    private record Rotation(String sessionId, Issued next) {
+    }
+}
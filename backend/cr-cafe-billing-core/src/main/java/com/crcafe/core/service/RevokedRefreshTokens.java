@@ -0,0 +1,106 @@
+package com.crcafe.core.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Refresh tokens this node has seen revoked, so a replayed token is recognised without a query.
+ * <p>
+ * A Bloom filter answers "certainly not revoked" for the common case in a few bit lookups; only
+ * when it says "maybe" is the bounded cache of recently revoked token hashes (to session ids)
+ * consulted. Anything neither remembers falls through to the refresh_tokens table, which stays
+ * the source of truth: this is only a fast path, and it starts empty on every node.
+ * <p>
+ * Bloom filters cannot forget. The filter is sized for twice as many tokens as the cache holds;
+ * once that many have been added it is rebuilt from the cache, so rebuilds are at least
+ * {@code capacity} additions apart.
+ */
+final class RevokedRefreshTokens {
+
+    private static final int HASHES = 4;
+    // About 1% false positives at 10 bits per entry and 4 hashes.
+    private static final int BITS_PER_ENTRY = 10;
+
+    private final Cache<String, String> recent;
+    private final int capacity;
+    private volatile AtomicLongArray bits;
+    private int added;
+
+    RevokedRefreshTokens(int capacity, Duration ttl) {
+        this.capacity = capacity;
+        this.recent = Caffeine.newBuilder()
+                .maximumSize(capacity)
+                .expireAfterWrite(ttl)
+                .build();
+        this.bits = newBits();
+    }
+
+    /**
+     * @param digest the SHA-256 of the token; being uniformly random, its bytes serve as the
+     *               filter's hash functions directly
+     */
+    void add(byte[] digest, String tokenHash, String sessionId) {
+        recent.put(tokenHash, sessionId);
+        synchronized (this) {
+            if (++added > 2 * capacity) {
+                refill();
+            } else {
+                set(bits, digest);
+            }
+        }
+    }
+
+    /**
+     * The session of {@code tokenHash} if this node knows it was revoked, otherwise null.
+     */
+    String sessionOf(byte[] digest, String tokenHash) {
+        if (!mightContain(bits, digest)) {
+            return null;
+        }
+        return recent.getIfPresent(tokenHash);
+    }
+
+    private void refill() {
+        AtomicLongArray refilled = newBits();
+        HexFormat hex = HexFormat.of();
+        for (String tokenHash : recent.asMap().keySet()) {
+            set(refilled, hex.parseHex(tokenHash));
+        }
+        added = (int) recent.estimatedSize();
+        bits = refilled;
+    }
+
+    private AtomicLongArray newBits() {
+        return new AtomicLongArray(Math.max(1, (int) (2L * capacity * BITS_PER_ENTRY / Long.SIZE)));
+    }
+
+    private static void set(AtomicLongArray bits, byte[] digest) {
+        long size = (long) bits.length() * Long.SIZE;
+        for (int i = 0; i < HASHES; i++) {
+            long bit = Integer.toUnsignedLong(slice(digest, i)) % size;
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            bits.getAndUpdate(word, w -> w | mask);
+        }
+    }
+
+    private static boolean mightContain(AtomicLongArray bits, byte[] digest) {
+        long size = (long) bits.length() * Long.SIZE;
+        for (int i = 0; i < HASHES; i++) {
+            long bit = Integer.toUnsignedLong(slice(digest, i)) % size;
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int slice(byte[] digest, int i) {
+        int o = i * 4;
+        return (digest[o] & 0xff) << 24 | (digest[o + 1] & 0xff) << 16 | (digest[o + 2] & 0xff) << 8 | (digest[o + 3] & 0xff);
+    }
+}
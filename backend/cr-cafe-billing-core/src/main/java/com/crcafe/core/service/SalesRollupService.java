@@ -0,0 +1,143 @@
+package com.crcafe.core.service;
+
+import com.crcafe.core.model.Bill;
+import com.crcafe.core.model.Order;
+import com.crcafe.core.repository.DailyOrderRollupRepository;
+import com.crcafe.core.repository.DailySalesRollupRepository;
+import com.crcafe.core.repository.FinancialSummaryRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maintains the daily_sales_rollup and daily_order_rollup tables that back the owner dashboard.
+ * Bills and orders are folded into the rollups inside the transaction that creates them,
+ * and the rollups can be rebuilt from the bills and orders tables at any time.
+ */
+@Service
+public class SalesRollupService {
+
+    private static final Logger log = LoggerFactory.getLogger(SalesRollupService.class);
+    // Rebuild start when nothing has been archived yet: every row is recomputed.
+    private static final LocalDate REBUILD_ALL_FROM = LocalDate.of(1970, 1, 1);
+
+    private final DailySalesRollupRepository rollupRepository;
+    private final DailyOrderRollupRepository orderRollupRepository;
+    private final FinancialSummaryRepository financialSummaryRepository;
+
+    public SalesRollupService(DailySalesRollupRepository rollupRepository,
+                              DailyOrderRollupRepository orderRollupRepository,
+                              FinancialSummaryRepository financialSummaryRepository) {
+        this.rollupRepository = rollupRepository;
+        this.orderRollupRepository = orderRollupRepository;
+        this.financialSummaryRepository = financialSummaryRepository;
+    }
+
+    /**
+     * Counts a freshly saved order, billed or not. Same transaction rules as {@link #recordBill(Bill)}.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordOrder(Order order) {
+        recordOrders(List.of(order));
+    }
+
+    /**
+     * Counts a batch of freshly saved orders, issuing one upsert per day and cashier.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordOrders(Collection<Order> orders) {
+        Map<OrderKey, Long> counts = new HashMap<>();
+        for (Order order : orders) {
+            counts.merge(new OrderKey(order.getOrderDate().toLocalDate(), order.getUser().getId()), 1L, Long::sum);
+        }
+        counts.forEach((key, count) -> orderRollupRepository.addOrders(key.orderDate(), key.userId(), count));
+    }
+
+    /**
+     * Adds a freshly saved bill to the rollup. Must be called from within the
+     * transaction that inserts the bill so both commit or roll back together.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordBill(Bill bill) {
+        recordBills(List.of(bill));
+    }
+
+    /**
+     * Adds a batch of freshly saved bills, issuing one upsert per day, payment mode and
+     * cashier rather than one per bill. Same transaction rules as {@link #recordBill(Bill)}.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordBills(Collection<Bill> bills) {
+        Map<RollupKey, Totals> totals = new HashMap<>();
+        for (Bill bill : bills) {
+            RollupKey key = new RollupKey(bill.getBillDate().toLocalDate(), bill.getPaymentMode().name(),
+                    bill.getOrder().getUser().getId());
+            totals.computeIfAbsent(key, k -> new Totals()).add(bill);
+        }
+        totals.forEach((key, t) -> rollupRepository.addBills(
+                key.salesDate(), key.paymentMode(), key.userId(), t.count, t.gross, t.discount, t.net));
+    }
+
+    /**
+     * Rebuilds both rollups for every day after the latest archived bill. Archived bills and
+     * their orders are only kept in financial_summary, without the payment mode and cashier the
+     * rows are keyed by, so days up to and including that bill's day keep their existing rows.
+     * Bills are archived oldest first, and an order is never dated after its bill, so every later
+     * day is still complete in the bills and orders tables. Finding that day scans
+     * financial_summary once.
+     */
+    @Transactional
+    public void rebuild() {
+        LocalDate fromDay = financialSummaryRepository.findLatestOriginalBillDate()
+                .map(latest -> latest.toLocalDate().plusDays(1))
+                .orElse(REBUILD_ALL_FROM);
+        int deletedSales = rollupRepository.deleteBySalesDateFrom(fromDay);
+        int insertedSales = rollupRepository.insertFromBills(fromDay.atStartOfDay());
+        int deletedOrders = orderRollupRepository.deleteByOrderDateFrom(fromDay);
+        int insertedOrders = orderRollupRepository.insertFromOrders(fromDay.atStartOfDay());
+        log.info("Rebuilt rollups from {}: sales {} rows removed, {} written; orders {} rows removed, {} written",
+                fromDay, deletedSales, insertedSales, deletedOrders, insertedOrders);
+    }
+
+    /**
+     * Populates the rollups on first start after the tables are introduced.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void initializeIfEmpty() {
+        if (rollupRepository.count() == 0 || orderRollupRepository.count() == 0) {
+            rebuild();
+        }
+    }
+
+    private record OrderKey(LocalDate orderDate, Long userId) {
+    }
+
+    private record RollupKey(LocalDate salesDate, String paymentMode, Long userId) {
+    }
+
+    private static final class Totals {
+        private long count;
+        private BigDecimal gross = BigDecimal.ZERO;
+        private BigDecimal discount = BigDecimal.ZERO;
+        private BigDecimal net = BigDecimal.ZERO;
+
+        private void add(Bill bill) {
+            count++;
+            gross = gross.add(bill.getTotalAmount());
+            discount = discount.add(bill.getDiscount() != null ? bill.getDiscount() : BigDecimal.ZERO);
+            net = net.add(bill.getFinalAmount());
+        }
+    }
+}
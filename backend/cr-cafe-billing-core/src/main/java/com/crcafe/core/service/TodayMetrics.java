@@ -0,0 +1,205 @@
+package com.crcafe.core.service;
+
+import com.crcafe.core.event.BillGeneratedEvent;
+import com.crcafe.core.event.OrderCreatedEvent;
+import com.crcafe.core.model.PaymentMode;
+import com.crcafe.core.repository.BillRepository;
+import com.crcafe.core.repository.CashierDayTotalsProjection;
+import com.crcafe.core.repository.OrderRepository;
+import com.crcafe.core.repository.UserOrderTotalProjection;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free running totals for the current business day: revenue (in paise), bills and orders,
+ * split by payment mode and by cashier. Counters are {@link LongAdder}s so concurrent checkouts
+ * never contend on a single cell, and every read is O(1) with no database access.
+ * <p>
+ * Counters are updated only after the creating transaction commits. At local midnight
+ * (in {@code dashboard.timezone}) the whole set of counters is swapped for an empty one in a
+ * single atomic step, and on startup they are rebuilt from two indexed range queries.
+ * The JVM should run in the same time zone, since bill and order timestamps use local time.
+ * <p>
+ * Events only reach the instance that committed them, so with several instances the counters
+ * are also rebuilt whenever {@link DashboardCache} sees that another instance has changed the
+ * data. A checkout committing while a rebuild runs may be counted twice or not at all until the
+ * next rebuild.
+ */
+@Component
+public class TodayMetrics {
+
+    private final BillRepository billRepository;
+    private final OrderRepository orderRepository;
+    private final ZoneId zone;
+    private final AtomicReference<DayCounters> current;
+
+    public TodayMetrics(BillRepository billRepository, OrderRepository orderRepository,
+                        @Value("${dashboard.timezone:Asia/Kolkata}") String timezone) {
+        this.billRepository = billRepository;
+        this.orderRepository = orderRepository;
+        this.zone = ZoneId.of(timezone);
+        this.current = new AtomicReference<>(new DayCounters(LocalDate.now(zone)));
+    }
+
+    /**
+     * Loads today's totals from the database, replacing the counters in one step. Runs before the
+     * application starts serving requests and again when other instances have added sales.
+     */
+    @PostConstruct
+    public void rebuild() {
+        LocalDate today = LocalDate.now(zone);
+        LocalDateTime from = today.atStartOfDay();
+        LocalDateTime to = today.plusDays(1).atStartOfDay();
+        DayCounters counters = new DayCounters(today);
+        for (CashierDayTotalsProjection row : billRepository.getTotalsByPaymentModeAndCashier(from, to)) {
+            long paise = toPaise(row.getRevenue());
+            counters.bills.add(row.getBillCount());
+            counters.revenuePaise.add(paise);
+            counters.revenueByMode.get(row.getPaymentMode()).add(paise);
+            counters.adder(counters.revenueByCashier, row.getUserId()).add(paise);
+        }
+        for (UserOrderTotalProjection row : orderRepository.countOrdersByUserBetween(from, to)) {
+            counters.orders.add(row.getOrders());
+            counters.adder(counters.ordersByCashier, row.getUserId()).add(row.getOrders());
+        }
+        current.set(counters);
+    }
+
+    // Counted before any other AFTER_COMMIT listener reads today's totals.
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onOrderCreated(OrderCreatedEvent event) {
+        DayCounters counters = countersFor(event.orderDate().toLocalDate());
+        if (counters == null) {
+            return;
+        }
+        counters.orders.increment();
+        counters.adder(counters.ordersByCashier, event.userId()).increment();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onBillGenerated(BillGeneratedEvent event) {
+        DayCounters counters = countersFor(event.billDate().toLocalDate());
+        if (counters == null) {
+            return;
+        }
+        long paise = toPaise(event.finalAmount());
+        counters.bills.increment();
+        counters.revenuePaise.add(paise);
+        counters.revenueByMode.get(event.paymentMode()).add(paise);
+        counters.adder(counters.revenueByCashier, event.userId()).add(paise);
+    }
+
+    public BigDecimal getRevenue() {
+        return fromPaise(today().revenuePaise.sum());
+    }
+
+    public long getBillCount() {
+        return today().bills.sum();
+    }
+
+    public long getOrderCount() {
+        return today().orders.sum();
+    }
+
+    public long getOrderCountForUser(Long userId) {
+        LongAdder adder = today().ordersByCashier.get(userId);
+        return adder != null ? adder.sum() : 0;
+    }
+
+    public BigDecimal getRevenueForUser(Long userId) {
+        LongAdder adder = today().revenueByCashier.get(userId);
+        return adder != null ? fromPaise(adder.sum()) : BigDecimal.ZERO.setScale(2);
+    }
+
+    /**
+     * Today's revenue per payment mode. Only modes with sales are included.
+     */
+    public Map<String, BigDecimal> getRevenueByPaymentMode() {
+        Map<String, BigDecimal> result = new HashMap<>();
+        today().revenueByMode.forEach((mode, adder) -> {
+            long paise = adder.sum();
+            if (paise != 0) {
+                result.put(mode.name(), fromPaise(paise));
+            }
+        });
+        return result;
+    }
+
+    private DayCounters today() {
+        LocalDate today = LocalDate.now(zone);
+        DayCounters counters = countersFor(today);
+        // Null only if the clock was set back across midnight; report an empty day rather than fail.
+        return counters != null ? counters : new DayCounters(today);
+    }
+
+    /**
+     * Returns the counters for {@code day}, rolling over to a fresh set if the day has moved on.
+     * Returns null for a day that has already been rolled past (e.g. a commit that straddled midnight)
+     * and for a day that has not started yet, so a future-dated event cannot roll the counters
+     * forward and hide today's totals.
+     */
+    private DayCounters countersFor(LocalDate day) {
+        if (day.isAfter(LocalDate.now(zone))) {
+            return null;
+        }
+        while (true) {
+            DayCounters counters = current.get();
+            if (counters.day.equals(day)) {
+                return counters;
+            }
+            if (counters.day.isAfter(day)) {
+                return null;
+            }
+            current.compareAndSet(counters, new DayCounters(day));
+        }
+    }
+
+    private static long toPaise(BigDecimal amount) {
+        return amount == null ? 0 : amount.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    private static BigDecimal fromPaise(long paise) {
+        return BigDecimal.valueOf(paise, 2);
+    }
+
+    private static final class DayCounters {
+        private final LocalDate day;
+        private final LongAdder revenuePaise = new LongAdder();
+        private final LongAdder bills = new LongAdder();
+        private final LongAdder orders = new LongAdder();
+        private final Map<PaymentMode, LongAdder> revenueByMode = new EnumMap<>(PaymentMode.class);
+        private final ConcurrentHashMap<Long, LongAdder> revenueByCashier = new ConcurrentHashMap<>();
+        private final ConcurrentHashMap<Long, LongAdder> ordersByCashier = new ConcurrentHashMap<>();
+
+        private DayCounters(LocalDate day) {
+            this.day = day;
+            // Filled once up front so the map is never structurally modified afterwards.
+            for (PaymentMode mode : PaymentMode.values()) {
+                revenueByMode.put(mode, new LongAdder());
+            }
+        }
+
+        private LongAdder adder(ConcurrentHashMap<Long, LongAdder> map, Long key) {
+            return map.computeIfAbsent(key, k -> new LongAdder());
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.crcafe.core.service;
+
+import com.crcafe.core.event.OrderCreatedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tracks today's best-selling items in memory using the Space-Saving algorithm.
+ * At most {@code capacity} items are tracked at once, so memory stays bounded no matter
+ * how many distinct items are sold. Any item whose true count exceeds
+ * (total quantity / capacity) is guaranteed to be present; reported counts may
+ * overestimate by at most {@link TrendingItem#maxOverestimate()}.
+ * The counters reset at the start of each business day (in {@code dashboard.timezone}, like
+ * {@link TodayMetrics}), and only orders dated on the current business day are counted.
+ */
+@Component
+public class TrendingItemsTracker {
+
+    private final int capacity;
+    private final ZoneId zone;
+    private final Map<Long, Counter> counters = new HashMap<>();
+    private LocalDate currentDay;
+
+    public TrendingItemsTracker(@Value("${dashboard.trending.capacity:64}") int capacity,
+                                @Value("${dashboard.timezone:Asia/Kolkata}") String timezone) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("dashboard.trending.capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.zone = ZoneId.of(timezone);
+        this.currentDay = LocalDate.now(zone);
+    }
+
+    /**
+     * Feeds committed orders into the sketch. Rolled-back orders are never counted, and neither
+     * are orders dated on another day, such as an offline backlog uploaded in bulk.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onOrderCreated(OrderCreatedEvent event) {
+        if (!event.orderDate().toLocalDate().equals(LocalDate.now(zone))) {
+            return;
+        }
+        for (OrderCreatedEvent.Line line : event.lines()) {
+            offer(line.itemId(), line.itemName(), line.quantity());
+        }
+    }
+
+    public synchronized void offer(Long itemId, String name, long quantity) {
+        rollOverIfNeeded();
+        Counter counter = counters.get(itemId);
+        if (counter != null) {
+            counter.count += quantity;
+            return;
+        }
+        if (counters.size() < capacity) {
+            counters.put(itemId, new Counter(itemId, name, quantity, 0));
+            return;
+        }
+        // Replace the smallest counter; the newcomer inherits its count as possible error.
+        Counter smallest = null;
+        for (Counter c : counters.values()) {
+            if (smallest == null || c.count < smallest.count) {
+                smallest = c;
+            }
+        }
+        counters.remove(smallest.itemId);
+        counters.put(itemId, new Counter(itemId, name, smallest.count + quantity, smallest.count));
+    }
+
+    public synchronized List<TrendingItem> getTopItems(int limit) {
+        rollOverIfNeeded();
+        List<TrendingItem> items = new ArrayList<>(counters.size());
+        for (Counter c : counters.values()) {
+            items.add(new TrendingItem(c.itemId, c.name, c.count, c.error));
+        }
+        items.sort(Comparator.comparingLong(TrendingItem::count).reversed());
+        return items.size() > limit ? new ArrayList<>(items.subList(0, limit)) : items;
+    }
+
+    private void rollOverIfNeeded() {
+        LocalDate today = LocalDate.now(zone);
+        if (!today.equals(currentDay)) {
+            counters.clear();
+            currentDay = today;
+        }
+    }
+
+    public record TrendingItem(Long itemId, String name, long count, long maxOverestimate) {
+    }
+
+    private static final class Counter {
+        private final Long itemId;
+        private final String name;
+        private long count;
+        private final long error;
+
+        private Counter(Long itemId, String name, long count, long error) {
+            this.itemId = itemId;
+            this.name = name;
+            this.count = count;
+            this.error = error;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.crcafe.core.service;
+
+import com.crcafe.core.event.UserChangedEvent;
+import com.crcafe.core.model.User;
+import com.crcafe.core.model.UserRole;
+import com.crcafe.core.repository.UserRepository;
+import com.crcafe.core.repository.UserSummaryProjection;
+import com.crcafe.core.security.UserPrincipal;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+
+/**
+ * Bounded, expiring cache of who each user is (id, username, role, profile image), looked up
+ * by id or by username. It never holds password hashes or refresh tokens.
+ * <p>
+ * Users are only cached while they exist; an unknown id or name is looked up again each time.
+ * Entries are evicted once a user change has been committed on this node. Other nodes see the
+ * change when their entries expire, after at most {@code user.cache.ttl-seconds}.
+ */
+@Component
+public class UserCache {
+
+    private final UserRepository userRepository;
+    private final Cache<Long, Entry> byId;
+    private final Cache<String, Entry> byUsername;
+
+    public UserCache(UserRepository userRepository, MeterRegistry meterRegistry,
+                     @Value("${user.cache.max-entries:1000}") long maxEntries,
+                     @Value("${user.cache.ttl-seconds:60}") long ttlSeconds) {
+        this.userRepository = userRepository;
+        this.byId = build(maxEntries, Duration.ofSeconds(ttlSeconds));
+        this.byUsername = build(maxEntries, Duration.ofSeconds(ttlSeconds));
+        CaffeineCacheMetrics.monitor(meterRegistry, byId, "users.by-id");
+        CaffeineCacheMetrics.monitor(meterRegistry, byUsername, "users.by-username");
+    }
+
+    /**
+     * Returns the user with {@code userId}, or null if there is none.
+     */
+    public Entry get(Long userId) {
+        Entry entry = byId.get(userId, id -> userRepository.findSummaryById(id).map(Entry::of).orElse(null));
+        if (entry != null) {
+            byUsername.put(entry.username(), entry);
+        }
+        return entry;
+    }
+
+    /**
+     * Returns the user named {@code username}, or null if there is none.
+     */
+    public Entry get(String username) {
+        Entry entry = byUsername.get(username, name -> userRepository.findSummaryByUsername(name).map(Entry::of).orElse(null));
+        if (entry != null) {
+            byId.put(entry.id(), entry);
+        }
+        return entry;
+    }
+
+    // Also runs when the change was made outside a transaction.
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        byId.invalidate(event.userId());
+        byUsername.invalidate(event.username());
+        if (event.previousUsername() != null) {
+            byUsername.invalidate(event.previousUsername());
+        }
+    }
+
+    private static <K> Cache<K, Entry> build(long maxEntries, Duration ttl) {
+        return Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    public record Entry(Long id, String username, UserRole role, String profileImageUrl) {
+
+        static Entry of(UserSummaryProjection user) {
+            return new Entry(user.getId(), user.getUsername(), user.getRole(), user.getProfileImageUrl());
+        }
+
+        public UserPrincipal toPrincipal() {
+            return new UserPrincipal(id, username, role);
+        }
+
+        /**
+         * A detached {@link User} with this entry's values (but no password); fine for
+         * referencing the user from new rows.
+         */
+        public User toUser() {
+            User user = new User();
+            user.setId(id);
+            user.setUsername(username);
+            user.setRole(role);
+            user.setProfileImageUrl(profileImageUrl);
+            return user;
+        }
+    }
+}
@@ -2,8 +2,10 @@ package com.crcafe.core.service;
 
 import com.crcafe.core.model.User;
 import com.crcafe.core.model.UserRole;
+import com.crcafe.core.repository.UserSummaryProjection;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * Interface for user management operations.
@@ -12,10 +14,21 @@ public interface UserService {
     User createUser(String username, String password, UserRole role, String profileImageUrl);
     Optional<User> findByUsername(String username);
     List<User> findAllUsers();
+    /**
+     * Passes every user (without password) to {@code consumer} as it is read from the database.
+     */
+    void forEachUser(Consumer<UserSummaryProjection> consumer);
     User findUserById(Long id);
     void deleteUser(Long id);
     User updateUser(Long id, String username, String role, String profileImageUrl);
     User getCurrentUser();
-     void saveUserRefreshToken(String username, String refreshToken);
+    /**
+     * Id of the authenticated caller, normally taken straight from the request's principal.
+     */
+    Long getCurrentUserId();
+    /**
+     * Replaces a user's password hash with {@code encodedPassword}, e.g. a rehash at a higher cost.
+     */
+    void updatePasswordHash(String username, String encodedPassword);
 
 }
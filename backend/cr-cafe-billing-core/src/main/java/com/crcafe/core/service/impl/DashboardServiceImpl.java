@@ -1,158 +1,187 @@
 package com.crcafe.core.service.impl;
 
 import com.crcafe.core.dto.DashboardSummaryDto;
-import com.crcafe.core.model.Bill;
-import com.crcafe.core.model.Order;
-import com.crcafe.core.model.OrderItem;
+import com.crcafe.core.dto.RevenueBucket;
+import com.crcafe.core.dto.RevenueGranularity;
+import com.crcafe.core.dto.TransactionCursor;
+import com.crcafe.core.dto.TransactionFilter;
+import com.crcafe.core.dto.TransactionRow;
+import com.crcafe.core.model.OrderStatus;
 import com.crcafe.core.repository.BillRepository;
+import com.crcafe.core.repository.DailyOrderRollupRepository;
+import com.crcafe.core.repository.DailySalesRollupRepository;
 import com.crcafe.core.repository.OrderItemRepository;
 import com.crcafe.core.repository.OrderRepository;
-import com.crcafe.core.repository.UserOrderCountProjection;
+import com.crcafe.core.repository.OrderStatusCountProjection;
+import com.crcafe.core.repository.RevenueBucketProjection;
+import com.crcafe.core.repository.SalesTotalsProjection;
+import com.crcafe.core.repository.TopItemProjection;
+import com.crcafe.core.service.DashboardCache;
 import com.crcafe.core.service.DashboardService;
+import com.crcafe.core.service.TodayMetrics;
+import com.crcafe.core.service.TrendingItemsTracker;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.util.stream.Collectors;
 
 @Service
 public class DashboardServiceImpl implements DashboardService {
+    // Lower bound used when a date range is only closed on the right.
+    private static final LocalDateTime OPEN_RANGE_START = LocalDateTime.of(1970, 1, 1, 0, 0);
+    // Upper bound on chart points per request, e.g. 41 days of hourly data.
+    private static final int MAX_REVENUE_BUCKETS = 1000;
+    private static final DateTimeFormatter HOUR_BUCKET_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
     private final BillRepository billRepository;
     private final OrderRepository orderRepository;
     private final OrderItemRepository orderItemRepository;
+    private final DailySalesRollupRepository rollupRepository;
+    private final DailyOrderRollupRepository orderRollupRepository;
+    private final TrendingItemsTracker trendingItemsTracker;
+    private final TodayMetrics todayMetrics;
+    private final DashboardCache dashboardCache;
 
-    public DashboardServiceImpl(BillRepository billRepository, OrderRepository orderRepository, OrderItemRepository orderItemRepository) {
+    public DashboardServiceImpl(BillRepository billRepository, OrderRepository orderRepository, OrderItemRepository orderItemRepository, DailySalesRollupRepository rollupRepository, DailyOrderRollupRepository orderRollupRepository, TrendingItemsTracker trendingItemsTracker, TodayMetrics todayMetrics, DashboardCache dashboardCache) {
         this.billRepository = billRepository;
         this.orderRepository = orderRepository;
         this.orderItemRepository = orderItemRepository;
+        this.rollupRepository = rollupRepository;
+        this.orderRollupRepository = orderRollupRepository;
+        this.trendingItemsTracker = trendingItemsTracker;
+        this.todayMetrics = todayMetrics;
+        this.dashboardCache = dashboardCache;
     }
 
     @Override
     public DashboardSummaryDto getSummary() {
-        List<Bill> bills = billRepository.findAll();
-        List<Order> orders = orderRepository.findAll();
-
-        BigDecimal totalRevenue = bills.stream()
-                .map(Bill::getFinalAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-        int totalOrders = orders.size();
-        BigDecimal averageBill = bills.isEmpty() ? BigDecimal.ZERO :
-                totalRevenue.divide(BigDecimal.valueOf(bills.size()), 2, BigDecimal.ROUND_HALF_UP);
-        BigDecimal totalDiscounts = bills.stream()
-                .map(b -> b.getDiscount() == null ? BigDecimal.ZERO : b.getDiscount())
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        // Today's stats
-        LocalDate today = LocalDate.now();
-        LocalDateTime startOfDay = today.atStartOfDay();
-        LocalDateTime endOfDay = today.atTime(LocalTime.MAX);
-        BigDecimal todaysRevenue = bills.stream()
-                .filter(b -> b.getBillDate() != null &&
-                        !b.getBillDate().isBefore(startOfDay) && !b.getBillDate().isAfter(endOfDay))
-                .map(Bill::getFinalAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-        int todaysOrders = (int) orders.stream()
-                .filter(o -> o.getOrderDate() != null &&
-                        !o.getOrderDate().isBefore(startOfDay) && !o.getOrderDate().isAfter(endOfDay))
-                .count();
+        return dashboardCache.summary(this::loadSummary);
+    }
+
+    private DashboardSummaryDto loadSummary() {
+        // All-time totals come from the pre-aggregated rollup and today's figures from the
+        // in-memory counters, so the cost does not grow with bill history. The order count comes
+        // from the order rollup; unlike the bill count it includes open and voided orders.
+        SalesTotalsProjection allTime = rollupRepository.getAllTimeTotals();
+
+        BigDecimal totalRevenue = allTime.getNetAmount();
+        long billCount = allTime.getBillCount();
+        BigDecimal averageBill = billCount == 0 ? BigDecimal.ZERO :
+                totalRevenue.divide(BigDecimal.valueOf(billCount), 2, RoundingMode.HALF_UP);
+
         return new DashboardSummaryDto(
                 totalRevenue,
-                totalOrders,
+                (int) orderRollupRepository.getAllTimeOrderCount(),
                 averageBill,
-                totalDiscounts,
-                todaysRevenue,
-                todaysOrders
+                allTime.getDiscountAmount(),
+                todayMetrics.getRevenue(),
+                (int) todayMetrics.getOrderCount()
         );
     }
 
     @Override
-    public List<Map<String, Object>> getTopItems() {
-        List<OrderItem> orderItems = orderItemRepository.findAll();
-        Map<String, Integer> itemSales = new java.util.HashMap<>();
-        for (OrderItem oi : orderItems) {
-            if (oi.getItem() == null || oi.getItem().getName() == null) continue;
-            String name = oi.getItem().getName();
-            itemSales.put(name, itemSales.getOrDefault(name, 0) + oi.getQuantity());
-        }
-        return itemSales.entrySet().stream()
-                .sorted((a, b) -> b.getValue() - a.getValue())
-                .limit(10)
-                .map(e -> {
+    public List<Map<String, Object>> getTopItems(LocalDateTime from, LocalDateTime to, int limit) {
+        return dashboardCache.topItems(from, to, limit, () -> loadTopItems(from, to, limit));
+    }
+
+    private List<Map<String, Object>> loadTopItems(LocalDateTime from, LocalDateTime to, int limit) {
+        Pageable topN = PageRequest.of(0, limit);
+        List<TopItemProjection> rows = (from == null && to == null)
+                ? orderItemRepository.findTopSellingItems(topN)
+                : orderItemRepository.findTopSellingItemsBetween(
+                        from != null ? from : OPEN_RANGE_START,
+                        to != null ? to : LocalDate.now().plusDays(1).atStartOfDay(),
+                        topN);
+        return rows.stream()
+                .map(row -> {
                     Map<String, Object> map = new java.util.HashMap<>();
-                    map.put("name", e.getKey());
-                    map.put("sales", e.getValue());
+                    map.put("itemId", row.getItemId());
+                    map.put("name", row.getName());
+                    map.put("sales", row.getQuantity());
+                    map.put("revenue", row.getRevenue());
                     return map;
                 })
                 .toList();
     }
 
     @Override
-    public List<Map<String, Object>> getRevenue(String range) {
-        List<Bill> bills = billRepository.findAll();
-        List<Order> orders = orderRepository.findAll();
-        Map<String, Map<String, Object>> result = new java.util.LinkedHashMap<>();
-        java.time.format.DateTimeFormatter formatter;
-        java.util.function.Function<java.time.LocalDateTime, String> labelFunc;
-        if ("month".equalsIgnoreCase(range)) {
-            formatter = java.time.format.DateTimeFormatter.ofPattern("yyyy-MM");
-            labelFunc = dt -> dt.format(formatter);
-        } else if ("week".equalsIgnoreCase(range)) {
-            formatter = java.time.format.DateTimeFormatter.ofPattern("YYYY-'W'ww");
-            labelFunc = dt -> dt.format(formatter);
-        } else {
-            formatter = java.time.format.DateTimeFormatter.ofPattern("yyyy-MM-dd");
-            labelFunc = dt -> dt.format(formatter);
+    public List<Map<String, Object>> getTrendingItems(int limit) {
+        return trendingItemsTracker.getTopItems(limit).stream()
+                .map(item -> {
+                    Map<String, Object> map = new java.util.HashMap<>();
+                    map.put("itemId", item.itemId());
+                    map.put("name", item.name());
+                    map.put("sales", item.count());
+                    map.put("maxOverestimate", item.maxOverestimate());
+                    return map;
+                })
+                .toList();
+    }
+
+    @Override
+    public List<RevenueBucket> getRevenue(RevenueGranularity granularity, LocalDateTime from, LocalDateTime to) {
+        // Widen [from, to) outwards to whole buckets.
+        LocalDateTime start = granularity.truncate(from);
+        LocalDateTime end = granularity.truncate(to);
+        if (end.isBefore(to)) {
+            end = granularity.next(end);
         }
-        for (Bill bill : bills) {
-            if (bill.getBillDate() == null) continue;
-            String label = labelFunc.apply(bill.getBillDate());
-            Map<String, Object> entry = result.computeIfAbsent(label, l -> new java.util.HashMap<>());
-            entry.put("label", label);
-            entry.put("revenue", ((BigDecimal) entry.getOrDefault("revenue", BigDecimal.ZERO)).add(bill.getFinalAmount()));
-            entry.put("orders", ((Integer) entry.getOrDefault("orders", 0)) + 1);
+        if (!start.isBefore(end)) {
+            throw new IllegalArgumentException("Revenue range is empty: from must be before to");
         }
-        return new java.util.ArrayList<>(result.values());
+        LocalDateTime bucketsEnd = end;
+        return dashboardCache.revenue(granularity, start, end, () -> loadRevenue(granularity, start, bucketsEnd));
     }
 
-    @Override
-    public List<Map<String, Object>> getRecentTransactions() {
-        List<Object[]> rows = billRepository.fetchRecentTransactions();
-
-        List<Map<String, Object>> result = new ArrayList<>();
-        for (Object[] row : rows) {
-            Map<String, Object> map = new HashMap<>();
-            map.put("user_id", row[0]);
-            map.put("handled_by", row[1]);
-            map.put("order_id", row[2]);
-            map.put("receipt_id", row[3]);
-            map.put("final_amount", row[4]);
-            map.put("date", row[5]);
-            result.add(map);
+    private List<RevenueBucket> loadRevenue(RevenueGranularity granularity, LocalDateTime start, LocalDateTime end) {
+        // Lay out every bucket first so that periods without sales are reported as zero.
+        Map<LocalDateTime, RevenueBucket> buckets = new LinkedHashMap<>();
+        for (LocalDateTime t = start; t.isBefore(end); t = granularity.next(t)) {
+            if (buckets.size() == MAX_REVENUE_BUCKETS) {
+                throw new IllegalArgumentException("Revenue range is too large for " + granularity.name().toLowerCase()
+                        + " buckets (max " + MAX_REVENUE_BUCKETS + ")");
+            }
+            buckets.put(t, new RevenueBucket(granularity.label(t), t, BigDecimal.ZERO, 0));
         }
-        return result;
+
+        // One grouped query over the window; hourly data needs the bills themselves,
+        // everything coarser is answered from the daily rollup.
+        List<RevenueBucketProjection> rows = switch (granularity) {
+            case HOUR -> billRepository.getHourlyRevenue(start, end);
+            case DAY -> rollupRepository.getRevenueByDay(start.toLocalDate(), end.toLocalDate());
+            case WEEK -> rollupRepository.getRevenueByWeek(start.toLocalDate(), end.toLocalDate());
+            case MONTH -> rollupRepository.getRevenueByMonth(start.toLocalDate(), end.toLocalDate());
+        };
+        for (RevenueBucketProjection row : rows) {
+            LocalDateTime bucketStart = granularity == RevenueGranularity.HOUR
+                    ? LocalDateTime.parse(row.getBucket(), HOUR_BUCKET_FORMAT)
+                    : LocalDate.parse(row.getBucket()).atStartOfDay();
+            RevenueBucket bucket = buckets.get(bucketStart);
+            if (bucket != null) {
+                bucket.setRevenue(row.getRevenue());
+                bucket.setOrders(row.getOrders());
+            }
+        }
+        return new ArrayList<>(buckets.values());
+    }
+
+    @Override
+    public List<TransactionRow> getRecentTransactions() {
+        return dashboardCache.recentTransactions(() -> billRepository.findTransactions(TransactionFilter.NONE, null, false, 10));
     }
 
     @Override
-    public Map<String, Object> getRecentTransactionsPaginated(int page, int size) {
+    public Map<String, Object> getRecentTransactionsWithFilters(int page, int size, TransactionFilter filter) {
         int offset = (page - 1) * size;
-        List<Object[]> rows = billRepository.fetchRecentTransactionsPaginated(size, offset);
-        long totalCount = billRepository.countTotalTransactions();
-
-        List<Map<String, Object>> transactions = new ArrayList<>();
-        for (Object[] row : rows) {
-            Map<String, Object> map = new HashMap<>();
-            map.put("user_id", row[0]);
-            map.put("handled_by", row[1]);
-            map.put("order_id", row[2]);
-            map.put("receipt_id", row[3]);
-            map.put("final_amount", row[4]);
-            map.put("date", row[5]);
-            map.put("payment_mode", row[6]);
-            transactions.add(map);
-        }
+        List<TransactionRow> transactions = billRepository.findTransactionsByOffset(filter, offset, size);
+        long totalCount = billRepository.countTransactions(filter);
 
         Map<String, Object> result = new HashMap<>();
         result.put("transactions", transactions);
@@ -165,80 +194,104 @@ public class DashboardServiceImpl implements DashboardService {
     }
 
     @Override
-    public Map<String, Object> getRecentTransactionsWithFilters(int page, int size, String cashier, 
-            java.math.BigDecimal minValue, java.math.BigDecimal maxValue, 
-            java.time.LocalDateTime startDate, java.time.LocalDateTime endDate, String paymentMode) {
-        int offset = (page - 1) * size;
-        List<Object[]> rows = billRepository.fetchRecentTransactionsWithFilters(
-            cashier, minValue, maxValue, startDate, endDate, paymentMode, size, offset);
-        long totalCount = billRepository.countTotalTransactionsWithFilters(
-            cashier, minValue, maxValue, startDate, endDate, paymentMode);
-
-        List<Map<String, Object>> transactions = new ArrayList<>();
-        for (Object[] row : rows) {
-            Map<String, Object> map = new HashMap<>();
-            map.put("user_id", row[0]);
-            map.put("handled_by", row[1]);
-            map.put("order_id", row[2]);
-            map.put("receipt_id", row[3]);
-            map.put("final_amount", row[4]);
-            map.put("date", row[5]);
-            map.put("payment_mode", row[6]);
-            transactions.add(map);
+    public Map<String, Object> getRecentTransactionsWithFiltersPage(String cursor, boolean newer, int size, boolean includeTotal,
+            TransactionFilter filter) {
+        TransactionCursor position = cursor != null ? TransactionCursor.decode(cursor) : null;
+        // Read one extra row: it only tells us whether another page exists in this direction.
+        List<TransactionRow> rows = billRepository.findTransactions(filter, position, newer, size + 1);
+        boolean hasMore = rows.size() > size;
+        List<TransactionRow> transactions = new ArrayList<>(hasMore ? rows.subList(0, size) : rows);
+        if (newer) {
+            // Rows read towards newer bills arrive oldest-first.
+            Collections.reverse(transactions);
+        }
+
+        String nextCursor = null;
+        String prevCursor = null;
+        if (!transactions.isEmpty()) {
+            // Older bills exist if we read older and found more, or if we came from an older page.
+            if (newer || hasMore) {
+                nextCursor = transactions.get(transactions.size() - 1).toCursor().encode();
+            }
+            // Newer bills exist if we read newer and found more, or if we started from a cursor.
+            if (newer ? hasMore : position != null) {
+                prevCursor = transactions.get(0).toCursor().encode();
+            }
         }
 
         Map<String, Object> result = new HashMap<>();
         result.put("transactions", transactions);
-        result.put("totalCount", totalCount);
-        result.put("currentPage", page);
-        result.put("totalPages", (int) Math.ceil((double) totalCount / size));
         result.put("pageSize", size);
-
+        result.put("nextCursor", nextCursor);
+        result.put("prevCursor", prevCursor);
+        if (includeTotal) {
+            result.put("totalCount", billRepository.countTransactions(filter));
+        }
         return result;
     }
 
     @Override
     public List<String> getAllCashiers() {
-        return billRepository.getAllCashiers();
+        return dashboardCache.cashiers(billRepository::getAllCashiers);
     }
 
     @Override
     public List<Map<String,Object>> getUsersPerformance(String range) {
-
-        List<UserOrderCountProjection> projections = switch (range.toLowerCase()) {
-            case "day" -> orderRepository.getOrdersGroupedByUserForToday();
-            case "week" -> orderRepository.getOrdersGroupedByUserForThisWeek();
-            case "month" -> orderRepository.getOrdersGroupedByUserForThisMonth();
+        RevenueGranularity period = switch (range.toLowerCase()) {
+            case "day" -> RevenueGranularity.DAY;
+            case "week" -> RevenueGranularity.WEEK;
+            case "month" -> RevenueGranularity.MONTH;
             default -> throw new IllegalArgumentException("Invalid range: " + range);
         };
+        LocalDateTime from = period.truncate(LocalDateTime.now());
+        return getUsersPerformance(from, period.next(from));
+    }
 
-        // Convert the projection list to a simple list of maps before returning
-        return projections.stream()
+    @Override
+    public List<Map<String,Object>> getUsersPerformance(LocalDateTime from, LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException("Performance range is empty: from must be before to");
+        }
+        return dashboardCache.usersPerformance(from, to, () -> loadUsersPerformance(from, to));
+    }
+
+    private List<Map<String,Object>> loadUsersPerformance(LocalDateTime from, LocalDateTime to) {
+        return orderRepository.getCashierPerformance(from, to).stream()
                 .map(p -> {
+                    // Average ticket is the mean bill value; orders without a bill carry no revenue yet.
+                    BigDecimal averageTicket = p.getBills() == 0 ? BigDecimal.ZERO.setScale(2) :
+                            p.getRevenue().divide(BigDecimal.valueOf(p.getBills()), 2, RoundingMode.HALF_UP);
                     Map<String, Object> map = new HashMap<>();
+                    map.put("userId", p.getUserId());
                     map.put("username", p.getUsername());
                     map.put("orders", p.getOrders());
+                    map.put("bills", p.getBills());
+                    map.put("revenue", p.getRevenue());
+                    map.put("discount", p.getDiscount());
+                    map.put("averageTicket", averageTicket);
                     return map;
                 })
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public Map<String, Long> getOrderStatusCounts(LocalDateTime from, LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException("Order status range is empty: from must be before to");
+        }
+        // Report every status, including those without orders.
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (OrderStatus status : OrderStatus.values()) {
+            counts.put(status.name(), 0L);
+        }
+        for (OrderStatusCountProjection row : orderRepository.countByStatusBetween(from, to)) {
+            counts.put(row.getStatus().name(), row.getOrders());
+        }
+        return counts;
+    }
+
     // Add this method to get today's revenue by payment method
     public Map<String, BigDecimal> getTodaysRevenueByPaymentMode() {
-        List<Bill> bills = billRepository.findAll();
-        LocalDate today = LocalDate.now();
-        LocalDateTime startOfDay = today.atStartOfDay();
-        LocalDateTime endOfDay = today.atTime(LocalTime.MAX);
-        Map<String, BigDecimal> revenueByPaymentMode = new HashMap<>();
-        for (Bill bill : bills) {
-            if (bill.getBillDate() != null &&
-                !bill.getBillDate().isBefore(startOfDay) && !bill.getBillDate().isAfter(endOfDay)) {
-                String paymentMode = bill.getPaymentMode() != null ? bill.getPaymentMode().name() : "UNKNOWN";
-                BigDecimal amount = bill.getFinalAmount() != null ? bill.getFinalAmount() : BigDecimal.ZERO;
-                revenueByPaymentMode.put(paymentMode,
-                    revenueByPaymentMode.getOrDefault(paymentMode, BigDecimal.ZERO).add(amount));
-            }
-        }
-        return revenueByPaymentMode;
+        return todayMetrics.getRevenueByPaymentMode();
     }
-} 
\ No newline at end of file
+}
@@ -1,53 +1,137 @@
 package com.crcafe.core.service.impl;
 
+import com.crcafe.core.dto.BulkOrder;
+import com.crcafe.core.dto.BulkOrderResult;
+import com.crcafe.core.event.BillGeneratedEvent;
+import com.crcafe.core.event.OrderCreatedEvent;
 import com.crcafe.core.model.*;
+import com.crcafe.core.outbox.OutboxWriter;
+import com.crcafe.core.receipt.ReceiptIdGenerator;
 import com.crcafe.core.repository.*;
+import com.crcafe.core.service.MenuCatalog;
 import com.crcafe.core.service.OrderService;
+import com.crcafe.core.service.SalesRollupService;
+import com.crcafe.core.service.TodayMetrics;
+import com.crcafe.core.service.UserCache;
 import jakarta.persistence.EntityNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.time.Duration;
 import java.time.LocalDateTime;
-import java.time.LocalDate;
-import java.time.LocalTime;
-import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.UUID;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Service
 public class OrderServiceImpl implements OrderService {
 
+    private static final Logger log = LoggerFactory.getLogger(OrderServiceImpl.class);
+
     private final OrderRepository orderRepository;
     private final BillRepository billRepository;
     private final UserRepository userRepository;
     private final ItemRepository itemRepository;
     private final DiscountRepository discountRepository;
+    private final SalesRollupService salesRollupService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TodayMetrics todayMetrics;
+    private final MenuCatalog menuCatalog;
+    private final UserCache userCache;
+    private final ReceiptIdGenerator receiptIdGenerator;
+    private final OutboxWriter outboxWriter;
+    private final TransactionTemplate transactionTemplate;
+    private final int bulkMaxOrders;
+    private final int bulkChunkSize;
+    private final Duration bulkMaxAge;
 
-    public OrderServiceImpl(OrderRepository orderRepository, BillRepository billRepository, UserRepository userRepository, ItemRepository itemRepository, DiscountRepository discountRepository) {
+    public OrderServiceImpl(OrderRepository orderRepository, BillRepository billRepository, UserRepository userRepository, ItemRepository itemRepository, DiscountRepository discountRepository, SalesRollupService salesRollupService, ApplicationEventPublisher eventPublisher, TodayMetrics todayMetrics, MenuCatalog menuCatalog, UserCache userCache,
+                            ReceiptIdGenerator receiptIdGenerator, OutboxWriter outboxWriter,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${orders.bulk.max-orders:2000}") int bulkMaxOrders,
+                            @Value("${orders.bulk.chunk-size:200}") int bulkChunkSize,
+                            @Value("${orders.bulk.max-age-days:7}") int bulkMaxAgeDays) {
         this.orderRepository = orderRepository;
         this.billRepository = billRepository;
         this.userRepository = userRepository;
         this.itemRepository = itemRepository;
         this.discountRepository = discountRepository;
+        this.salesRollupService = salesRollupService;
+        this.eventPublisher = eventPublisher;
+        this.todayMetrics = todayMetrics;
+        this.menuCatalog = menuCatalog;
+        this.userCache = userCache;
+        this.receiptIdGenerator = receiptIdGenerator;
+        this.outboxWriter = outboxWriter;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.bulkMaxOrders = bulkMaxOrders;
+        this.bulkChunkSize = bulkChunkSize;
+        this.bulkMaxAge = Duration.ofDays(bulkMaxAgeDays);
     }
 
     @Override
     @Transactional
     public Order createOrder(List<OrderItem> orderItems, Long userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new EntityNotFoundException("User not found with id: " + userId));
+        Order savedOrder = orderRepository.save(newOrder(orderItems, userId));
+        salesRollupService.recordOrder(savedOrder);
+        publishOrderCreated(savedOrder);
+        return savedOrder;
+    }
+
+    /**
+     * Creates the order and its bill in one transaction, billing the order object in hand
+     * instead of reading it back.
+     */
+    @Override
+    @Transactional
+    public Bill checkout(List<OrderItem> orderItems, Long userId, Long discountId, PaymentMode paymentMode) {
+        Discount discount = null;
+        if (discountId != null) {
+            discount = discountRepository.findById(discountId)
+                    .orElseThrow(() -> new EntityNotFoundException("Discount not found with id: " + discountId));
+        }
+        Order savedOrder = orderRepository.save(newOrder(orderItems, userId));
+        Bill savedBill = billRepository.save(newBill(savedOrder, discount, paymentMode));
+        salesRollupService.recordOrder(savedOrder);
+        salesRollupService.recordBill(savedBill);
+        publishOrderCreated(savedOrder);
+        publishBillGenerated(savedBill);
+        return savedBill;
+    }
+
+    /**
+     * Builds an unsaved order for {@code userId}, pricing every line from the menu.
+     */
+    private Order newOrder(List<OrderItem> orderItems, Long userId) {
+        UserCache.Entry user = userCache.get(userId);
+        if (user == null) {
+            throw new EntityNotFoundException("User not found with id: " + userId);
+        }
 
         Order order = new Order();
-        order.setUser(user);
+        order.setUser(user.toUser());
 
+        Map<Long, Item> items = resolveItems(orderItems.stream().map(orderItem -> orderItem.getItem().getId()).toList());
         BigDecimal totalAmount = BigDecimal.ZERO;
 
         for (OrderItem orderItem : orderItems) {
-            Item item = itemRepository.findById(orderItem.getItem().getId())
-                    .orElseThrow(() -> new EntityNotFoundException("Item not found with id: " + orderItem.getItem().getId()));
+            Item item = items.get(orderItem.getItem().getId());
+            if (item == null) {
+                throw new EntityNotFoundException("Item not found with id: " + orderItem.getItem().getId());
+            }
 
             if (!item.isAvailable()) {
                 throw new IllegalStateException("Item " + item.getName() + " is not available.");
@@ -61,32 +145,227 @@ public class OrderServiceImpl implements OrderService {
 
         order.setOrderItems(orderItems);
         order.setTotalAmount(totalAmount);
+        return order;
+    }
+
+    /**
+     * Looks up every item in the menu snapshot and reads the ones it misses
+     * (e.g. items created on another node) with a single batched query.
+     * Ids that do not exist at all are simply absent from the result.
+     */
+    private Map<Long, Item> resolveItems(Collection<Long> itemIds) {
+        Map<Long, Item> items = new HashMap<>();
+        for (Long itemId : itemIds) {
+            MenuCatalog.Entry entry = menuCatalog.get(itemId);
+            if (entry != null) {
+                items.put(itemId, entry.toItem());
+            }
+        }
+        Set<Long> missing = itemIds.stream()
+                .filter(itemId -> !items.containsKey(itemId))
+                .collect(Collectors.toSet());
+        if (!missing.isEmpty()) {
+            for (Item item : itemRepository.findAllById(missing)) {
+                items.put(item.getId(), item);
+            }
+        }
+        return items;
+    }
+
+    /**
+     * Validates the whole upload up front against reference data read once, then writes the
+     * valid orders in chunks, one transaction per chunk. Ids come from pooled blocks, so the
+     * inserts of a chunk go to the database as JDBC batches. If a chunk fails to commit, its
+     * orders are retried one by one so that a single bad order cannot sink the others.
+     */
+    @Override
+    public List<BulkOrderResult> createOrders(Long userId, List<BulkOrder> orders) {
+        if (orders.size() > bulkMaxOrders) {
+            throw new IllegalArgumentException("At most " + bulkMaxOrders + " orders can be uploaded at once");
+        }
+
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new EntityNotFoundException("User not found with id: " + userId));
+        Map<Long, Discount> discounts = discountRepository.findAllById(
+                        orders.stream().map(BulkOrder::discountId).filter(id -> id != null).collect(Collectors.toSet())).stream()
+                .collect(Collectors.toMap(Discount::getId, d -> d));
+        Map<Long, Item> items = resolveItems(orders.stream()
+                .flatMap(order -> order.lines().stream())
+                .map(BulkOrder.Line::itemId)
+                .collect(Collectors.toSet()));
+
+        BulkOrderResult[] results = new BulkOrderResult[orders.size()];
+        List<PlannedOrder> planned = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < orders.size(); i++) {
+            BulkOrder request = orders.get(i);
+            try {
+                planned.add(plan(i, request, user, now, discounts, items));
+            } catch (EntityNotFoundException | IllegalStateException e) {
+                results[i] = BulkOrderResult.failed(request.correlationId(), e.getMessage());
+            }
+        }
+
+        for (int from = 0; from < planned.size(); from += bulkChunkSize) {
+            List<PlannedOrder> chunk = planned.subList(from, Math.min(from + bulkChunkSize, planned.size()));
+            try {
+                writeChunk(chunk, results);
+            } catch (RuntimeException e) {
+                log.warn("Bulk order chunk of {} failed, retrying its orders individually", chunk.size(), e);
+                for (PlannedOrder order : chunk) {
+                    try {
+                        writeChunk(List.of(order), results);
+                    } catch (RuntimeException single) {
+                        results[order.index()] = BulkOrderResult.failed(order.request().correlationId(),
+                                "Could not save order: " + single.getMessage());
+                    }
+                }
+            }
+        }
+        return List.of(results);
+    }
+
+    private PlannedOrder plan(int index, BulkOrder request, User user, LocalDateTime now,
+                              Map<Long, Discount> discounts, Map<Long, Item> items) {
+        if (request.orderDate() != null) {
+            // A future date would be counted in a day that has not started yet (and skipped by today's figures).
+            if (request.orderDate().isAfter(now)) {
+                throw new IllegalStateException("Order date " + request.orderDate() + " is in the future");
+            }
+            if (request.orderDate().isBefore(now.minus(bulkMaxAge))) {
+                throw new IllegalStateException("Order date " + request.orderDate() + " is more than "
+                        + bulkMaxAge.toDays() + " days old");
+            }
+        }
+        if (request.lines().isEmpty()) {
+            throw new IllegalStateException("Order must contain at least one item");
+        }
+        for (BulkOrder.Line line : request.lines()) {
+            Item item = items.get(line.itemId());
+            if (item == null) {
+                throw new EntityNotFoundException("Item not found with id: " + line.itemId());
+            }
+            if (!item.isAvailable()) {
+                throw new IllegalStateException("Item " + item.getName() + " is not available.");
+            }
+        }
+        Discount discount = null;
+        if (request.discountId() != null) {
+            discount = discounts.get(request.discountId());
+            if (discount == null) {
+                throw new EntityNotFoundException("Discount not found with id: " + request.discountId());
+            }
+        }
+        return new PlannedOrder(index, request, user, items, discount);
+    }
+
+    /**
+     * Saves the given orders (and their bills) in one transaction. Entities are built inside the
+     * transaction so that a retry after a failed attempt starts from fresh, unsaved objects.
+     */
+    private void writeChunk(List<PlannedOrder> chunk, BulkOrderResult[] results) {
+        List<BulkOrderResult> written = transactionTemplate.execute(status -> {
+            List<Order> orders = new ArrayList<>(chunk.size());
+            List<Bill> bills = new ArrayList<>();
+            Bill[] billsByOrder = new Bill[chunk.size()];
+            for (int i = 0; i < chunk.size(); i++) {
+                PlannedOrder planned = chunk.get(i);
+                Order order = planned.toOrder();
+                orders.add(order);
+                if (planned.request().paymentMode() != null) {
+                    Bill bill = newBill(order, planned.discount(), planned.request().paymentMode());
+                    bill.setBillDate(order.getOrderDate());
+                    bills.add(bill);
+                    billsByOrder[i] = bill;
+                }
+            }
+            orderRepository.saveAll(orders);
+            billRepository.saveAll(bills);
+            // Send the whole chunk as batched inserts now, so failures surface inside this transaction.
+            orderRepository.flush();
+            salesRollupService.recordOrders(orders);
+            salesRollupService.recordBills(bills);
 
-        return orderRepository.save(order);
+            List<BulkOrderResult> chunkResults = new ArrayList<>(chunk.size());
+            for (int i = 0; i < chunk.size(); i++) {
+                Order order = orders.get(i);
+                Bill bill = billsByOrder[i];
+                publishOrderCreated(order);
+                if (bill != null) {
+                    publishBillGenerated(bill);
+                }
+                chunkResults.add(new BulkOrderResult(chunk.get(i).request().correlationId(), true, order.getId(),
+                        bill != null ? bill.getId() : null, bill != null ? bill.getReceiptId() : null, null));
+            }
+            return chunkResults;
+        });
+        for (int i = 0; i < chunk.size(); i++) {
+            results[chunk.get(i).index()] = written.get(i);
+        }
     }
 
     @Override
     @Transactional
     public Bill generateBill(Long orderId, Long discountId, PaymentMode paymentMode) {
-        if (findBillByOrderId(orderId).isPresent()) {
-            throw new IllegalStateException("A bill for order ID " + orderId + " has already been generated.");
+        // Claim the order first: of two concurrent requests only one moves it out of OPEN,
+        // and the row stays locked until this transaction ends. Nothing is read before the
+        // claim, so a failed claim reads the status the other request committed.
+        transition(orderId, OrderStatus.BILLED);
+        Order order = orderRepository.findById(orderId)
+                .orElseThrow(() -> new EntityNotFoundException("Order not found with id: " + orderId));
+
+        Discount discount = null;
+        if (discountId != null) {
+            discount = discountRepository.findById(discountId)
+                    .orElseThrow(() -> new EntityNotFoundException("Discount not found with id: " + discountId));
         }
 
-        Order order = orderRepository.findById(orderId)
+        Bill savedBill = billRepository.save(newBill(order, discount, paymentMode));
+        // Keep the dashboard rollup in step with the bills table (same transaction).
+        salesRollupService.recordBill(savedBill);
+        publishBillGenerated(savedBill);
+        return savedBill;
+    }
+
+    @Override
+    @Transactional
+    public Order voidOrder(Long orderId) {
+        transition(orderId, OrderStatus.VOID);
+        return orderRepository.findById(orderId)
+                .orElseThrow(() -> new EntityNotFoundException("Order not found with id: " + orderId));
+    }
+
+    /**
+     * Moves an OPEN order to {@code status}; the extra status lookup only runs when that fails.
+     */
+    private void transition(Long orderId, OrderStatus status) {
+        if (orderRepository.compareAndSetStatus(orderId, OrderStatus.OPEN, status) == 1) {
+            return;
+        }
+        OrderStatus current = orderRepository.findStatusById(orderId)
                 .orElseThrow(() -> new EntityNotFoundException("Order not found with id: " + orderId));
+        throw switch (current) {
+            case BILLED -> new IllegalStateException("A bill for order ID " + orderId + " has already been generated.");
+            case VOID -> new IllegalStateException("Order ID " + orderId + " has been voided.");
+            // Lost a race with a transition that was rolled back since; the caller may retry.
+            case OPEN -> new IllegalStateException("Order ID " + orderId + " is being updated by another request.");
+        };
+    }
 
+    /**
+     * Builds an unsaved bill for {@code order}, applying {@code discount} if it is active,
+     * and marks the order as billed (orders in hand are new; existing ones are already claimed).
+     */
+    private Bill newBill(Order order, Discount discount, PaymentMode paymentMode) {
+        order.setStatus(OrderStatus.BILLED);
         Bill bill = new Bill();
         bill.setOrder(order);
         bill.setTotalAmount(order.getTotalAmount());
         bill.setPaymentMode(paymentMode);
 
         BigDecimal discountPercentage = BigDecimal.ZERO;
-        if (discountId != null) {
-            Discount discount = discountRepository.findById(discountId)
-                    .orElseThrow(() -> new EntityNotFoundException("Discount not found with id: " + discountId));
-            if (discount.isActive()) {
-                discountPercentage = discount.getPercentage();
-            }
+        if (discount != null && discount.isActive()) {
+            discountPercentage = discount.getPercentage();
         }
 
         BigDecimal discountAmount = order.getTotalAmount()
@@ -96,14 +375,40 @@ public class OrderServiceImpl implements OrderService {
         bill.setDiscount(discountAmount);
         bill.setFinalAmount(order.getTotalAmount().subtract(discountAmount));
 
-        // --- START OF ROBUST RECEIPT ID LOGIC ---
-        // Format: YYYYMMDD-HHMMSS-8_CHAR_RANDOM
-        String timestampPart = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
-        String randomPart = UUID.randomUUID().toString().toUpperCase().substring(0, 8);
-        bill.setReceiptId("CRCAFE-" + timestampPart + "-" + randomPart);
-        // --- END OF ROBUST RECEIPT ID LOGIC ---
+        bill.setReceiptId(receiptIdGenerator.nextId());
+        return bill;
+    }
+
+    private void publishOrderCreated(Order order) {
+        eventPublisher.publishEvent(new OrderCreatedEvent(
+                order.getId(),
+                order.getUser().getId(),
+                order.getOrderDate(),
+                order.getTotalAmount(),
+                order.getOrderItems().stream()
+                        .map(oi -> new OrderCreatedEvent.Line(oi.getItem().getId(), oi.getItem().getName(), oi.getQuantity()))
+                        .toList()
+        ));
+    }
 
-        return billRepository.save(bill);
+    /**
+     * Notifies the in-memory listeners (after commit, on every bill) and records the event in the
+     * outbox for work that should not hold up the request; that runs in the background.
+     */
+    private void publishBillGenerated(Bill bill) {
+        BillGeneratedEvent event = new BillGeneratedEvent(
+                bill.getId(),
+                bill.getOrder().getId(),
+                bill.getOrder().getUser().getId(),
+                bill.getReceiptId(),
+                bill.getTotalAmount(),
+                bill.getDiscount(),
+                bill.getFinalAmount(),
+                bill.getPaymentMode(),
+                bill.getBillDate()
+        );
+        eventPublisher.publishEvent(event);
+        outboxWriter.append(bill.getId(), event);
     }
 
     @Override
@@ -113,8 +418,35 @@ public class OrderServiceImpl implements OrderService {
 
     @Override
     public long getTodaysOrderCountForUser(Long userId) {
-        LocalDateTime startOfDay = LocalDate.now().atStartOfDay();
-        LocalDateTime endOfDay = LocalDate.now().atTime(LocalTime.MAX);
-        return orderRepository.countByUserIdAndOrderDateBetween(userId, startOfDay, endOfDay);
+        return todayMetrics.getOrderCountForUser(userId);
+    }
+
+    /**
+     * A validated bulk order with its reference data resolved, ready to be turned into entities.
+     */
+    private record PlannedOrder(int index, BulkOrder request, User user, Map<Long, Item> items, Discount discount) {
+
+        Order toOrder() {
+            Order order = new Order();
+            order.setUser(user);
+            if (request.orderDate() != null) {
+                order.setOrderDate(request.orderDate());
+            }
+            List<OrderItem> orderItems = new ArrayList<>(request.lines().size());
+            BigDecimal totalAmount = BigDecimal.ZERO;
+            for (BulkOrder.Line line : request.lines()) {
+                Item item = items.get(line.itemId());
+                OrderItem orderItem = new OrderItem();
+                orderItem.setOrder(order);
+                orderItem.setItem(item);
+                orderItem.setQuantity(line.quantity());
+                orderItem.setPrice(item.getPrice());
+                orderItems.add(orderItem);
+                totalAmount = totalAmount.add(item.getPrice().multiply(new BigDecimal(line.quantity())));
+            }
+            order.setOrderItems(orderItems);
+            order.setTotalAmount(totalAmount);
+            return order;
+        }
     }
 }
@@ -1,10 +1,15 @@
 package com.crcafe.core.service.impl;
 
+import com.crcafe.core.event.UserChangedEvent;
 import com.crcafe.core.model.User;
 import com.crcafe.core.model.UserRole;
 import com.crcafe.core.repository.UserRepository;
+import com.crcafe.core.repository.UserSummaryProjection;
+import com.crcafe.core.security.UserPrincipal;
+import com.crcafe.core.service.UserCache;
 import com.crcafe.core.service.UserService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -14,6 +19,8 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service // Marks this as a Spring service component
 @RequiredArgsConstructor
@@ -21,6 +28,8 @@ public class UserServiceImpl implements UserService {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final ApplicationEventPublisher eventPublisher;
+    private final UserCache userCache;
 
     @Override
     @Transactional // Add this annotation
@@ -34,7 +43,9 @@ public class UserServiceImpl implements UserService {
         user.setPassword(passwordEncoder.encode(password));
         user.setRole(UserRole.valueOf(role.toString().toUpperCase()));
         user.setProfileImageUrl(profileImageUrl);
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        eventPublisher.publishEvent(new UserChangedEvent(saved.getId(), null, saved.getUsername()));
+        return saved;
     }
 
     @Override
@@ -48,18 +59,28 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
-    public void deleteUser(Long userId) {
-        userRepository.deleteById(userId);
+    @Transactional(readOnly = true)
+    public void forEachUser(Consumer<UserSummaryProjection> consumer) {
+        try (Stream<UserSummaryProjection> users = userRepository.streamSummaries()) {
+            users.forEach(consumer);
+        }
     }
 
     @Override
-    public void saveUserRefreshToken(String username, String refreshToken) {
-        userRepository.findByUsername(username).ifPresent(user -> {
-            user.setRefreshToken(refreshToken);
-            userRepository.save(user);
+    @Transactional
+    public void deleteUser(Long userId) {
+        userRepository.findById(userId).ifPresent(user -> {
+            userRepository.delete(user);
+            eventPublisher.publishEvent(new UserChangedEvent(userId, null, user.getUsername()));
         });
     }
 
+    @Override
+    @Transactional
+    public void updatePasswordHash(String username, String encodedPassword) {
+        userRepository.findByUsername(username).ifPresent(user -> user.setPassword(encodedPassword));
+    }
+
     @Override
     public User findUserById(Long id) {
         return userRepository.findById(id)
@@ -67,22 +88,39 @@ public class UserServiceImpl implements UserService {
     }
     
     @Override
+    @Transactional
     public User updateUser(Long id, String username, String role, String profileImageUrl) {
         User user = findUserById(id);
+        String previousUsername = user.getUsername();
         user.setUsername(username);
         user.setRole(UserRole.valueOf(role.toUpperCase()));
         user.setProfileImageUrl(profileImageUrl);
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        eventPublisher.publishEvent(new UserChangedEvent(id, previousUsername, username));
+        return saved;
     }
 
     @Override
     public User getCurrentUser() {
+        Long userId = getCurrentUserId();
+        return userRepository.findById(userId)
+                .orElseThrow(() -> new RuntimeException("Authenticated user not found in database: " + userId));
+    }
+
+    @Override
+    public Long getCurrentUserId() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         if (authentication == null || !authentication.isAuthenticated() || authentication.getPrincipal().equals("anonymousUser")) {
             throw new RuntimeException("No authenticated user found");
         }
+        if (authentication.getPrincipal() instanceof UserPrincipal principal) {
+            return principal.getUserId();
+        }
         String username = ((UserDetails) authentication.getPrincipal()).getUsername();
-        return findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("Authenticated user not found in database: " + username));
+        UserCache.Entry user = userCache.get(username);
+        if (user == null) {
+            throw new RuntimeException("Authenticated user not found in database: " + username);
+        }
+        return user.id();
     }
 }
\ No newline at end of file
@@ -0,0 +1,12 @@
+-- V10__Create_Catalog_Versions.sql
+-- A version number per catalog, incremented in the same transaction as every change to it.
+-- Every instance serves the menu under this shared version (ETag of GET /api/items and the
+-- "since" of GET /api/items/changes), so a version handed out by one instance means the same
+-- on all of them, and instances notice each other's changes by polling it.
+
+CREATE TABLE IF NOT EXISTS catalog_versions (
+    catalog_name VARCHAR(50) NOT NULL PRIMARY KEY,
+    version BIGINT NOT NULL
+);
+
+INSERT INTO catalog_versions (catalog_name, version) VALUES ('menu', 0);
@@ -0,0 +1,6 @@
+-- V11__Add_Dashboard_Version.sql
+-- Shared version of the dashboard figures, used as the ETag of the dashboard endpoints. Every
+-- instance increments it shortly after committing orders, bills or item and user changes, and
+-- drops its cached dashboard answers when it sees another instance move it on.
+
+INSERT INTO catalog_versions (catalog_name, version) VALUES ('dashboard', 0);
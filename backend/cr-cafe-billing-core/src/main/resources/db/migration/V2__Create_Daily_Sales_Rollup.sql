@@ -0,0 +1,44 @@
+-- V2__Create_Daily_Sales_Rollup.sql
+-- Pre-aggregated sales per day, payment mode and cashier, and order counts per day and cashier,
+-- for the owner dashboard. The application keeps both tables up to date whenever an order is
+-- placed or a bill is generated.
+
+CREATE TABLE IF NOT EXISTS daily_sales_rollup (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    sales_date DATE NOT NULL,
+    payment_mode ENUM('CASH', 'ONLINE') NOT NULL,
+    user_id BIGINT NOT NULL,
+    bill_count BIGINT NOT NULL DEFAULT 0,
+    gross_amount DECIMAL(12,2) NOT NULL DEFAULT 0.00,
+    discount_amount DECIMAL(12,2) NOT NULL DEFAULT 0.00,
+    net_amount DECIMAL(12,2) NOT NULL DEFAULT 0.00,
+    CONSTRAINT uk_daily_sales_rollup UNIQUE (sales_date, payment_mode, user_id)
+);
+
+-- Backfill from the existing bills (safe to re-run: rows are replaced day by day)
+DELETE FROM daily_sales_rollup
+WHERE sales_date >= (SELECT d FROM (SELECT DATE(MIN(bill_date)) AS d FROM bills) AS earliest);
+
+INSERT INTO daily_sales_rollup
+    (sales_date, payment_mode, user_id, bill_count, gross_amount, discount_amount, net_amount)
+SELECT DATE(b.bill_date), b.payment_mode, o.user_id, COUNT(*),
+       SUM(b.total_amount), SUM(COALESCE(b.discount, 0)), SUM(b.final_amount)
+FROM bills b
+JOIN orders o ON b.order_id = o.id
+GROUP BY DATE(b.bill_date), b.payment_mode, o.user_id;
+
+CREATE TABLE IF NOT EXISTS daily_order_rollup (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    order_date DATE NOT NULL,
+    user_id BIGINT NOT NULL,
+    order_count BIGINT NOT NULL DEFAULT 0,
+    CONSTRAINT uk_daily_order_rollup UNIQUE (order_date, user_id)
+);
+
+-- Backfill from the existing orders, billed or not (safe to re-run)
+DELETE FROM daily_order_rollup;
+
+INSERT INTO daily_order_rollup (order_date, user_id, order_count)
+SELECT DATE(o.order_date), o.user_id, COUNT(*)
+FROM orders o
+GROUP BY DATE(o.order_date), o.user_id;
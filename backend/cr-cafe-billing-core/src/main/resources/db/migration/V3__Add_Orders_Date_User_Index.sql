@@ -0,0 +1,9 @@
+-- V3__Add_Orders_Date_User_Index.sql
+-- Composite index for per-cashier reports over an order date range
+-- (GET /api/dashboard/users-performance). The range predicate on order_date uses the
+-- leading column and user_id is read from the index for grouping.
+-- It also serves every query idx_orders_date served, so that index is dropped.
+
+CREATE INDEX idx_orders_date_user ON orders(order_date, user_id);
+
+DROP INDEX idx_orders_date ON orders;
@@ -0,0 +1,19 @@
+-- V4__Create_Id_Generators.sql
+-- Pooled id blocks for orders, order_items and bills. The application reserves ids
+-- 50 at a time from this table instead of relying on AUTO_INCREMENT, which lets
+-- Hibernate batch the inserts (e.g. for POST /api/orders/bulk).
+-- Each counter starts safely above the current maximum id. Run with the application stopped.
+
+CREATE TABLE IF NOT EXISTS id_generators (
+    sequence_name VARCHAR(64) NOT NULL PRIMARY KEY,
+    next_val BIGINT NOT NULL
+);
+
+INSERT INTO id_generators (sequence_name, next_val)
+SELECT 'orders', COALESCE(MAX(id), 0) + 100 FROM orders;
+
+INSERT INTO id_generators (sequence_name, next_val)
+SELECT 'order_items', COALESCE(MAX(id), 0) + 100 FROM order_items;
+
+INSERT INTO id_generators (sequence_name, next_val)
+SELECT 'bills', COALESCE(MAX(id), 0) + 100 FROM bills;
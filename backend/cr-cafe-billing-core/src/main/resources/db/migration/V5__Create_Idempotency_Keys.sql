@@ -0,0 +1,20 @@
+-- V5__Create_Idempotency_Keys.sql
+-- Responses of POST requests sent with an Idempotency-Key header, so that retries
+-- (e.g. after a dropped connection) get the original response instead of creating
+-- a duplicate order or bill. Expired rows are deleted by the application every hour.
+-- A request claims its key with a PENDING row before it runs, so a concurrent retry on any
+-- instance finds the row and is rejected instead of running the request a second time. The row
+-- is completed with the response in the same transaction as the request's writes, or deleted if
+-- the request fails; PENDING rows have no response yet.
+
+CREATE TABLE IF NOT EXISTS idempotency_keys (
+    idempotency_key VARCHAR(200) NOT NULL PRIMARY KEY,
+    request_hash VARCHAR(64) NOT NULL,
+    status ENUM('PENDING', 'COMPLETED') NOT NULL,
+    status_code INT NULL,
+    response_body MEDIUMTEXT NULL,
+    created_at DATETIME(6) NOT NULL,
+    expires_at DATETIME(6) NOT NULL
+);
+
+CREATE INDEX idx_idempotency_keys_expires_at ON idempotency_keys(expires_at);
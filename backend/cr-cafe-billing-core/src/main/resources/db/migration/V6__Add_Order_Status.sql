@@ -0,0 +1,12 @@
+-- V6__Add_Order_Status.sql
+-- Explicit order lifecycle: OPEN -> BILLED or OPEN -> VOID.
+-- Bill generation moves the order with a single conditional UPDATE ... WHERE status = 'OPEN',
+-- which replaces the "does a bill exist yet?" lookup and cannot race.
+
+ALTER TABLE orders ADD COLUMN status ENUM('OPEN', 'BILLED', 'VOID') NOT NULL DEFAULT 'OPEN';
+
+-- Orders that already have a bill are billed.
+UPDATE orders o JOIN bills b ON b.order_id = o.id SET o.status = 'BILLED';
+
+-- Open/billed/void counts over an order date range without joining bills.
+CREATE INDEX idx_orders_status_date ON orders(status, order_date);
@@ -0,0 +1,25 @@
+-- V7__Create_Outbox_Events.sql
+-- Transactional outbox: events such as BillGeneratedEvent are inserted in the same
+-- transaction as the bill and delivered to in-process handlers by a background dispatcher.
+-- Processed rows are deleted by the application after outbox.retention-hours.
+
+CREATE TABLE IF NOT EXISTS outbox_events (
+    id BIGINT NOT NULL PRIMARY KEY,
+    event_type VARCHAR(100) NOT NULL,
+    aggregate_id BIGINT NULL,
+    payload TEXT NOT NULL,
+    status ENUM('PENDING', 'PROCESSED', 'FAILED') NOT NULL DEFAULT 'PENDING',
+    attempts INT NOT NULL DEFAULT 0,
+    created_at DATETIME(6) NOT NULL,
+    available_at DATETIME(6) NOT NULL,
+    processed_at DATETIME(6) NULL,
+    last_error VARCHAR(500) NULL
+);
+
+-- Dispatcher poll: due pending events.
+CREATE INDEX idx_outbox_events_status_available ON outbox_events(status, available_at);
+-- Retention sweep: processed events by age.
+CREATE INDEX idx_outbox_events_status_processed ON outbox_events(status, processed_at);
+
+-- Ids are reserved in blocks like orders and bills (see V4).
+INSERT INTO id_generators (sequence_name, next_val) VALUES ('outbox_events', 1);
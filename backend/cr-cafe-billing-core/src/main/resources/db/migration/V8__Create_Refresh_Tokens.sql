@@ -0,0 +1,24 @@
+-- V8__Create_Refresh_Tokens.sql
+-- Refresh tokens move out of users.refresh_token into their own table, one row per issued
+-- token, stored only as the SHA-256 of the token. Every login starts a session (one per
+-- device); each refresh revokes the presented token and issues the next one in the same
+-- session. Expired rows are deleted by the application.
+
+CREATE TABLE IF NOT EXISTS refresh_tokens (
+    token_hash VARCHAR(64) NOT NULL PRIMARY KEY,
+    session_id VARCHAR(36) NOT NULL,
+    user_id BIGINT NOT NULL,
+    device VARCHAR(255) NULL,
+    created_at DATETIME(6) NOT NULL,
+    expires_at DATETIME(6) NOT NULL,
+    revoked_at DATETIME(6) NULL,
+    CONSTRAINT fk_refresh_tokens_user FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+);
+
+-- Logout and reuse detection revoke a whole session.
+CREATE INDEX idx_refresh_tokens_session ON refresh_tokens(session_id);
+-- Expiry sweep.
+CREATE INDEX idx_refresh_tokens_expires_at ON refresh_tokens(expires_at);
+
+-- Existing refresh tokens are dropped; users sign in again once their access token expires.
+ALTER TABLE users DROP COLUMN refresh_token;
@@ -0,0 +1,20 @@
+-- V9__Create_Archive_Checkpoints.sql
+-- Progress of the nightly bill archiving job. The job archives bills in small chunks, one
+-- transaction each, and records after every chunk how far it got, so that a run interrupted
+-- by a crash or restart resumes where it stopped. lease_owner and lease_until keep a second
+-- instance from running the job at the same time: every checkpoint update and the release are
+-- conditional on the owner, so an instance whose lease expired cannot overwrite the progress of
+-- the instance that took the job over.
+
+CREATE TABLE IF NOT EXISTS archive_checkpoints (
+    job_name VARCHAR(50) NOT NULL PRIMARY KEY,
+    run_cutoff DATETIME(6) NULL,
+    last_bill_date DATETIME(6) NULL,
+    last_bill_id BIGINT NULL,
+    rows_archived BIGINT NOT NULL DEFAULT 0,
+    lease_owner VARCHAR(100) NULL,
+    lease_until DATETIME(6) NULL,
+    updated_at DATETIME(6) NOT NULL
+);
+
+INSERT INTO archive_checkpoints (job_name, rows_archived, updated_at) VALUES ('bills', 0, NOW(6));
@@ -0,0 +1,11 @@
+package com.crcafe.core;
+
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+/**
+ * Configuration root for the core module's Spring test slices (e.g. {@code @DataJpaTest}); the
+ * real application class lives in the app module.
+ */
+@SpringBootApplication
+public class CoreTestApplication {
+}
@@ -0,0 +1,47 @@
+package com.crcafe.core.dto;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TransactionCursorTest {
+
+    @Test
+    void roundTripsThroughItsEncodedForm() {
+        TransactionCursor cursor = new TransactionCursor(LocalDateTime.of(2024, 5, 1, 10, 15, 30, 123_456_000), 4711L);
+
+        String encoded = cursor.encode();
+
+        assertThat(encoded).doesNotContain("|", "=", "+", "/");
+        assertThat(TransactionCursor.decode(encoded)).isEqualTo(cursor);
+    }
+
+    @Test
+    void roundTripsWholeMinutes() {
+        // LocalDateTime.toString() drops zero seconds ("10:15"); decoding must still accept it.
+        TransactionCursor cursor = new TransactionCursor(LocalDateTime.of(2024, 5, 1, 10, 15), 1L);
+
+        assertThat(TransactionCursor.decode(cursor.encode())).isEqualTo(cursor);
+    }
+
+    @Test
+    void rejectsTamperedCursors() {
+        assertThatThrownBy(() -> TransactionCursor.decode("not a cursor"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> TransactionCursor.decode(encode("2024-05-01T10:15:30")))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> TransactionCursor.decode(encode("2024-05-01T10:15:30|abc")))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> TransactionCursor.decode(encode("yesterday|12")))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
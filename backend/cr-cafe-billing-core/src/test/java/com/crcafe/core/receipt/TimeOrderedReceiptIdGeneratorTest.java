@@ -0,0 +1,173 @@
+package com.crcafe.core.receipt;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TimeOrderedReceiptIdGeneratorTest {
+
+    // 2024-05-01T10:15:30Z
+    private static final long START_MILLIS = 1_714_558_530_000L;
+
+    @Test
+    void formatsTimeNodeAndSequence() {
+        TimeOrderedReceiptIdGenerator generator = new TimeOrderedReceiptIdGenerator(new MutableClock(START_MILLIS), 0xA7);
+
+        assertThat(generator.nextId()).isEqualTo("CRCAFE-20240501-101530-A7000000");
+        assertThat(generator.nextId()).isEqualTo("CRCAFE-20240501-101530-A7000001");
+    }
+
+    @Test
+    void idsFromManyThreadsAreUnique() throws Exception {
+        MutableClock clock = new MutableClock(START_MILLIS);
+        TimeOrderedReceiptIdGenerator generator = new TimeOrderedReceiptIdGenerator(clock, 1);
+        int threads = 8;
+        int idsPerThread = 20_000;
+        Set<String> ids = ConcurrentHashMap.newKeySet();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                workers.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < idsPerThread; i++) {
+                        ids.add(generator.nextId());
+                        if (i % 5_000 == 0) {
+                            // Move to the next second while other threads are generating.
+                            clock.advance(1_000);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> worker : workers) {
+                worker.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(ids).hasSize(threads * idsPerThread);
+    }
+
+    @Test
+    void sequenceRestartsInTheNextSecond() {
+        MutableClock clock = new MutableClock(START_MILLIS);
+        TimeOrderedReceiptIdGenerator generator = new TimeOrderedReceiptIdGenerator(clock, 2);
+        generator.nextId();
+        generator.nextId();
+
+        clock.advance(1_000);
+
+        assertThat(generator.nextId()).isEqualTo("CRCAFE-20240501-101531-02000000");
+    }
+
+    @Test
+    void clockMovingBackwardsKeepsTheCurrentSecond() {
+        MutableClock clock = new MutableClock(START_MILLIS);
+        TimeOrderedReceiptIdGenerator generator = new TimeOrderedReceiptIdGenerator(clock, 2);
+        generator.nextId();
+
+        clock.advance(-5_000);
+
+        assertThat(generator.nextId()).isEqualTo("CRCAFE-20240501-101530-02000001");
+    }
+
+    @Test
+    void waitsForTheNextSecondWhenTheSequenceIsUsedUp() throws Exception {
+        MutableClock clock = new MutableClock(START_MILLIS);
+        TimeOrderedReceiptIdGenerator generator = new TimeOrderedReceiptIdGenerator(clock, 3);
+        String last = null;
+        for (int i = 0; i <= 0xFFFFFF; i++) {
+            last = generator.nextId();
+        }
+        assertThat(last).isEqualTo("CRCAFE-20240501-101530-03FFFFFF");
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> next = executor.submit(generator::nextId);
+            Thread.sleep(50);
+            assertThat(next).isNotDone();
+
+            clock.advance(1_000);
+
+            assertThat(next.get(5, TimeUnit.SECONDS)).isEqualTo("CRCAFE-20240501-101531-03000000");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void rejectsMissingOrOutOfRangeNodeId() {
+        assertThatThrownBy(() -> new TimeOrderedReceiptIdGenerator(-1))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("receipt.node-id");
+        assertThatThrownBy(() -> new TimeOrderedReceiptIdGenerator(new MutableClock(START_MILLIS), 256))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void differentNodesNeverShareIds() {
+        MutableClock clock = new MutableClock(START_MILLIS);
+        TimeOrderedReceiptIdGenerator first = new TimeOrderedReceiptIdGenerator(clock, 4);
+        TimeOrderedReceiptIdGenerator second = new TimeOrderedReceiptIdGenerator(clock, 5);
+        Set<String> ids = new HashSet<>();
+        for (int i = 0; i < 1_000; i++) {
+            ids.add(first.nextId());
+            ids.add(second.nextId());
+        }
+
+        assertThat(ids).hasSize(2_000);
+    }
+
+    private static final class MutableClock extends Clock {
+        private final AtomicLong millis;
+
+        private MutableClock(long millis) {
+            this.millis = new AtomicLong(millis);
+        }
+
+        void advance(long deltaMillis) {
+            millis.addAndGet(deltaMillis);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public long millis() {
+            return millis.get();
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis());
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.crcafe.core.repository;
+
+import com.crcafe.core.model.Order;
+import com.crcafe.core.model.OrderStatus;
+import com.crcafe.core.model.User;
+import com.crcafe.core.model.UserRole;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The order status compare-and-set; every call commits, as in the application.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OrderRepositoryTest {
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transaction;
+    private Long orderId;
+
+    @BeforeEach
+    void createOrder() {
+        transaction = new TransactionTemplate(transactionManager);
+        User cashier = new User();
+        cashier.setUsername("cashier");
+        cashier.setPassword("x");
+        cashier.setRole(UserRole.WORKER);
+        cashier = userRepository.save(cashier);
+
+        Order order = new Order();
+        order.setUser(cashier);
+        order.setTotalAmount(BigDecimal.TEN);
+        orderId = orderRepository.save(order).getId();
+    }
+
+    @AfterEach
+    void deleteOrders() {
+        orderRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void onlyTheFirstTransitionOutOfOpenSucceeds() {
+        assertThat(setStatus(OrderStatus.OPEN, OrderStatus.BILLED)).isEqualTo(1);
+        assertThat(setStatus(OrderStatus.OPEN, OrderStatus.BILLED)).isZero();
+        assertThat(setStatus(OrderStatus.OPEN, OrderStatus.VOID)).isZero();
+
+        assertThat(orderRepository.findStatusById(orderId)).contains(OrderStatus.BILLED);
+    }
+
+    @Test
+    void unknownOrderIsNotTransitioned() {
+        Integer updated = transaction.execute(status ->
+                orderRepository.compareAndSetStatus(orderId + 1000, OrderStatus.OPEN, OrderStatus.BILLED));
+
+        assertThat(updated).isZero();
+    }
+
+    @Test
+    void concurrentTransitionsHaveOneWinner() throws Exception {
+        int threads = 4;
+        CyclicBarrier start = new CyclicBarrier(threads);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Integer>> attempts = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                OrderStatus target = i % 2 == 0 ? OrderStatus.BILLED : OrderStatus.VOID;
+                attempts.add(executor.submit(() -> {
+                    start.await(10, TimeUnit.SECONDS);
+                    return setStatus(OrderStatus.OPEN, target);
+                }));
+            }
+            int wins = 0;
+            for (Future<Integer> attempt : attempts) {
+                wins += attempt.get(30, TimeUnit.SECONDS);
+            }
+            assertThat(wins).isEqualTo(1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private int setStatus(OrderStatus expected, OrderStatus status) {
+        return transaction.execute(tx -> orderRepository.compareAndSetStatus(orderId, expected, status));
+    }
+}
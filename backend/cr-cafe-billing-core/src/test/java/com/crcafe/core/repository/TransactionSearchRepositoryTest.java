@@ -0,0 +1,126 @@
+package com.crcafe.core.repository;
+
+import com.crcafe.core.dto.TransactionCursor;
+import com.crcafe.core.dto.TransactionFilter;
+import com.crcafe.core.dto.TransactionRow;
+import com.crcafe.core.model.Bill;
+import com.crcafe.core.model.Order;
+import com.crcafe.core.model.PaymentMode;
+import com.crcafe.core.model.User;
+import com.crcafe.core.model.UserRole;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class TransactionSearchRepositoryTest {
+
+    private static final LocalDateTime NOON = LocalDateTime.of(2024, 5, 1, 12, 0);
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private BillRepository billRepository;
+
+    // Newest first, as the list is shown.
+    private final List<Long> expectedOrder = new ArrayList<>();
+
+    @BeforeEach
+    void createBills() {
+        User cashier = new User();
+        cashier.setUsername("cashier");
+        cashier.setPassword("x");
+        cashier.setRole(UserRole.WORKER);
+        entityManager.persist(cashier);
+
+        // Five bills share one timestamp, so only the id can order them.
+        List<Bill> bills = new ArrayList<>();
+        bills.add(bill(cashier, NOON.minusMinutes(1), 1));
+        for (int i = 0; i < 5; i++) {
+            bills.add(bill(cashier, NOON, 2 + i));
+        }
+        bills.add(bill(cashier, NOON.plusMinutes(1), 7));
+        entityManager.flush();
+
+        bills.stream()
+                .sorted((a, b) -> a.getBillDate().equals(b.getBillDate())
+                        ? b.getId().compareTo(a.getId())
+                        : b.getBillDate().compareTo(a.getBillDate()))
+                .forEach(bill -> expectedOrder.add(bill.getId()));
+    }
+
+    @Test
+    void pagesOlderThroughTiesOnBillDateWithoutGapsOrRepeats() {
+        List<Long> seen = new ArrayList<>();
+        TransactionCursor cursor = null;
+        while (true) {
+            List<TransactionRow> page = billRepository.findTransactions(TransactionFilter.NONE, cursor, false, 2);
+            if (page.isEmpty()) {
+                break;
+            }
+            page.forEach(row -> seen.add(row.billId()));
+            // Through the encoded form, as a client would send it back.
+            cursor = TransactionCursor.decode(page.get(page.size() - 1).toCursor().encode());
+        }
+
+        assertThat(seen).containsExactlyElementsOf(expectedOrder);
+    }
+
+    @Test
+    void pagesNewerFromTheMiddleOfATie() {
+        // Start from the third bill at NOON and walk back towards the newest.
+        Long middleId = expectedOrder.get(3);
+        Bill middle = entityManager.find(Bill.class, middleId);
+        TransactionCursor cursor = new TransactionCursor(middle.getBillDate(), middle.getId());
+
+        List<Long> newer = billRepository.findTransactions(TransactionFilter.NONE, cursor, true, 10).stream()
+                .map(TransactionRow::billId)
+                .toList();
+
+        // Oldest first, ending with the newest bill.
+        assertThat(newer).containsExactly(expectedOrder.get(2), expectedOrder.get(1), expectedOrder.get(0));
+    }
+
+    @Test
+    void cursorExcludesItsOwnRowInBothDirections() {
+        Long tiedId = expectedOrder.get(2);
+        Bill tied = entityManager.find(Bill.class, tiedId);
+        TransactionCursor cursor = new TransactionCursor(tied.getBillDate(), tied.getId());
+
+        assertThat(billRepository.findTransactions(TransactionFilter.NONE, cursor, false, 10))
+                .extracting(TransactionRow::billId)
+                .containsExactlyElementsOf(expectedOrder.subList(3, expectedOrder.size()));
+        assertThat(billRepository.findTransactions(TransactionFilter.NONE, cursor, true, 10))
+                .extracting(TransactionRow::billId)
+                .containsExactly(expectedOrder.get(1), expectedOrder.get(0));
+    }
+
+    private Bill bill(User cashier, LocalDateTime at, int n) {
+        Order order = new Order();
+        order.setUser(cashier);
+        order.setOrderDate(at);
+        order.setTotalAmount(BigDecimal.TEN);
+        entityManager.persist(order);
+
+        Bill bill = new Bill();
+        bill.setOrder(order);
+        bill.setBillDate(at);
+        bill.setTotalAmount(BigDecimal.TEN);
+        bill.setFinalAmount(BigDecimal.TEN);
+        bill.setReceiptId("R-" + n);
+        bill.setPaymentMode(PaymentMode.CASH);
+        return entityManager.persist(bill);
+    }
+}
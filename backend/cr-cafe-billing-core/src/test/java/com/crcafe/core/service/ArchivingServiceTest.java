@@ -0,0 +1,171 @@
+package com.crcafe.core.service;
+
+import com.crcafe.core.model.ArchiveCheckpoint;
+import com.crcafe.core.repository.ArchivableBillProjection;
+import com.crcafe.core.repository.ArchiveCheckpointRepository;
+import com.crcafe.core.repository.BillRepository;
+import com.crcafe.core.repository.FinancialSummaryRepository;
+import com.crcafe.core.repository.OrderItemRepository;
+import com.crcafe.core.repository.OrderRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ArchivingServiceTest {
+
+    private static final String JOB = "bills";
+    private static final LocalDateTime SCAN_START = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final LocalDateTime CUTOFF = LocalDateTime.of(2026, 9, 1, 0, 0);
+    private static final LocalDateTime NOON = LocalDateTime.of(2026, 8, 10, 12, 0);
+
+    @Mock
+    private BillRepository billRepository;
+    @Mock
+    private OrderRepository orderRepository;
+    @Mock
+    private OrderItemRepository orderItemRepository;
+    @Mock
+    private FinancialSummaryRepository financialSummaryRepository;
+    @Mock
+    private ArchiveCheckpointRepository checkpointRepository;
+    @Mock
+    private DashboardCache dashboardCache;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ArchivingService archivingService;
+
+    @BeforeEach
+    void createService() {
+        // Two bills per chunk and no pacing.
+        archivingService = new ArchivingService(billRepository, orderRepository, orderItemRepository,
+                financialSummaryRepository, checkpointRepository, dashboardCache, transactionManager,
+                new SimpleMeterRegistry(), 30, 2, 0, 10);
+    }
+
+    @Test
+    void resumesAnInterruptedRunAfterTheCheckpoint() {
+        claimLease(1);
+        when(checkpointRepository.findById(JOB)).thenReturn(Optional.of(checkpoint(CUTOFF, NOON, 17L)));
+        when(billRepository.findArchivable(eq(CUTOFF), eq(NOON), eq(17L), any())).thenReturn(List.of());
+        when(checkpointRepository.finishRun(eq(JOB), anyString(), any())).thenReturn(1);
+
+        archivingService.archiveAndCleanupOldBills();
+
+        verify(checkpointRepository, never()).startRun(any(), any(), any(), any());
+        verify(billRepository).findArchivable(eq(CUTOFF), eq(NOON), eq(17L), any());
+        verify(checkpointRepository).release(eq(JOB), anyString());
+    }
+
+    @Test
+    void startsANewRunFromTheBeginning() {
+        claimLease(1);
+        when(checkpointRepository.findById(JOB)).thenReturn(Optional.of(checkpoint(null, null, null)));
+        when(checkpointRepository.startRun(eq(JOB), anyString(), any(), any())).thenReturn(1);
+        when(billRepository.findArchivable(any(), eq(SCAN_START), eq(0L), any())).thenReturn(List.of());
+        when(checkpointRepository.finishRun(eq(JOB), anyString(), any())).thenReturn(1);
+
+        archivingService.archiveAndCleanupOldBills();
+
+        verify(checkpointRepository).startRun(eq(JOB), anyString(), any(), any());
+    }
+
+    @Test
+    void continuesEachChunkAfterTheLastBillOfThePreviousOne() {
+        claimLease(1);
+        when(checkpointRepository.findById(JOB)).thenReturn(Optional.of(checkpoint(CUTOFF, NOON, 17L)));
+        when(billRepository.findArchivable(eq(CUTOFF), eq(NOON), eq(17L), any()))
+                .thenReturn(List.of(bill(18L, NOON), bill(19L, NOON.plusMinutes(1))));
+        when(billRepository.findArchivable(eq(CUTOFF), eq(NOON.plusMinutes(1)), eq(19L), any()))
+                .thenReturn(List.of(bill(20L, NOON.plusMinutes(2))));
+        when(checkpointRepository.advance(eq(JOB), anyString(), any(), anyLong(), anyLong(), any(), any()))
+                .thenReturn(1);
+        when(checkpointRepository.finishRun(eq(JOB), anyString(), any())).thenReturn(1);
+
+        archivingService.archiveAndCleanupOldBills();
+
+        verify(checkpointRepository).advance(eq(JOB), anyString(), eq(NOON.plusMinutes(1)), eq(19L), eq(2L), any(), any());
+        verify(checkpointRepository).advance(eq(JOB), anyString(), eq(NOON.plusMinutes(2)), eq(20L), eq(1L), any(), any());
+        verify(billRepository).deleteByIds(List.of(18L, 19L));
+        verify(orderRepository).deleteByIds(List.of(118L, 119L));
+        verify(dashboardCache).invalidateAll();
+    }
+
+    @Test
+    void rollsTheChunkBackAndStopsWhenTheLeaseIsLost() {
+        claimLease(1);
+        when(checkpointRepository.findById(JOB)).thenReturn(Optional.of(checkpoint(CUTOFF, NOON, 17L)));
+        when(billRepository.findArchivable(eq(CUTOFF), eq(NOON), eq(17L), any()))
+                .thenReturn(List.of(bill(18L, NOON), bill(19L, NOON.plusMinutes(1))));
+        // Another instance took the job over while this chunk ran.
+        when(checkpointRepository.advance(eq(JOB), anyString(), any(), anyLong(), anyLong(), any(), any()))
+                .thenReturn(0);
+
+        archivingService.archiveAndCleanupOldBills();
+
+        verify(transactionManager).rollback(any());
+        verify(billRepository).findArchivable(any(), any(), anyLong(), any());
+        verify(checkpointRepository, never()).finishRun(any(), any(), any());
+        verify(dashboardCache, never()).invalidateAll();
+        verify(checkpointRepository).release(eq(JOB), anyString());
+    }
+
+    @Test
+    void leavesTheJobToTheInstanceHoldingTheLease() {
+        claimLease(0);
+
+        archivingService.archiveAndCleanupOldBills();
+
+        verify(checkpointRepository, never()).findById(any());
+        verify(checkpointRepository, never()).release(any(), any());
+    }
+
+    private void claimLease(int updated) {
+        when(checkpointRepository.claim(eq(JOB), anyString(), any(), any())).thenReturn(updated);
+    }
+
+    private static ArchiveCheckpoint checkpoint(LocalDateTime runCutoff, LocalDateTime lastBillDate, Long lastBillId) {
+        ArchiveCheckpoint checkpoint = new ArchiveCheckpoint();
+        checkpoint.setJobName(JOB);
+        checkpoint.setRunCutoff(runCutoff);
+        checkpoint.setLastBillDate(lastBillDate);
+        checkpoint.setLastBillId(lastBillId);
+        return checkpoint;
+    }
+
+    private static ArchivableBillProjection bill(Long id, LocalDateTime billDate) {
+        return new ArchivableBillProjection() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public Long getOrderId() {
+                return id + 100;
+            }
+
+            @Override
+            public LocalDateTime getBillDate() {
+                return billDate;
+            }
+        };
+    }
+}
@@ -0,0 +1,149 @@
+package com.crcafe.core.service;
+
+import com.crcafe.core.model.IdempotencyRecord;
+import com.crcafe.core.model.IdempotencyStatus;
+import com.crcafe.core.repository.IdempotencyRecordRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Runs against the real claim, complete and release statements. Each test commits, like the
+ * application does, so two service instances stand in for two application instances.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class IdempotencyServiceTest {
+
+    private static final String KEY = "user\nPOST /orders\nkey-1";
+
+    @Autowired
+    private IdempotencyRecordRepository repository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private IdempotencyService node1;
+    private IdempotencyService node2;
+    private final AtomicInteger runs = new AtomicInteger();
+
+    @BeforeEach
+    void createNodes() {
+        node1 = newNode();
+        node2 = newNode();
+    }
+
+    @AfterEach
+    void deleteKeys() {
+        repository.deleteAll();
+    }
+
+    @Test
+    void runsOnceAndReplaysTheStoredResponse() {
+        IdempotencyService.Outcome first = node1.execute(KEY, "hash", this::respond);
+        IdempotencyService.Outcome retry = node1.execute(KEY, "hash", this::respond);
+
+        assertThat(first.replayed()).isFalse();
+        assertThat(retry.replayed()).isTrue();
+        assertThat(retry.response().statusCode()).isEqualTo(200);
+        assertThat(retry.response().body()).isEqualTo(first.response().body());
+        assertThat(runs).hasValue(1);
+        assertThat(repository.findById(KEY)).get()
+                .extracting(IdempotencyRecord::getStatus).isEqualTo(IdempotencyStatus.COMPLETED);
+    }
+
+    @Test
+    void anotherInstanceReplaysFromTheDatabase() {
+        IdempotencyService.Outcome first = node1.execute(KEY, "hash", this::respond);
+        IdempotencyService.Outcome retry = node2.execute(KEY, "hash", this::respond);
+
+        assertThat(retry.replayed()).isTrue();
+        assertThat(retry.response().body()).isEqualTo(first.response().body());
+        assertThat(runs).hasValue(1);
+    }
+
+    @Test
+    void rejectsAKeyReusedForADifferentRequest() {
+        node1.execute(KEY, "hash", this::respond);
+
+        assertThatThrownBy(() -> node2.execute(KEY, "other-hash", this::respond))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(runs).hasValue(1);
+    }
+
+    @Test
+    void concurrentRetryIsRejectedWhileTheFirstRequestRuns() throws Exception {
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<IdempotencyService.Outcome> first = executor.submit(() -> node1.execute(KEY, "hash", () -> {
+                running.countDown();
+                await(finish);
+                return respond();
+            }));
+            assertThat(running.await(10, TimeUnit.SECONDS)).isTrue();
+
+            assertThatThrownBy(() -> node2.execute(KEY, "hash", this::respond))
+                    .isInstanceOf(IllegalStateException.class);
+            assertThat(repository.findById(KEY)).get()
+                    .extracting(IdempotencyRecord::getStatus).isEqualTo(IdempotencyStatus.PENDING);
+
+            finish.countDown();
+            assertThat(first.get(10, TimeUnit.SECONDS).replayed()).isFalse();
+        } finally {
+            finish.countDown();
+            executor.shutdownNow();
+        }
+
+        // Once the first request has completed, the retry gets its response.
+        assertThat(node2.execute(KEY, "hash", this::respond).replayed()).isTrue();
+        assertThat(runs).hasValue(1);
+    }
+
+    @Test
+    void failedRequestReleasesTheKey() {
+        assertThatThrownBy(() -> node1.execute(KEY, "hash", () -> {
+            throw new IllegalStateException("out of stock");
+        })).hasMessage("out of stock");
+        assertThat(repository.findById(KEY)).isEmpty();
+
+        IdempotencyService.Outcome retry = node2.execute(KEY, "hash", this::respond);
+
+        assertThat(retry.replayed()).isFalse();
+        assertThat(runs).hasValue(1);
+    }
+
+    private IdempotencyService newNode() {
+        return new IdempotencyService(repository, transactionManager, 24, 60, 100);
+    }
+
+    private IdempotencyService.StoredResponse respond() {
+        return IdempotencyService.StoredResponse.of(200, "{\"orderId\":" + runs.incrementAndGet() + "}");
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.crcafe.core.service;
+
+import com.crcafe.core.dto.MenuChanges;
+import com.crcafe.core.event.ItemChangedEvent;
+import com.crcafe.core.model.CatalogVersion;
+import com.crcafe.core.model.Item;
+import com.crcafe.core.repository.CatalogVersionRepository;
+import com.crcafe.core.repository.ItemRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class MenuCatalogTest {
+
+    private static final Long COFFEE = 1L;
+    private static final Long TEA = 2L;
+
+    @Mock
+    private ItemRepository itemRepository;
+    @Mock
+    private CatalogVersionRepository catalogVersionRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private MenuCatalog menuCatalog;
+
+    @BeforeEach
+    void createCatalog() {
+        menuCatalog = newCatalog(1000);
+    }
+
+    @Test
+    void repricesFromAChangeCommittedThroughThisInstance() {
+        load(0, item(COFFEE, "100"), item(TEA, "40"));
+
+        menuCatalog.onItemChanged(new ItemChangedEvent(COFFEE, item(COFFEE, "120"), 1));
+
+        assertThat(menuCatalog.getVersion()).isEqualTo(1);
+        assertThat(menuCatalog.get(COFFEE).price()).isEqualByComparingTo("120.00");
+        assertThat(menuCatalog.get(TEA).price()).isEqualByComparingTo("40.00");
+        MenuChanges changes = menuCatalog.changesSince(0);
+        assertThat(changes.full()).isFalse();
+        assertThat(changes.items()).extracting(Item::getId).containsExactly(COFFEE);
+    }
+
+    @Test
+    void ignoresAChangeTheSnapshotAlreadyHas() {
+        load(3, item(COFFEE, "120"));
+
+        menuCatalog.onItemChanged(new ItemChangedEvent(COFFEE, item(COFFEE, "100"), 3));
+
+        assertThat(menuCatalog.get(COFFEE).price()).isEqualByComparingTo("120.00");
+    }
+
+    @Test
+    void removesDeletedItems() {
+        load(0, item(COFFEE, "100"), item(TEA, "40"));
+
+        menuCatalog.onItemChanged(new ItemChangedEvent(TEA, null, 1));
+
+        assertThat(menuCatalog.get(TEA)).isNull();
+        assertThat(menuCatalog.changesSince(0).deleted()).containsExactly(TEA);
+    }
+
+    @Test
+    void refreshPicksUpPricesChangedByAnotherInstance() {
+        load(0, item(COFFEE, "100"), item(TEA, "40"));
+        givenDatabase(1, item(COFFEE, "110"), item(TEA, "40"));
+
+        menuCatalog.refresh();
+
+        assertThat(menuCatalog.getVersion()).isEqualTo(1);
+        assertThat(menuCatalog.get(COFFEE).price()).isEqualByComparingTo("110.00");
+        assertThat(menuCatalog.changesSince(0).items()).extracting(Item::getId).containsExactly(COFFEE);
+    }
+
+    @Test
+    void refreshDoesNotReadTheItemsWhenTheVersionIsUnchanged() {
+        load(0, item(COFFEE, "100"));
+
+        menuCatalog.refresh();
+
+        verify(itemRepository, times(1)).findAll();
+    }
+
+    @Test
+    void aChangeThatSkipsAVersionIsReadFromTheDatabase() {
+        load(0, item(COFFEE, "100"), item(TEA, "40"));
+        // Another instance repriced tea as version 1 before this instance committed version 2.
+        givenDatabase(2, item(COFFEE, "120"), item(TEA, "45"));
+
+        menuCatalog.onItemChanged(new ItemChangedEvent(COFFEE, item(COFFEE, "120"), 2));
+
+        assertThat(menuCatalog.getVersion()).isEqualTo(2);
+        assertThat(menuCatalog.get(COFFEE).price()).isEqualByComparingTo("120.00");
+        assertThat(menuCatalog.get(TEA).price()).isEqualByComparingTo("45.00");
+    }
+
+    @Test
+    void clientsOlderThanTheChangeLogReceiveTheFullMenu() {
+        menuCatalog = newCatalog(1);
+        load(0, item(COFFEE, "100"), item(TEA, "40"));
+
+        menuCatalog.onItemChanged(new ItemChangedEvent(COFFEE, item(COFFEE, "110"), 1));
+        menuCatalog.onItemChanged(new ItemChangedEvent(TEA, item(TEA, "45"), 2));
+
+        assertThat(menuCatalog.changesSince(0).full()).isTrue();
+        assertThat(menuCatalog.changesSince(0).items()).hasSize(2);
+        assertThat(menuCatalog.changesSince(1).full()).isFalse();
+        assertThat(menuCatalog.changesSince(1).items()).extracting(Item::getId).containsExactly(TEA);
+    }
+
+    private MenuCatalog newCatalog(int changeLogSize) {
+        return new MenuCatalog(itemRepository, catalogVersionRepository, transactionManager,
+                new SimpleMeterRegistry(), changeLogSize);
+    }
+
+    private void load(long version, Item... items) {
+        givenDatabase(version, items);
+        menuCatalog.reload();
+    }
+
+    private void givenDatabase(long version, Item... items) {
+        when(catalogVersionRepository.findVersion(CatalogVersion.MENU)).thenReturn(Optional.of(version));
+        when(itemRepository.findAll()).thenReturn(List.of(items));
+    }
+
+    private static Item item(Long id, String price) {
+        Item item = new Item();
+        item.setId(id);
+        item.setName("item-" + id);
+        item.setPrice(new BigDecimal(price));
+        return item;
+    }
+}
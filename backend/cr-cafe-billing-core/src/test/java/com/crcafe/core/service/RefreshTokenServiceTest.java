@@ -0,0 +1,126 @@
+package com.crcafe.core.service;
+
+import com.crcafe.core.model.RefreshToken;
+import com.crcafe.core.repository.RefreshTokenRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs against the real refresh_tokens statements. Each test commits, like the application
+ * does, so a second service instance sees only what the first one wrote to the table.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class RefreshTokenServiceTest {
+
+    private static final long TTL_MS = 60_000;
+
+    @Autowired
+    private RefreshTokenRepository repository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private RefreshTokenService node1;
+    private RefreshTokenService node2;
+
+    @BeforeEach
+    void createNodes() {
+        node1 = new RefreshTokenService(repository, transactionManager, TTL_MS, 100);
+        node2 = new RefreshTokenService(repository, transactionManager, TTL_MS, 100);
+    }
+
+    @AfterEach
+    void deleteTokens() {
+        repository.deleteAll();
+    }
+
+    @Test
+    void rotationRevokesThePresentedTokenAndContinuesTheSession() {
+        RefreshTokenService.Issued first = node1.startSession(7L, "till");
+
+        Optional<RefreshTokenService.Issued> next = node1.rotate(first.token());
+
+        assertThat(next).isPresent();
+        assertThat(next.get().token()).isNotEqualTo(first.token());
+        assertThat(next.get().sessionId()).isEqualTo(first.sessionId());
+        assertThat(next.get().userId()).isEqualTo(7L);
+        assertThat(activeTokens(first.sessionId())).isEqualTo(1);
+        assertThat(node1.rotate(next.get().token())).isPresent();
+    }
+
+    @Test
+    void reusingARotatedTokenEndsTheSession() {
+        RefreshTokenService.Issued first = node1.startSession(7L, "till");
+        RefreshTokenService.Issued next = node1.rotate(first.token()).orElseThrow();
+
+        // Answered from the in-memory revoked set, without reading the token row.
+        assertThat(node1.rotate(first.token())).isEmpty();
+
+        assertThat(activeTokens(first.sessionId())).isZero();
+        assertThat(node1.rotate(next.token())).isEmpty();
+    }
+
+    @Test
+    void reuseSeenByAnotherInstanceEndsTheSession() {
+        RefreshTokenService.Issued first = node1.startSession(7L, "till");
+        RefreshTokenService.Issued next = node1.rotate(first.token()).orElseThrow();
+
+        // node2 never saw the rotation, so it finds the revoked row in the table.
+        assertThat(node2.rotate(first.token())).isEmpty();
+
+        assertThat(activeTokens(first.sessionId())).isZero();
+        assertThat(node1.rotate(next.token())).isEmpty();
+    }
+
+    @Test
+    void reuseLeavesOtherSessionsOfTheUserAlone() {
+        RefreshTokenService.Issued phone = node1.startSession(7L, "phone");
+        RefreshTokenService.Issued till = node1.startSession(7L, "till");
+        node1.rotate(phone.token());
+
+        node1.rotate(phone.token());
+
+        assertThat(node1.rotate(till.token())).isPresent();
+    }
+
+    @Test
+    void endSessionRevokesEveryTokenOfTheSession() {
+        RefreshTokenService.Issued first = node1.startSession(7L, "till");
+        RefreshTokenService.Issued next = node1.rotate(first.token()).orElseThrow();
+
+        node1.endSession(next.token());
+
+        assertThat(activeTokens(first.sessionId())).isZero();
+        assertThat(node2.rotate(next.token())).isEmpty();
+    }
+
+    @Test
+    void unknownAndExpiredTokensAreRejected() {
+        RefreshTokenService expiring = new RefreshTokenService(repository, transactionManager, 0, 100);
+        RefreshTokenService.Issued expired = expiring.startSession(7L, "till");
+
+        assertThat(node1.rotate("not-a-token")).isEmpty();
+        assertThat(node1.rotate(expired.token())).isEmpty();
+    }
+
+    private long activeTokens(String sessionId) {
+        return repository.findAll().stream()
+                .filter(token -> token.getSessionId().equals(sessionId))
+                .map(RefreshToken::getRevokedAt)
+                .filter(revokedAt -> revokedAt == null)
+                .count();
+    }
+}
@@ -0,0 +1,75 @@
+package com.crcafe.core.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RevokedRefreshTokensTest {
+
+    @Test
+    void remembersTheSessionOfRevokedTokens() {
+        RevokedRefreshTokens revoked = new RevokedRefreshTokens(100, Duration.ofHours(1));
+        add(revoked, "token-1", "session-1");
+        add(revoked, "token-2", "session-2");
+
+        assertThat(sessionOf(revoked, "token-1")).isEqualTo("session-1");
+        assertThat(sessionOf(revoked, "token-2")).isEqualTo("session-2");
+        assertThat(sessionOf(revoked, "token-3")).isNull();
+    }
+
+    @Test
+    void neverAnswersForTokensThatWereNotAdded() {
+        RevokedRefreshTokens revoked = new RevokedRefreshTokens(100, Duration.ofHours(1));
+        for (int i = 0; i < 100; i++) {
+            add(revoked, "revoked-" + i, "session");
+        }
+
+        // Bloom filter false positives fall through to the cache, which does not know them.
+        for (int i = 0; i < 10_000; i++) {
+            assertThat(sessionOf(revoked, "live-" + i)).isNull();
+        }
+    }
+
+    @Test
+    void keepsRecentTokensWhenTheFilterIsRebuilt() {
+        RevokedRefreshTokens revoked = new RevokedRefreshTokens(10, Duration.ofHours(1));
+        // Well past twice the capacity, so the filter is rebuilt from the cache at least once.
+        for (int i = 0; i < 50; i++) {
+            add(revoked, "token-" + i, "session-" + i);
+        }
+
+        assertThat(sessionOf(revoked, "token-49")).isEqualTo("session-49");
+    }
+
+    @Test
+    void forgetsTokensOnceTheirLifetimeHasPassed() {
+        RevokedRefreshTokens revoked = new RevokedRefreshTokens(100, Duration.ZERO);
+        add(revoked, "token-1", "session-1");
+
+        assertThat(sessionOf(revoked, "token-1")).isNull();
+    }
+
+    private static void add(RevokedRefreshTokens revoked, String token, String sessionId) {
+        byte[] digest = sha256(token);
+        revoked.add(digest, HexFormat.of().formatHex(digest), sessionId);
+    }
+
+    private static String sessionOf(RevokedRefreshTokens revoked, String token) {
+        byte[] digest = sha256(token);
+        return revoked.sessionOf(digest, HexFormat.of().formatHex(digest));
+    }
+
+    private static byte[] sha256(String token) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.crcafe.core.service;
+
+import com.crcafe.core.model.Bill;
+import com.crcafe.core.model.Order;
+import com.crcafe.core.model.PaymentMode;
+import com.crcafe.core.model.User;
+import com.crcafe.core.repository.DailyOrderRollupRepository;
+import com.crcafe.core.repository.DailySalesRollupRepository;
+import com.crcafe.core.repository.FinancialSummaryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SalesRollupServiceTest {
+
+    private static final LocalDateTime NOON = LocalDateTime.of(2026, 8, 10, 12, 0);
+
+    @Mock
+    private DailySalesRollupRepository rollupRepository;
+    @Mock
+    private DailyOrderRollupRepository orderRollupRepository;
+    @Mock
+    private FinancialSummaryRepository financialSummaryRepository;
+
+    private SalesRollupService salesRollupService;
+
+    @BeforeEach
+    void createService() {
+        salesRollupService = new SalesRollupService(rollupRepository, orderRollupRepository, financialSummaryRepository);
+    }
+
+    @Test
+    void rebuildKeepsDaysUpToTheLatestArchivedBill() {
+        when(financialSummaryRepository.findLatestOriginalBillDate()).thenReturn(Optional.of(NOON));
+
+        salesRollupService.rebuild();
+
+        LocalDate nextDay = LocalDate.of(2026, 8, 11);
+        verify(rollupRepository).deleteBySalesDateFrom(nextDay);
+        verify(rollupRepository).insertFromBills(nextDay.atStartOfDay());
+        verify(orderRollupRepository).deleteByOrderDateFrom(nextDay);
+        verify(orderRollupRepository).insertFromOrders(nextDay.atStartOfDay());
+    }
+
+    @Test
+    void rebuildRecomputesEveryDayWhenNothingIsArchived() {
+        when(financialSummaryRepository.findLatestOriginalBillDate()).thenReturn(Optional.empty());
+
+        salesRollupService.rebuild();
+
+        LocalDate scanStart = LocalDate.of(1970, 1, 1);
+        verify(rollupRepository).deleteBySalesDateFrom(scanStart);
+        verify(rollupRepository).insertFromBills(scanStart.atStartOfDay());
+        verify(orderRollupRepository).deleteByOrderDateFrom(scanStart);
+        verify(orderRollupRepository).insertFromOrders(scanStart.atStartOfDay());
+    }
+
+    @Test
+    void initializesOnlyEmptyRollups() {
+        when(rollupRepository.count()).thenReturn(3L);
+        when(orderRollupRepository.count()).thenReturn(5L);
+
+        salesRollupService.initializeIfEmpty();
+
+        verifyNoMoreInteractions(financialSummaryRepository);
+    }
+
+    @Test
+    void recordBillsIssuesOneUpsertPerDayPaymentModeAndCashier() {
+        User cashier = cashier(7L);
+        salesRollupService.recordBills(List.of(
+                bill(cashier, NOON, PaymentMode.CASH, "100.00", "10.00"),
+                bill(cashier, NOON.plusHours(1), PaymentMode.CASH, "50.00", "0.00"),
+                bill(cashier, NOON, PaymentMode.ONLINE, "20.00", "0.00")));
+
+        verify(rollupRepository).addBills(NOON.toLocalDate(), "CASH", 7L, 2,
+                new BigDecimal("150.00"), new BigDecimal("10.00"), new BigDecimal("140.00"));
+        verify(rollupRepository).addBills(NOON.toLocalDate(), "ONLINE", 7L, 1,
+                new BigDecimal("20.00"), new BigDecimal("0.00"), new BigDecimal("20.00"));
+        verifyNoMoreInteractions(rollupRepository);
+    }
+
+    @Test
+    void recordOrdersIssuesOneUpsertPerDayAndCashier() {
+        salesRollupService.recordOrders(List.of(
+                order(cashier(7L), NOON),
+                order(cashier(7L), NOON.plusHours(2)),
+                order(cashier(8L), NOON),
+                order(cashier(7L), NOON.plusDays(1))));
+
+        verify(orderRollupRepository).addOrders(NOON.toLocalDate(), 7L, 2);
+        verify(orderRollupRepository).addOrders(NOON.toLocalDate(), 8L, 1);
+        verify(orderRollupRepository).addOrders(NOON.toLocalDate().plusDays(1), 7L, 1);
+        verifyNoMoreInteractions(orderRollupRepository);
+    }
+
+    private static User cashier(Long id) {
+        User cashier = new User();
+        cashier.setId(id);
+        return cashier;
+    }
+
+    private static Order order(User cashier, LocalDateTime orderDate) {
+        Order order = new Order();
+        order.setUser(cashier);
+        order.setOrderDate(orderDate);
+        return order;
+    }
+
+    private static Bill bill(User cashier, LocalDateTime billDate, PaymentMode paymentMode,
+                             String total, String discount) {
+        Bill bill = new Bill();
+        bill.setOrder(order(cashier, billDate));
+        bill.setBillDate(billDate);
+        bill.setPaymentMode(paymentMode);
+        bill.setTotalAmount(new BigDecimal(total));
+        bill.setDiscount(new BigDecimal(discount));
+        bill.setFinalAmount(new BigDecimal(total).subtract(new BigDecimal(discount)));
+        return bill;
+    }
+}
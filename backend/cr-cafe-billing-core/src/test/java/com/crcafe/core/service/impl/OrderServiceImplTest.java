@@ -0,0 +1,184 @@
+package com.crcafe.core.service.impl;
+
+import com.crcafe.core.dto.BulkOrder;
+import com.crcafe.core.dto.BulkOrderResult;
+import com.crcafe.core.model.Bill;
+import com.crcafe.core.model.Order;
+import com.crcafe.core.model.OrderStatus;
+import com.crcafe.core.model.PaymentMode;
+import com.crcafe.core.model.User;
+import com.crcafe.core.outbox.OutboxWriter;
+import com.crcafe.core.receipt.ReceiptIdGenerator;
+import com.crcafe.core.repository.BillRepository;
+import com.crcafe.core.repository.DiscountRepository;
+import com.crcafe.core.repository.ItemRepository;
+import com.crcafe.core.repository.OrderRepository;
+import com.crcafe.core.repository.UserRepository;
+import com.crcafe.core.service.MenuCatalog;
+import com.crcafe.core.service.SalesRollupService;
+import com.crcafe.core.service.TodayMetrics;
+import com.crcafe.core.service.UserCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class OrderServiceImplTest {
+
+    private static final Long ORDER_ID = 42L;
+    private static final int BAD_QUANTITY = 13;
+
+    @Mock
+    private OrderRepository orderRepository;
+    @Mock
+    private BillRepository billRepository;
+    @Mock
+    private UserRepository userRepository;
+    @Mock
+    private ItemRepository itemRepository;
+    @Mock
+    private DiscountRepository discountRepository;
+    @Mock
+    private SalesRollupService salesRollupService;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Mock
+    private TodayMetrics todayMetrics;
+    @Mock
+    private MenuCatalog menuCatalog;
+    @Mock
+    private UserCache userCache;
+    @Mock
+    private ReceiptIdGenerator receiptIdGenerator;
+    @Mock
+    private OutboxWriter outboxWriter;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private OrderServiceImpl orderService;
+
+    @BeforeEach
+    void createService() {
+        orderService = new OrderServiceImpl(orderRepository, billRepository, userRepository, itemRepository,
+                discountRepository, salesRollupService, eventPublisher, todayMetrics, menuCatalog, userCache,
+                receiptIdGenerator, outboxWriter, transactionManager, 2000, 2, 7);
+    }
+
+    @Test
+    void billsAnOpenOrder() {
+        when(orderRepository.compareAndSetStatus(ORDER_ID, OrderStatus.OPEN, OrderStatus.BILLED)).thenReturn(1);
+        when(orderRepository.findById(ORDER_ID)).thenReturn(Optional.of(openOrder()));
+        when(receiptIdGenerator.nextId()).thenReturn("R-1");
+        when(billRepository.save(any(Bill.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        Bill bill = orderService.generateBill(ORDER_ID, null, PaymentMode.CASH);
+
+        assertThat(bill.getReceiptId()).isEqualTo("R-1");
+        assertThat(bill.getFinalAmount()).isEqualByComparingTo("100.00");
+        assertThat(bill.getOrder().getStatus()).isEqualTo(OrderStatus.BILLED);
+        verify(salesRollupService).recordBill(bill);
+    }
+
+    @Test
+    void rejectsBillingAnOrderTwice() {
+        when(orderRepository.compareAndSetStatus(ORDER_ID, OrderStatus.OPEN, OrderStatus.BILLED)).thenReturn(0);
+        when(orderRepository.findStatusById(ORDER_ID)).thenReturn(Optional.of(OrderStatus.BILLED));
+
+        assertThatThrownBy(() -> orderService.generateBill(ORDER_ID, null, PaymentMode.CASH))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("already been generated");
+        verify(billRepository, never()).save(any());
+        verifyNoInteractions(salesRollupService, eventPublisher, outboxWriter, receiptIdGenerator);
+    }
+
+    @Test
+    void rejectsBillingAVoidedOrder() {
+        when(orderRepository.compareAndSetStatus(ORDER_ID, OrderStatus.OPEN, OrderStatus.BILLED)).thenReturn(0);
+        when(orderRepository.findStatusById(ORDER_ID)).thenReturn(Optional.of(OrderStatus.VOID));
+
+        assertThatThrownBy(() -> orderService.generateBill(ORDER_ID, null, PaymentMode.CASH))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("voided");
+        verify(billRepository, never()).save(any());
+    }
+
+    @Test
+    void rejectsVoidingABilledOrder() {
+        when(orderRepository.compareAndSetStatus(ORDER_ID, OrderStatus.OPEN, OrderStatus.VOID)).thenReturn(0);
+        when(orderRepository.findStatusById(ORDER_ID)).thenReturn(Optional.of(OrderStatus.BILLED));
+
+        assertThatThrownBy(() -> orderService.voidOrder(ORDER_ID))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void failedBulkChunkIsRetriedOrderByOrder() {
+        when(userRepository.findById(7L)).thenReturn(Optional.of(cashier()));
+        when(menuCatalog.get(1L)).thenReturn(new MenuCatalog.Entry(1L, "dosa", new BigDecimal("50.00"), true, null));
+        AtomicLong ids = new AtomicLong(100);
+        List<Integer> savedBatchSizes = new ArrayList<>();
+        when(orderRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Order> orders = invocation.getArgument(0);
+            savedBatchSizes.add(orders.size());
+            // Stands in for a constraint violation caused by one order of the chunk.
+            if (orders.stream().anyMatch(order -> order.getOrderItems().get(0).getQuantity() == BAD_QUANTITY)) {
+                throw new DataIntegrityViolationException("bad order");
+            }
+            orders.forEach(order -> order.setId(ids.incrementAndGet()));
+            return orders;
+        });
+        LocalDateTime earlier = LocalDateTime.now().minusHours(1);
+
+        List<BulkOrderResult> results = orderService.createOrders(7L, List.of(
+                new BulkOrder("a", earlier, List.of(new BulkOrder.Line(1L, 1)), null, null),
+                new BulkOrder("bad", earlier, List.of(new BulkOrder.Line(1L, BAD_QUANTITY)), null, null),
+                new BulkOrder("future", LocalDateTime.now().plusDays(1), List.of(new BulkOrder.Line(1L, 1)), null, null),
+                new BulkOrder("c", earlier, List.of(new BulkOrder.Line(1L, 2)), null, null)));
+
+        assertThat(results).extracting(BulkOrderResult::correlationId).containsExactly("a", "bad", "future", "c");
+        assertThat(results).extracting(BulkOrderResult::success).containsExactly(true, false, false, true);
+        assertThat(results.get(0).orderId()).isNotNull();
+        assertThat(results.get(1).error()).startsWith("Could not save order");
+        assertThat(results.get(2).error()).contains("in the future");
+        // Chunks of two: [a, bad] fails and is retried as [a] and [bad]; [c] is written as is.
+        // The future-dated order never reaches a chunk.
+        assertThat(savedBatchSizes).containsExactly(2, 1, 1, 1);
+    }
+
+    private static User cashier() {
+        User cashier = new User();
+        cashier.setId(7L);
+        cashier.setUsername("cashier");
+        return cashier;
+    }
+
+    private static Order openOrder() {
+        Order order = new Order();
+        order.setId(ORDER_ID);
+        order.setUser(cashier());
+        order.setTotalAmount(new BigDecimal("100.00"));
+        order.setOrderItems(List.of());
+        return order;
+    }
+}
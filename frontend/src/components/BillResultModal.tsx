@@ -25,7 +25,7 @@ const BillResultModal: React.FC<BillResultModalProps> = ({ open, bill, user, onC
       document.body.appendChild(printContainer);
     }
     const root = createRoot(printContainer);
-    root.render(<PrintableJob bill={bill} order={bill.order} user={user} thought={randomThought}/>);
+    root.render(<PrintableJob bill={bill} order={bill} user={user} thought={randomThought}/>);
     setTimeout(() => {
       window.print();
       root.unmount();
@@ -87,10 +87,10 @@ const BillResultModal: React.FC<BillResultModalProps> = ({ open, bill, user, onC
             </div>
             <div className={styles.modalReceiptScroll}>
               <div style={{ marginBottom: '24px' }}>
-                <PrintableReceipt bill={bill} order={bill.order} user={user} thought={randomThought}/>
+                <PrintableReceipt bill={bill} order={bill} user={user} thought={randomThought}/>
               </div>
               <div>
-                <TokenSlip bill={bill} order={bill.order} />
+                <TokenSlip bill={bill} order={bill} />
               </div>
             </div>
             <div className={styles.modalActions}>
@@ -50,10 +50,10 @@ const PrintableReceipt: React.FC<PrintableReceiptProps> = ({ bill, order, user,
       <div className={styles.receiptItems}>
         {order.orderItems.map((oi: any) => (
           <div className={styles.receiptItemRow} key={oi.id}>
-            <div className={styles.receiptItemName}>{oi.item.name}</div>
+            <div className={styles.receiptItemName}>{oi.name}</div>
             <div className={styles.receiptItemQty}>{oi.quantity}</div>
-            <div className={styles.receiptItemPrice}>₹{oi.item.price.toFixed(2)}</div>
-            <div className={styles.receiptItemAmount}>₹{(oi.item.price * oi.quantity).toFixed(2)}</div>
+            <div className={styles.receiptItemPrice}>₹{oi.price.toFixed(2)}</div>
+            <div className={styles.receiptItemAmount}>₹{oi.lineTotal.toFixed(2)}</div>
           </div>
         ))}
       </div>
@@ -26,7 +26,7 @@ const TokenSlip: React.FC<TokenSlipProps> = ({ bill, order }) => {
             <div className={styles.tokenItems}>
                 {order.orderItems.map((oi: any) => (
                     <div className={styles.tokenItemRow} key={oi.id}>
-                        <div className={styles.tokenItemName}>{oi.item.name}</div>
+                        <div className={styles.tokenItemName}>{oi.name}</div>
                         <div className={styles.tokenItemQty}>{oi.quantity}</div>
                     </div>
                 ))}
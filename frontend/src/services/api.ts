@@ -75,14 +75,14 @@ api.interceptors.response.use(
                 const { data } = await axios.post('/api/auth/refresh', {}, { withCredentials: true });
 
                 // Update the token in local storage
-                localStorage.setItem('token', data.accessToken);
+                localStorage.setItem('token', data.token);
 
                 // Update the header of the original failed request
-                api.defaults.headers.common['Authorization'] = 'Bearer ' + data.accessToken;
-                originalRequest.headers['Authorization'] = 'Bearer ' + data.accessToken;
+                api.defaults.headers.common['Authorization'] = 'Bearer ' + data.token;
+                originalRequest.headers['Authorization'] = 'Bearer ' + data.token;
 
                 // Process the queue of failed requests with the new token
-                processQueue(null, data.accessToken);
+                processQueue(null, data.token);
 
                 // Retry the original request
                 return api(originalRequest);
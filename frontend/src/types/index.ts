@@ -18,23 +18,36 @@ export interface OrderRequestDto {
   table?: string;
 }
 
+export interface OrderLine {
+  id: number;
+  itemId: number;
+  name: string;
+  quantity: number;
+  price: number;
+  lineTotal: number;
+}
+
 export interface OrderResponseDto {
   id: number;
-  user: User;
+  userId: number;
+  cashier: string;
   orderDate: string;
   totalAmount: number;
-  orderItems: OrderItem[];
+  status: 'OPEN' | 'BILLED' | 'VOID';
+  orderItems: OrderLine[];
 }
 
 export interface BillResponseDto {
   id: number;
-  order: OrderResponseDto;
+  orderId: number;
+  receiptId: string;
   billDate: string;
+  cashier: string;
   totalAmount: number;
   discount: number;
   finalAmount: number;
-  receiptId: string;
   paymentMode: PaymentMode;
+  orderItems: OrderLine[];
 }
 
 export interface User {